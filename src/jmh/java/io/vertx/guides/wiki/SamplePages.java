@@ -0,0 +1,114 @@
+package io.vertx.guides.wiki;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic wiki content for the benchmarks: markdown mixing the constructs pages actually use, and rows shaped
+ * like the ones the SQL queries return.
+ */
+public final class SamplePages {
+
+    private static final String[] SECTIONS = {
+        "## Overview\n\n"
+            + "The *event loop* never blocks: long work goes to a **worker pool** and the result comes back as a message. "
+            + "See [the guide](https://vertx.io/docs/guide-for-java-devs/) for the details, and `executeBlocking` for "
+            + "the escape hatch.\n\n",
+        "### Checklist\n\n"
+            + "* deploy the database verticle first\n"
+            + "* then the HTTP server verticles\n"
+            + "    * two instances share the port\n"
+            + "* watch `/metrics` while testing\n\n",
+        "### Example\n\n"
+            + "    vertx.deployVerticle(new WikiDatabaseVerticle(), ar -> {\n"
+            + "        if (ar.succeeded()) {\n"
+            + "            vertx.deployVerticle(HttpServerVerticle.class, options);\n"
+            + "        }\n"
+            + "    });\n\n",
+        "> Quoting a page: _every_ handler runs on the same thread, so shared state needs no locks as long as it stays "
+            + "inside one verticle.\n\n"
+            + "1. read the page\n"
+            + "2. edit the markdown\n"
+            + "3. save, and every other browser gets a `page.saved` notification\n\n"
+    };
+
+    private SamplePages() {
+    }
+
+    /**
+     * Markdown of about {@code size} characters.
+     */
+    public static String markdown(int size) {
+        StringBuilder markdown = new StringBuilder(size + 512).append("# Sample page\n\n");
+        for (int i = 0; markdown.length() < size; i++) {
+            markdown.append(SECTIONS[i % SECTIONS.length]);
+        }
+        return markdown.toString();
+    }
+
+    public static String name(int id) {
+        return "Sample page " + id;
+    }
+
+    /**
+     * A {@code get-page-by-id} row: Id, Name, Content, Html, HtmlVersion, Version, Updated.
+     */
+    public static JsonArray pageRow(int id, int contentSize) {
+        return new JsonArray()
+            .add(id)
+            .add(name(id))
+            .add(markdown(contentSize))
+            .addNull()
+            .addNull()
+            .add(3L)
+            .add("2020-05-04T10:15:30.000Z");
+    }
+
+    /**
+     * {@code all-pages} rows: Name.
+     */
+    public static List<JsonArray> nameRows(int count) {
+        List<JsonArray> rows = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            rows.add(new JsonArray().add(name(id)));
+        }
+        return rows;
+    }
+
+    /**
+     * {@code pages-summary-after} rows: Id, Name.
+     */
+    public static List<JsonArray> summaryRows(int count) {
+        List<JsonArray> rows = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            rows.add(new JsonArray().add(id).add(name(id)));
+        }
+        return rows;
+    }
+
+    /**
+     * {@code fetchPagesSummary} results.
+     */
+    public static List<JsonObject> summaries(int count) {
+        List<JsonObject> pages = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            pages.add(new JsonObject().put("id", id).put("name", name(id)));
+        }
+        return pages;
+    }
+
+    /**
+     * {@code fetchAllPagesData} results, as {@code ResultSet.getRows()} builds them.
+     */
+    public static List<JsonObject> pagesData(int count, int contentSize) {
+        String content = markdown(contentSize);
+        List<JsonObject> pages = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            pages.add(new JsonObject().put("ID", id).put("NAME", name(id)).put("CONTENT", content));
+        }
+        return pages;
+    }
+}
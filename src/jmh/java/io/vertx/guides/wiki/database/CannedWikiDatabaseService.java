@@ -0,0 +1,106 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+
+/**
+ * Service answering the read calls with fixed results, so that proxy benchmarks measure delivery and marshalling
+ * rather than the database.
+ */
+class CannedWikiDatabaseService implements WikiDatabaseService {
+
+    private final List<JsonObject> pagesData;
+    private final JsonObject page;
+
+    CannedWikiDatabaseService(List<JsonObject> pagesData, JsonObject page) {
+        this.pagesData = pagesData;
+        this.page = page;
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(pagesData));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(page));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return unsupported(resultHandler);
+    }
+
+    private <T> WikiDatabaseService unsupported(Handler<AsyncResult<T>> resultHandler) {
+        resultHandler.handle(Future.failedFuture(new UnsupportedOperationException()));
+        return this;
+    }
+}
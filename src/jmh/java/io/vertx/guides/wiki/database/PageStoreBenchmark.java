@@ -0,0 +1,124 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.SamplePages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the two {@link WikiDatabaseService} backends, a file HSQLDB database through JDBC and the
+ * memory-mapped {@link MappedPageStore}, each deployed by its {@link WikiDatabaseVerticle} and called through local
+ * delivery. The JDBC page cache is disabled, so that every read reaches the storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PageStoreBenchmark {
+
+    private static final int PAGES = 1000;
+
+    @Param({"jdbc", "mapped"})
+    String backend;
+
+    private Path dir;
+    private Vertx vertx;
+    private WikiDatabaseService service;
+    private String markdown;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("page-store-benchmark");
+        vertx = Vertx.vertx();
+        JsonObject config = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_BACKEND, backend)
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:file:" + dir.resolve("wiki"))
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_CACHE_MAX_ENTRIES, 0)
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_DIRECTORY, dir.resolve("pages").toString());
+        CompletableFuture<String> deployed = new CompletableFuture<>();
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config),
+            ar -> complete(deployed, ar.result(), ar.cause()));
+        deployed.join();
+        service = WikiDatabaseService.createLocalProxy(vertx, WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE,
+            new DeliveryOptions());
+
+        markdown = SamplePages.markdown(4 * 1024);
+        List<JsonObject> pages = Stream.iterate(0, id -> id + 1)
+            .limit(PAGES)
+            .map(id -> new JsonObject().put("name", SamplePages.name(id)).put("markdown", markdown))
+            .collect(Collectors.toList());
+        CompletableFuture<JsonObject> imported = new CompletableFuture<>();
+        service.importPages(pages, ar -> complete(imported, ar.result(), ar.cause()));
+        imported.join();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        vertx.close(ar -> closed.complete(null));
+        closed.join();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public JsonObject fetchPageById() {
+        CompletableFuture<JsonObject> result = new CompletableFuture<>();
+        service.fetchPageById(ThreadLocalRandom.current().nextInt(PAGES),
+            ar -> complete(result, ar.succeeded() ? ar.result() : null, ar.cause()));
+        return result.join();
+    }
+
+    @Benchmark
+    public List<JsonObject> fetchPagesSummary() {
+        CompletableFuture<List<JsonObject>> result = new CompletableFuture<>();
+        service.fetchPagesSummary(ThreadLocalRandom.current().nextInt(PAGES), 50,
+            ar -> complete(result, ar.succeeded() ? ar.result() : null, ar.cause()));
+        return result.join();
+    }
+
+    @Benchmark
+    public Void savePage() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        service.savePage(ThreadLocalRandom.current().nextInt(PAGES), markdown, "benchmark",
+            ar -> complete(result, null, ar.cause()));
+        return result.join();
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable failure) {
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(value);
+        }
+    }
+}
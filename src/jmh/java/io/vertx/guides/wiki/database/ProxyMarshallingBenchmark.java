@@ -0,0 +1,87 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.SamplePages;
+import io.vertx.serviceproxy.ServiceBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips from a {@link WikiDatabaseService} proxy to a service answering with fixed results: through the
+ * generated {@code WikiDatabaseServiceVertxEBProxy} and {@code WikiDatabaseServiceVertxProxyHandler} pair, which copy
+ * arguments and results into event-bus messages, or through local delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyMarshallingBenchmark {
+
+    private static final String ADDRESS = "benchmark.wikidb";
+
+    @Param({"eventbus", "local"})
+    String delivery;
+
+    private Vertx vertx;
+    private WikiDatabaseService proxy;
+
+    @Setup
+    public void setUp() {
+        vertx = Vertx.vertx();
+        WikiDatabaseService service = new CannedWikiDatabaseService(
+            SamplePages.pagesData(100, 1024),
+            WikiDatabaseServiceImpl.pageDetails(SamplePages.pageRow(42, 16 * 1024)));
+        new ServiceBinder(vertx).setAddress(ADDRESS).register(WikiDatabaseService.class, service);
+        LocalDelivery.bind(vertx, ADDRESS, service);
+        proxy = "local".equals(delivery)
+            ? WikiDatabaseService.createLocalProxy(vertx, ADDRESS, new DeliveryOptions())
+            : WikiDatabaseService.createProxy(vertx, ADDRESS, new DeliveryOptions());
+    }
+
+    @TearDown
+    public void tearDown() {
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        vertx.close(ar -> closed.complete(null));
+        closed.join();
+    }
+
+    @Benchmark
+    public List<JsonObject> fetchAllPagesData() {
+        CompletableFuture<List<JsonObject>> result = new CompletableFuture<>();
+        proxy.fetchAllPagesData(ar -> complete(result, ar.succeeded() ? ar.result() : null, ar.cause()));
+        return result.join();
+    }
+
+    @Benchmark
+    public JsonObject fetchPageById() {
+        CompletableFuture<JsonObject> result = new CompletableFuture<>();
+        proxy.fetchPageById(42, ar -> complete(result, ar.succeeded() ? ar.result() : null, ar.cause()));
+        return result.join();
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable failure) {
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(value);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.SamplePages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link WikiDatabaseServiceImpl} mappings from result rows to service replies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private List<JsonArray> nameRows;
+    private List<JsonArray> summaryRows;
+    private JsonArray pageRow;
+
+    @Setup
+    public void setUp() {
+        nameRows = SamplePages.nameRows(1000);
+        summaryRows = SamplePages.summaryRows(1000);
+        pageRow = SamplePages.pageRow(42, 16 * 1024);
+    }
+
+    @Benchmark
+    public JsonArray fetchAllPages() {
+        return WikiDatabaseServiceImpl.pageNames(nameRows);
+    }
+
+    @Benchmark
+    public List<JsonObject> fetchPagesSummary() {
+        return summaryRows.stream()
+            .map(WikiDatabaseServiceImpl::pageSummary)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public JsonObject fetchPageById() {
+        return WikiDatabaseServiceImpl.pageDetails(pageRow);
+    }
+}
@@ -0,0 +1,75 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.impl.codecs.JsonArrayMessageCodec;
+import io.vertx.core.eventbus.impl.codecs.JsonObjectMessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.SamplePages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of service replies as a clustered event bus does it: the proxy handler replies to
+ * {@code fetchAllPagesData} with a {@link JsonArray} of rows and to {@code fetchPageById} with a {@link JsonObject}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireCodecBenchmark {
+
+    private final JsonArrayMessageCodec arrayCodec = new JsonArrayMessageCodec();
+    private final JsonObjectMessageCodec objectCodec = new JsonObjectMessageCodec();
+
+    private JsonArray pagesData;
+    private JsonObject page;
+    private Buffer encodedPagesData;
+    private Buffer encodedPage;
+
+    @Setup
+    public void setUp() {
+        pagesData = new JsonArray(SamplePages.pagesData(100, 1024));
+        page = WikiDatabaseServiceImpl.pageDetails(SamplePages.pageRow(42, 16 * 1024));
+        encodedPagesData = Buffer.buffer();
+        arrayCodec.encodeToWire(encodedPagesData, pagesData);
+        encodedPage = Buffer.buffer();
+        objectCodec.encodeToWire(encodedPage, page);
+    }
+
+    @Benchmark
+    public Buffer encodeFetchAllPagesData() {
+        Buffer buffer = Buffer.buffer();
+        arrayCodec.encodeToWire(buffer, pagesData);
+        return buffer;
+    }
+
+    @Benchmark
+    public JsonArray decodeFetchAllPagesData() {
+        return arrayCodec.decodeFromWire(0, encodedPagesData);
+    }
+
+    @Benchmark
+    public Buffer encodeFetchPageById() {
+        Buffer buffer = Buffer.buffer();
+        objectCodec.encodeToWire(buffer, page);
+        return buffer;
+    }
+
+    @Benchmark
+    public JsonObject decodeFetchPageById() {
+        return objectCodec.decodeFromWire(0, encodedPage);
+    }
+}
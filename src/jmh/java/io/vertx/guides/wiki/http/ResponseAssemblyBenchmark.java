@@ -0,0 +1,56 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.SamplePages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembly and encoding of the {@code /api/pages} listing and of a {@code /api/pages/:id} reply.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseAssemblyBenchmark {
+
+    @Param({"100", "1000"})
+    int pages;
+
+    private List<JsonObject> summaries;
+    private JsonObject page;
+
+    @Setup
+    public void setUp() {
+        summaries = SamplePages.summaries(pages);
+        page = new JsonObject()
+            .put("id", 42)
+            .put("name", SamplePages.name(42))
+            .put("markdown", SamplePages.markdown(16 * 1024))
+            .put("html", "<p>" + SamplePages.markdown(16 * 1024) + "</p>");
+    }
+
+    @Benchmark
+    public String apiRoot() {
+        return HttpServerVerticle.pagesListing(summaries, Integer.MAX_VALUE).encode();
+    }
+
+    @Benchmark
+    public String apiGetPage() {
+        return HttpServerVerticle.successBody("page", page);
+    }
+}
@@ -0,0 +1,44 @@
+package io.vertx.guides.wiki.render;
+
+import io.vertx.guides.wiki.SamplePages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * txtmark {@code Processor.process}, through {@link Markdown#render(String)}, on typical, long and bulk-import sized
+ * pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownBenchmark {
+
+    @Param({"1024", "16384", "262144"})
+    int size;
+
+    private String markdown;
+
+    @Setup
+    public void setUp() {
+        markdown = SamplePages.markdown(size);
+    }
+
+    @Benchmark
+    public String render() {
+        return Markdown.render(markdown);
+    }
+}
@@ -0,0 +1,83 @@
+package io.vertx.guides.wiki.search;
+
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SearchIndex} queries and updates on synthetic wikis of up to 100k pages whose words follow a Zipf-like
+ * distribution, so that queries mix very common terms, with long postings lists, and rare ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_PAGE = 300;
+
+    @Param({"10000", "100000"})
+    int pages;
+
+    private SearchIndex index;
+    private String[] queries;
+    private IndexedPage[] updates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new SearchIndex();
+        for (int id = 0; id < pages; id++) {
+            index.put(page(random, id, 0));
+        }
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = word(random) + " " + word(random);
+        }
+        updates = new IndexedPage[64];
+        for (int i = 0; i < updates.length; i++) {
+            updates[i] = page(random, random.nextInt(pages), 1);
+        }
+    }
+
+    private static IndexedPage page(SplittableRandom random, int id, long version) {
+        StringBuilder markdown = new StringBuilder(WORDS_PER_PAGE * 8);
+        for (int i = 0; i < WORDS_PER_PAGE; i++) {
+            markdown.append(word(random)).append(i % 12 == 11 ? ".\n" : " ");
+        }
+        return IndexedPage.of(id, "Page " + id, version + "@2020-01-01", markdown.toString());
+    }
+
+    // Rank r is drawn with probability roughly proportional to 1 / r
+    private static String word(SplittableRandom random) {
+        int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+        return "w" + Integer.toString(rank, 36);
+    }
+
+    @Benchmark
+    public List<JsonObject> search() {
+        return index.search(queries[next++ & (queries.length - 1)], 20);
+    }
+
+    @Benchmark
+    public void update() {
+        index.put(updates[next++ & (updates.length - 1)]);
+    }
+}
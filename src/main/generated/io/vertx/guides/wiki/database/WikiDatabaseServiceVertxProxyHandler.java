@@ -125,6 +125,12 @@ public class WikiDatabaseServiceVertxProxyHandler extends ProxyHandler {
           service.fetchAllPagesData(HelperUtils.createListHandler(msg));
           break;
         }
+        case "fetchPagesSummary": {
+          service.fetchPagesSummary(json.getValue("after") == null ? null : (json.getLong("after").intValue()),
+                        json.getValue("limit") == null ? null : (json.getLong("limit").intValue()),
+                        HelperUtils.createListHandler(msg));
+          break;
+        }
         case "fetchPage": {
           service.fetchPage((java.lang.String)json.getValue("name"),
                         HelperUtils.createHandler(msg));
@@ -135,6 +141,21 @@ public class WikiDatabaseServiceVertxProxyHandler extends ProxyHandler {
                         HelperUtils.createHandler(msg));
           break;
         }
+        case "fetchPagesByIds": {
+          service.fetchPagesByIds(json.getJsonArray("ids").stream().map(o -> ((Number)o).intValue()).collect(Collectors.toList()),
+                        HelperUtils.createListHandler(msg));
+          break;
+        }
+        case "fetchPagesByNames": {
+          service.fetchPagesByNames(HelperUtils.convertList(json.getJsonArray("names").getList()),
+                        HelperUtils.createListHandler(msg));
+          break;
+        }
+        case "fetchPageVersion": {
+          service.fetchPageVersion(json.getValue("id") == null ? null : (json.getLong("id").intValue()),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
         case "createPage": {
           service.createPage((java.lang.String)json.getValue("title"),
                         (java.lang.String)json.getValue("markdown"),
@@ -144,6 +165,13 @@ public class WikiDatabaseServiceVertxProxyHandler extends ProxyHandler {
         case "savePage": {
           service.savePage(json.getValue("id") == null ? null : (json.getLong("id").intValue()),
                         (java.lang.String)json.getValue("markdown"),
+                        (java.lang.String)json.getValue("client"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "renamePage": {
+          service.renamePage(json.getValue("id") == null ? null : (json.getLong("id").intValue()),
+                        (java.lang.String)json.getValue("name"),
                         HelperUtils.createHandler(msg));
           break;
         }
@@ -152,6 +180,23 @@ public class WikiDatabaseServiceVertxProxyHandler extends ProxyHandler {
                         HelperUtils.createHandler(msg));
           break;
         }
+        case "importPages": {
+          service.importPages(HelperUtils.convertList(json.getJsonArray("pages").getList()),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "exportPages": {
+          service.exportPages((java.lang.String)json.getValue("address"),
+                        json.getValue("batchSize") == null ? null : (json.getLong("batchSize").intValue()),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "searchPages": {
+          service.searchPages((java.lang.String)json.getValue("query"),
+                        json.getValue("limit") == null ? null : (json.getLong("limit").intValue()),
+                        HelperUtils.createListHandler(msg));
+          break;
+        }
         default: throw new IllegalStateException("Invalid action: " + action);
       }
     } catch (Throwable t) {
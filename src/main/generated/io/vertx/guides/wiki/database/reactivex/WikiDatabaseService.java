@@ -90,6 +90,32 @@ public class WikiDatabaseService {
     });
   }
 
+  /**
+   * Lists pages as <code>id</code>/<code>name</code> pairs ordered by id, starting after the <code>after</code> id (keyset
+   * pagination). Page content is not loaded.
+   * @param after 
+   * @param limit 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    delegate.fetchPagesSummary(after, limit, resultHandler);
+    return this;
+  }
+
+  /**
+   * Lists pages as <code>id</code>/<code>name</code> pairs ordered by id, starting after the <code>after</code> id (keyset
+   * pagination). Page content is not loaded.
+   * @param after 
+   * @param limit 
+   * @return 
+   */
+  public Single<List<JsonObject>> rxFetchPagesSummary(int after, int limit) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchPagesSummary(after, limit, handler);
+    });
+  }
+
   public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) { 
     delegate.fetchPage(name, resultHandler);
     return this;
@@ -112,25 +138,151 @@ public class WikiDatabaseService {
     });
   }
 
-  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler) { 
+  /**
+   * Looks up many pages at once, in as few queries as the chunk size allows. Completes with the pages found, in the
+   * order of <code>ids</code> and without duplicates, as {@link io.vertx.guides.wiki.database.reactivex.WikiDatabaseService#fetchPageById} objects without the
+   * <code>found</code> flag; <code>html</code> is only set when stored HTML is up to date.
+   * @param ids 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    delegate.fetchPagesByIds(ids, resultHandler);
+    return this;
+  }
+
+  /**
+   * Looks up many pages at once, in as few queries as the chunk size allows. Completes with the pages found, in the
+   * order of <code>ids</code> and without duplicates, as {@link io.vertx.guides.wiki.database.reactivex.WikiDatabaseService#fetchPageById} objects without the
+   * <code>found</code> flag; <code>html</code> is only set when stored HTML is up to date.
+   * @param ids 
+   * @return 
+   */
+  public Single<List<JsonObject>> rxFetchPagesByIds(List<Integer> ids) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchPagesByIds(ids, handler);
+    });
+  }
+
+  /**
+   * Same as {@link io.vertx.guides.wiki.database.reactivex.WikiDatabaseService#fetchPagesByIds}, by page names.
+   * @param names 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    delegate.fetchPagesByNames(names, resultHandler);
+    return this;
+  }
+
+  /**
+   * Same as {@link io.vertx.guides.wiki.database.reactivex.WikiDatabaseService#fetchPagesByIds}, by page names.
+   * @param names 
+   * @return 
+   */
+  public Single<List<JsonObject>> rxFetchPagesByNames(List<String> names) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchPagesByNames(names, handler);
+    });
+  }
+
+  /**
+   * Looks up the <code>version</code> and <code>updated</code> time of a page without loading its content.
+   * @param id 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) { 
+    delegate.fetchPageVersion(id, resultHandler);
+    return this;
+  }
+
+  /**
+   * Looks up the <code>version</code> and <code>updated</code> time of a page without loading its content.
+   * @param id 
+   * @return 
+   */
+  public Single<JsonObject> rxFetchPageVersion(int id) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchPageVersion(id, handler);
+    });
+  }
+
+  /**
+   * Creates a page, completing with the id the database generated for it.
+   * @param title 
+   * @param markdown 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) { 
     delegate.createPage(title, markdown, resultHandler);
     return this;
   }
 
-  public Completable rxCreatePage(String title, String markdown) { 
-    return io.vertx.reactivex.impl.AsyncResultCompletable.toCompletable(handler -> {
+  /**
+   * Creates a page, completing with the id the database generated for it.
+   * @param title 
+   * @param markdown 
+   * @return 
+   */
+  public Single<Integer> rxCreatePage(String title, String markdown) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
       createPage(title, markdown, handler);
     });
   }
 
-  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) { 
-    delegate.savePage(id, markdown, resultHandler);
+  /**
+   * Replaces the markdown of a page, then publishes a <code>page.saved</code> event with its <code>id</code>, its new
+   * <code>version</code> and the <code>client</code> that saved it. With write-behind enabled, successive saves of a page may
+   * be coalesced into one write and one event, carrying the client of the last save.
+   * @param id 
+   * @param markdown 
+   * @param client 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) { 
+    delegate.savePage(id, markdown, client, resultHandler);
     return this;
   }
 
-  public Completable rxSavePage(int id, String markdown) { 
+  /**
+   * Replaces the markdown of a page, then publishes a <code>page.saved</code> event with its <code>id</code>, its new
+   * <code>version</code> and the <code>client</code> that saved it. With write-behind enabled, successive saves of a page may
+   * be coalesced into one write and one event, carrying the client of the last save.
+   * @param id 
+   * @param markdown 
+   * @param client 
+   * @return 
+   */
+  public Completable rxSavePage(int id, String markdown, String client) { 
     return io.vertx.reactivex.impl.AsyncResultCompletable.toCompletable(handler -> {
-      savePage(id, markdown, handler);
+      savePage(id, markdown, client, handler);
+    });
+  }
+
+  /**
+   * Renames a page, completing with <code>false</code> if there is no page with that id.
+   * @param id 
+   * @param name 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) { 
+    delegate.renamePage(id, name, resultHandler);
+    return this;
+  }
+
+  /**
+   * Renames a page, completing with <code>false</code> if there is no page with that id.
+   * @param id 
+   * @param name 
+   * @return 
+   */
+  public Single<Boolean> rxRenamePage(int id, String name) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      renamePage(id, name, handler);
     });
   }
 
@@ -145,6 +297,92 @@ public class WikiDatabaseService {
     });
   }
 
+  /**
+   * Inserts <code>name</code>/<code>markdown</code> pages in a single transaction. Pages whose name already exists, in the
+   * database or earlier in the same batch, are skipped. Completes with the number of <code>imported</code> pages, the
+   * <code>pages</code> array of their <code>id</code>/<code>name</code> objects and the <code>conflicts</code> array of skipped indexes
+   * within <code>pages</code>.
+   * @param pages 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) { 
+    delegate.importPages(pages, resultHandler);
+    return this;
+  }
+
+  /**
+   * Inserts <code>name</code>/<code>markdown</code> pages in a single transaction. Pages whose name already exists, in the
+   * database or earlier in the same batch, are skipped. Completes with the number of <code>imported</code> pages, the
+   * <code>pages</code> array of their <code>id</code>/<code>name</code> objects and the <code>conflicts</code> array of skipped indexes
+   * within <code>pages</code>.
+   * @param pages 
+   * @return 
+   */
+  public Single<JsonObject> rxImportPages(List<JsonObject> pages) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      importPages(pages, handler);
+    });
+  }
+
+  /**
+   * Streams every page, ordered by id, to <code>address</code> as JSON arrays of at most <code>batchSize</code>
+   * <code>id</code>/<code>name</code>/<code>markdown</code> objects. Each batch is sent as a request and the next one is only read
+   * from the database once it has been replied to; failing a batch aborts the export. Completes with the number of
+   * exported pages.
+   * @param address 
+   * @param batchSize 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) { 
+    delegate.exportPages(address, batchSize, resultHandler);
+    return this;
+  }
+
+  /**
+   * Streams every page, ordered by id, to <code>address</code> as JSON arrays of at most <code>batchSize</code>
+   * <code>id</code>/<code>name</code>/<code>markdown</code> objects. Each batch is sent as a request and the next one is only read
+   * from the database once it has been replied to; failing a batch aborts the export. Completes with the number of
+   * exported pages.
+   * @param address 
+   * @param batchSize 
+   * @return 
+   */
+  public Single<Integer> rxExportPages(String address, int batchSize) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      exportPages(address, batchSize, handler);
+    });
+  }
+
+  /**
+   * Full-text search over page names and markdown, ranked with BM25. Completes with at most <code>limit</code>
+   * <code>id</code>/<code>name</code>/<code>score</code> objects, best match first. The index is maintained in memory by the
+   * service, so searches never query the database.
+   * @param query 
+   * @param limit 
+   * @param resultHandler 
+   * @return 
+   */
+  public io.vertx.guides.wiki.database.reactivex.WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    delegate.searchPages(query, limit, resultHandler);
+    return this;
+  }
+
+  /**
+   * Full-text search over page names and markdown, ranked with BM25. Completes with at most <code>limit</code>
+   * <code>id</code>/<code>name</code>/<code>score</code> objects, best match first. The index is maintained in memory by the
+   * service, so searches never query the database.
+   * @param query 
+   * @param limit 
+   * @return 
+   */
+  public Single<List<JsonObject>> rxSearchPages(String query, int limit) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      searchPages(query, limit, handler);
+    });
+  }
+
   public static WikiDatabaseService newInstance(io.vertx.guides.wiki.database.WikiDatabaseService arg) {
     return arg != null ? new WikiDatabaseService(arg) : null;
   }
@@ -1,10 +1,13 @@
 package io.vertx.guides.wiki;
 
+import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
 import io.vertx.guides.wiki.database.WikiDatabaseVerticle;
 import io.vertx.guides.wiki.http.HttpServerVerticle;
+import io.vertx.guides.wiki.render.RenderVerticle;
 import io.vertx.reactivex.core.AbstractVerticle;
 
 public class MainVerticle extends AbstractVerticle {
@@ -13,16 +16,28 @@ public class MainVerticle extends AbstractVerticle {
 
     @Override
     public void start(Promise<Void> promise) {
-        init = vertx
-            .rxDeployVerticle(new WikiDatabaseVerticle())
+        int dbInstances = config().getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCES,
+            WikiDatabaseVerticle.defaultInstances(config()));
+        int httpInstances = config().getInteger(HttpServerVerticle.CONFIG_HTTP_SERVER_INSTANCES,
+            Runtime.getRuntime().availableProcessors());
+        JsonObject config = config().copy().put(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCES, dbInstances);
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        init = Flowable.range(0, dbInstances)
+            // One deployment per instance, each knowing its index, and one after the other, so that schema creation
+            // and upgrades never run concurrently
+            .concatMapSingle(instance -> vertx.rxDeployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions()
+                .setConfig(config.copy().put(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCE, instance))))
+            .ignoreElements()
+            .andThen(vertx.rxDeployVerticle(new RenderVerticle(), options))
 //            .flatMap(id -> vertx.rxDeployVerticle(new HttpServerVerticle(), new DeploymentOptions().setInstances(2)))   // fails with "Can't specify > 1 instances for already created verticle"
 //            .flatMap(id -> vertx.rxDeployVerticle(HttpServerVerticle.class.getCanonicalName(), new DeploymentOptions().setInstances(2)))  // works
-            .flatMap(id -> vertx.rxDeployVerticle(HttpServerVerticle::new, new DeploymentOptions().setInstances(2)))  // works, because new instance is created via supplier
+            .flatMap(id -> vertx.rxDeployVerticle(HttpServerVerticle::new, new DeploymentOptions(options).setInstances(httpInstances)))  // works, because new instance is created via supplier
             .subscribe(id -> promise.complete(), promise::fail);
     }
 
     @Override
     public void stop(Promise<Void> promise) {
         init.dispose();
+        promise.complete();
     }
 }
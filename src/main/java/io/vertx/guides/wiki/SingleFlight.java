@@ -0,0 +1,56 @@
+package io.vertx.guides.wiki;
+
+import io.reactivex.Maybe;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight loading: callers asking for a key while a load of it is in flight share that load's result instead of
+ * starting another one. Results are not kept once the load completes; that is the job of a cache.
+ * <p>
+ * Not thread-safe: each instance must only be used from one event loop.
+ */
+public final class SingleFlight<K, T> {
+
+    private final Map<K, Maybe<T>> inFlight = new HashMap<>();
+    private final LongAdder coalesced;
+
+    /**
+     * @param coalesced counts the callers served by a load another caller started
+     */
+    public SingleFlight(LongAdder coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    public Maybe<T> load(K key, Supplier<Maybe<T>> loader) {
+        return Maybe.defer(() -> {
+            Maybe<T> shared = inFlight.get(key);
+            if (shared != null) {
+                coalesced.increment();
+                return shared;
+            }
+            AtomicReference<Maybe<T>> self = new AtomicReference<>();
+            self.set(Maybe.defer(loader::get)
+                .doFinally(() -> inFlight.remove(key, self.get()))
+                .cache());
+            inFlight.put(key, self.get());
+            return self.get();
+        });
+    }
+
+    /**
+     * Makes the next callers asking for {@code key} start a new load, for instance because the data it reads changed
+     * after the current one started.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableEmitter;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.serviceproxy.ServiceException;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for one class of database operations: at most {@code concurrency} of them hold or wait for a JDBC
+ * connection at a time, at most {@code maxQueued} more wait here, and the rest are failed right away with
+ * {@link ErrorCodes#OVERLOADED} instead of queueing without bound inside the JDBC client.
+ * <p>
+ * Not thread-safe: it is only used from the event loop of the {@link WikiDatabaseVerticle} owning it.
+ */
+class Admission {
+
+    private final String name;
+    private final int concurrency;
+    private final int maxQueued;
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private int active;
+
+    private final Timer wait;
+    private final LongAdder rejected;
+
+    Admission(String name, int concurrency, int maxQueued, WikiMetrics metrics) {
+        this(name, concurrency, maxQueued, metrics, new String[0]);
+    }
+
+    /**
+     * @param maxQueued the queue bound, or a negative value for operations that must never be rejected
+     * @param gaugeLabels the labels of the gauges, which the {@code class} label comes before
+     */
+    Admission(String name, int concurrency, int maxQueued, WikiMetrics metrics, String[] gaugeLabels) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Invalid " + name + " concurrency " + concurrency);
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.maxQueued = maxQueued;
+        this.wait = metrics.timer("wikidb.admission.wait", "class", name);
+        this.rejected = metrics.counter("wikidb.admission.rejected", "class", name);
+        String[] labels = new String[gaugeLabels.length + 2];
+        labels[0] = "class";
+        labels[1] = name;
+        System.arraycopy(gaugeLabels, 0, labels, 2, gaugeLabels.length);
+        metrics.gauge("wikidb.admission.active", () -> active, labels);
+        metrics.gauge("wikidb.admission.queued", () -> queue.size(), labels);
+        metrics.gauge("wikidb.admission.concurrency", () -> concurrency, labels);
+    }
+
+    String name() {
+        return name;
+    }
+
+    int active() {
+        return active;
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Completes once the operation may run, which must then {@link #release()} its slot when done.
+     */
+    Completable acquire() {
+        return Completable.create(emitter -> {
+            if (emitter.isDisposed()) {
+                return;
+            }
+            if (active < concurrency) {
+                active++;
+                wait.record(0);
+                emitter.onComplete();
+            } else if (maxQueued >= 0 && queue.size() >= maxQueued) {
+                rejected.increment();
+                emitter.onError(new ServiceException(ErrorCodes.OVERLOADED.ordinal(),
+                    "Database " + name + " queue is full"));
+            } else {
+                Waiter waiter = new Waiter(emitter);
+                queue.add(waiter);
+                // A waiter given up on, e.g. by a timeout, must neither hold a queue place nor be granted a slot that
+                // nobody would release
+                emitter.setCancellable(() -> queue.remove(waiter));
+            }
+        });
+    }
+
+    /**
+     * Runs {@code work} once admitted, releasing its slot when the work terminates or is disposed, including when it
+     * is disposed after the slot was granted but before the work started.
+     */
+    <T> Single<T> run(Single<T> work) {
+        return Single.defer(() -> {
+            AtomicBoolean granted = new AtomicBoolean();
+            return acquire()
+                .doOnComplete(() -> granted.set(true))
+                .andThen(work)
+                .doFinally(() -> releaseIfGranted(granted));
+        });
+    }
+
+    /**
+     * Same as {@link #run(Single)}.
+     */
+    <T> Maybe<T> run(Maybe<T> work) {
+        return Maybe.defer(() -> {
+            AtomicBoolean granted = new AtomicBoolean();
+            return acquire()
+                .doOnComplete(() -> granted.set(true))
+                .andThen(work)
+                .doFinally(() -> releaseIfGranted(granted));
+        });
+    }
+
+    private void releaseIfGranted(AtomicBoolean granted) {
+        if (granted.getAndSet(false)) {
+            release();
+        }
+    }
+
+    void release() {
+        active--;
+        while (active < concurrency && !queue.isEmpty()) {
+            Waiter waiter = queue.poll();
+            active++;
+            wait.recordSince(waiter.queuedAt);
+            waiter.emitter.onComplete();
+        }
+    }
+
+    private static final class Waiter {
+        private final CompletableEmitter emitter;
+        private final long queuedAt = System.nanoTime();
+
+        private Waiter(CompletableEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
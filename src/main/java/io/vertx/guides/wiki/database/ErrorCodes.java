@@ -1,7 +1,18 @@
 package io.vertx.guides.wiki.database;
 
+import io.vertx.serviceproxy.ServiceException;
+
 public enum ErrorCodes {
     NO_ACTION_SPECIFIED,
     BAD_ACTION,
-    DB_ERROR
+    DB_ERROR,
+    /**
+     * The operation was rejected by admission control: too many operations of its class are already waiting for a
+     * database connection. Retrying later may succeed.
+     */
+    OVERLOADED;
+
+    public static boolean isOverloaded(Throwable t) {
+        return t instanceof ServiceException && ((ServiceException) t).failureCode() == OVERLOADED.ordinal();
+    }
 }
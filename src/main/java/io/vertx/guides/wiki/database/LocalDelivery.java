@@ -0,0 +1,101 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.eventbus.MessageConsumer;
+
+import java.util.function.BiConsumer;
+
+/**
+ * In-JVM delivery of {@link WikiDatabaseService} calls.
+ * <p>
+ * The generated event-bus proxy encodes every call and result as JSON, and the event bus copies JSON payloads even
+ * between verticles of the same JVM. Local delivery instead sends the call itself, a closure over the method
+ * arguments, and replies with the {@link AsyncResult} the service produced, both through a codec that hands the
+ * object over by reference. Neither side may modify arguments or results once they have been passed on.
+ * <p>
+ * These messages cannot cross the cluster: clustered deployments keep using the generated proxy.
+ */
+final class LocalDelivery {
+
+    private static final String SHARED_MAP = "wikidb.local-delivery";
+
+    private LocalDelivery() {
+    }
+
+    static String address(String serviceAddress) {
+        return serviceAddress + ".local";
+    }
+
+    /**
+     * Registers the pass-by-reference codecs once per {@link Vertx} instance.
+     */
+    static void registerCodecs(Vertx vertx) {
+        if (vertx.sharedData().getLocalMap(SHARED_MAP).putIfAbsent("codecs", true) == null) {
+            EventBus eventBus = vertx.eventBus();
+            eventBus.registerDefaultCodec(Call.class, new ByReferenceCodec<>("wikidb.local.call"));
+            eventBus.registerDefaultCodec(Reply.class, new ByReferenceCodec<>("wikidb.local.reply"));
+        }
+    }
+
+    static MessageConsumer<Call> bind(Vertx vertx, String serviceAddress, WikiDatabaseService service) {
+        registerCodecs(vertx);
+        return vertx.eventBus().localConsumer(address(serviceAddress),
+            msg -> msg.body().invocation.accept(service, result -> msg.reply(new Reply(result))));
+    }
+
+    static final class Call {
+        private final BiConsumer<WikiDatabaseService, Handler<AsyncResult<Object>>> invocation;
+
+        @SuppressWarnings("unchecked")
+        <T> Call(BiConsumer<WikiDatabaseService, Handler<AsyncResult<T>>> invocation) {
+            this.invocation = (BiConsumer<WikiDatabaseService, Handler<AsyncResult<Object>>>) (Object) invocation;
+        }
+    }
+
+    static final class Reply {
+        final AsyncResult<?> result;
+
+        Reply(AsyncResult<?> result) {
+            this.result = result;
+        }
+    }
+
+    private static final class ByReferenceCodec<T> implements MessageCodec<T, T> {
+
+        private final String name;
+
+        private ByReferenceCodec(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void encodeToWire(Buffer buffer, T t) {
+            throw new UnsupportedOperationException(name + " messages can only be delivered locally");
+        }
+
+        @Override
+        public T decodeFromWire(int pos, Buffer buffer) {
+            throw new UnsupportedOperationException(name + " messages can only be delivered locally");
+        }
+
+        @Override
+        public T transform(T t) {
+            return t;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public byte systemCodecID() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,620 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Page storage in an append-only log of memory-mapped segment files, {@code <number>.log} in a directory.
+ * <p>
+ * Every write appends a record with the whole new state of a page, or a tombstone for a deleted page, and the
+ * in-memory index maps page ids and names to the latest record. Reads decode records straight from the mapped
+ * segments, without any system call. Segments have a fixed capacity, mapped and allocated when they are created; a
+ * record never spans two segments.
+ * <p>
+ * A record is an {@code int} length and a CRC32 of its body, followed by the body: type, page id, version, update
+ * time, name and content. Opening the store replays the segments in order, the last record of a page winning, and
+ * stops reading a segment at its first empty or invalid record: the tail torn by a crash is discarded and overwritten
+ * by the next appends.
+ * <p>
+ * {@link #compact(double)} copies the live records of mostly obsolete segments to the head of the log, then deletes
+ * them. Tombstones are copied along while older segments may still hold the page they delete.
+ * <p>
+ * Writes are serialized on the store and meant for worker threads, as {@link MappedByteBuffer#force()} blocks. Reads
+ * are lock-free and may run on any thread, the event loop included. Segments are never unmapped explicitly: a reader
+ * holding a compacted segment keeps reading it until the mapping is garbage collected.
+ */
+class MappedPageStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedPageStore.class);
+
+    private static final int MAGIC = 0x57494b49;
+    private static final int FORMAT = 1;
+    // Magic, format and the next page id when the segment was created
+    private static final int SEGMENT_HEADER = 4 + 4 + 4;
+    // Length and CRC32 of the body
+    private static final int RECORD_HEADER = 4 + 4;
+    // Type, id, version, update time, and the lengths of the name and content
+    private static final int BODY_FIXED = 1 + 4 + 8 + 8 + 4 + 4;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean sync;
+
+    // Readers only touch these two maps and the segments they point to
+    private final ConcurrentSkipListMap<Integer, Location> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Integer> idsByName = new ConcurrentSkipListMap<>();
+
+    // Writer state, guarded by the store monitor
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Integer, Location> tombstones = new HashMap<>();
+    private int nextId;
+    private volatile long totalBytes;
+    private volatile long liveBytes;
+
+    private MappedPageStore(Path directory, int segmentBytes, boolean sync) {
+        if (segmentBytes <= SEGMENT_HEADER + RECORD_HEADER + BODY_FIXED) {
+            throw new IllegalArgumentException("Invalid segment size " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens the store in {@code directory}, creating it if needed, and rebuilds the index from its segments.
+     * {@code sync} forces every write to disk before it completes.
+     */
+    static MappedPageStore open(Path directory, int segmentBytes, boolean sync) throws IOException {
+        MappedPageStore store = new MappedPageStore(directory, segmentBytes, sync);
+        store.recover();
+        return store;
+    }
+
+    private synchronized void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(name.substring(0, name.length() - ".log".length())));
+            }
+        }
+        numbers.sort(null);
+        int records = 0;
+        for (long number : numbers) {
+            Segment segment = Segment.open(segmentFile(number), number);
+            if (segment == null) {
+                // Created by a roll interrupted before its header was written
+                LOGGER.warn("Deleting empty page store segment " + segmentFile(number));
+                Files.delete(segmentFile(number));
+                continue;
+            }
+            nextId = Math.max(nextId, segment.buffer.getInt(8));
+            records += replay(segment);
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            roll(segmentBytes);
+        }
+        // Copies left behind by a compaction interrupted before it deleted its segment are accounted as garbage
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.end - SEGMENT_HEADER;
+        }
+        totalBytes = total;
+        LOGGER.info("Opened page store " + directory + ": " + byId.size() + " pages in " + records + " records and "
+            + segments.size() + " segments");
+    }
+
+    private int replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = SEGMENT_HEADER;
+        int records = 0;
+        while (true) {
+            int length = readableLength(buffer, position);
+            if (length <= 0) {
+                if (length < 0) {
+                    LOGGER.warn("Discarding the torn tail of " + segmentFile(segment.number) + " from offset "
+                        + position);
+                    zero(buffer, position);
+                }
+                break;
+            }
+            int size = RECORD_HEADER + length;
+            Location location = Location.decode(segment, position, buffer);
+            if (location.id >= nextId) {
+                nextId = location.id + 1;
+            }
+            if (location.deleted) {
+                Location previous = byId.remove(location.id);
+                if (previous != null) {
+                    idsByName.remove(previous.name, location.id);
+                    account(previous, -1);
+                }
+                tombstone(location);
+            } else {
+                index(location);
+            }
+            position += size;
+            records++;
+        }
+        segment.end = position;
+        return records;
+    }
+
+    /**
+     * The length of the valid record at {@code position}, 0 at the end of the written records, or -1 if the record
+     * there is corrupted.
+     */
+    private static int readableLength(ByteBuffer buffer, int position) {
+        if (position + RECORD_HEADER > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length == 0 && buffer.getInt(position + 4) == 0) {
+            return 0;
+        }
+        if (length < BODY_FIXED || position + RECORD_HEADER + length > buffer.capacity()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.limit(position + RECORD_HEADER + length).position(position + RECORD_HEADER);
+        crc.update(body);
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    private static void zero(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(String.format("%010d.log", number));
+    }
+
+    // Reads
+
+    /**
+     * The page as a {@code get-page-by-id} row: id, name, content, HTML and renderer version (never stored here),
+     * version and update time. Null if there is no such page.
+     */
+    JsonArray get(int id) {
+        Location location = byId.get(id);
+        return location != null ? location.row() : null;
+    }
+
+    JsonArray get(String name) {
+        Integer id = idsByName.get(name);
+        return id != null ? get(id) : null;
+    }
+
+    /**
+     * The {@code version} and {@code updated} time of a page, without reading the mapped segments.
+     */
+    JsonObject version(int id) {
+        Location location = byId.get(id);
+        return location == null ? null : new JsonObject()
+            .put("version", location.version)
+            .put("updated", Instant.ofEpochMilli(location.updated).toString());
+    }
+
+    /**
+     * Page names in alphabetical order.
+     */
+    List<String> names() {
+        return new ArrayList<>(idsByName.keySet());
+    }
+
+    /**
+     * Up to {@code limit} rows of the pages whose id is greater than {@code after}, ordered by id. With
+     * {@code content} unset, rows are only made of the id and name, and segments are not read.
+     */
+    List<JsonArray> pagesAfter(int after, int limit, boolean content) {
+        List<JsonArray> rows = new ArrayList<>();
+        for (Location location : byId.tailMap(after, false).values()) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            rows.add(content ? location.row() : new JsonArray().add(location.id).add(location.name));
+        }
+        return rows;
+    }
+
+    int pages() {
+        return byId.size();
+    }
+
+    long totalBytes() {
+        return totalBytes;
+    }
+
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    synchronized int segments() {
+        return segments.size();
+    }
+
+    // Writes
+
+    /**
+     * Creates a page, returning its id.
+     *
+     * @throws IllegalStateException if a page already has this name
+     */
+    synchronized int create(String name, String content) throws IOException {
+        if (idsByName.containsKey(name)) {
+            throw new IllegalStateException("A page named " + name + " already exists");
+        }
+        int id = nextId++;
+        index(append(PUT, id, 0, System.currentTimeMillis(), name, content));
+        force();
+        return id;
+    }
+
+    /**
+     * Replaces the content of a page, returning its new row, or null if there is no such page.
+     */
+    synchronized JsonArray save(int id, String content) throws IOException {
+        Location current = byId.get(id);
+        if (current == null) {
+            return null;
+        }
+        Location saved = append(PUT, id, current.version + 1, System.currentTimeMillis(), current.name, content);
+        index(saved);
+        force();
+        return saved.row();
+    }
+
+    /**
+     * Renames a page, returning its new row, or null if there is no such page.
+     *
+     * @throws IllegalStateException if another page already has this name
+     */
+    synchronized JsonArray rename(int id, String name) throws IOException {
+        Location current = byId.get(id);
+        if (current == null) {
+            return null;
+        }
+        Integer owner = idsByName.get(name);
+        if (owner != null && owner != id) {
+            throw new IllegalStateException("A page named " + name + " already exists");
+        }
+        String content = current.row().getString(2);
+        Location renamed = append(PUT, id, current.version + 1, System.currentTimeMillis(), name, content);
+        index(renamed);
+        force();
+        return renamed.row();
+    }
+
+    /**
+     * Deletes a page, returning whether it existed.
+     */
+    synchronized boolean delete(int id) throws IOException {
+        Location current = byId.get(id);
+        if (current == null) {
+            return false;
+        }
+        Location tombstone = append(DELETE, id, current.version + 1, System.currentTimeMillis(), "", "");
+        byId.remove(id);
+        idsByName.remove(current.name, id);
+        account(current, -1);
+        tombstone(tombstone);
+        force();
+        return true;
+    }
+
+    /**
+     * Creates the {@code name}/{@code markdown} pages whose name is not taken yet, in the store or earlier in the list,
+     * and forces them to disk at once. Returns the ids of the pages created, null standing for the skipped ones.
+     */
+    synchronized List<Integer> importPages(List<JsonObject> pages) throws IOException {
+        List<Integer> ids = new ArrayList<>(pages.size());
+        long now = System.currentTimeMillis();
+        for (JsonObject page : pages) {
+            String name = page.getString("name");
+            if (idsByName.containsKey(name)) {
+                ids.add(null);
+                continue;
+            }
+            int id = nextId++;
+            index(append(PUT, id, 0, now, name, page.getString("markdown")));
+            ids.add(id);
+        }
+        force();
+        return ids;
+    }
+
+    /**
+     * Rewrites the live records of every sealed segment whose share of obsolete records reaches
+     * {@code minGarbageRatio} to the head of the log, then deletes it. Returns the number of bytes reclaimed.
+     */
+    synchronized long compact(double minGarbageRatio) throws IOException {
+        Segment head = segments.get(segments.size() - 1);
+        Set<Segment> candidates = new HashSet<>();
+        for (Segment segment : segments) {
+            long used = segment.end - SEGMENT_HEADER;
+            if (segment != head && used > 0 && (used - segment.liveBytes) >= used * minGarbageRatio) {
+                candidates.add(segment);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Map<Segment, List<Location>> live = new HashMap<>();
+        for (Location location : byId.values()) {
+            if (candidates.contains(location.segment)) {
+                live.computeIfAbsent(location.segment, s -> new ArrayList<>()).add(location);
+            }
+        }
+        for (Location location : tombstones.values()) {
+            if (candidates.contains(location.segment)) {
+                live.computeIfAbsent(location.segment, s -> new ArrayList<>()).add(location);
+            }
+        }
+
+        long reclaimed = 0;
+        List<Segment> compacted = new ArrayList<>();
+        // Copies may roll new segments
+        List<Segment> sealed = new ArrayList<>(segments);
+        for (Segment segment : sealed) {
+            if (!candidates.contains(segment)) {
+                continue;
+            }
+            boolean oldest = compacted.containsAll(sealed.subList(0, sealed.indexOf(segment)));
+            List<Location> records = live.getOrDefault(segment, new ArrayList<>());
+            records.sort(Comparator.comparingInt(location -> location.offset));
+            for (Location location : records) {
+                if (location.deleted) {
+                    tombstones.remove(location.id);
+                    account(location, -1);
+                    if (oldest) {
+                        // Nothing older is left for the tombstone to hide
+                        continue;
+                    }
+                    tombstone(copy(location));
+                } else {
+                    index(copy(location));
+                }
+                reclaimed -= location.size;
+            }
+            compacted.add(segment);
+            reclaimed += segment.end - SEGMENT_HEADER;
+        }
+        // The copies must be durable before the originals go
+        forceAll();
+        for (Segment segment : compacted) {
+            segments.remove(segment);
+            totalBytes -= segment.end - SEGMENT_HEADER;
+            segment.channel.close();
+            Files.delete(segmentFile(segment.number));
+        }
+        return reclaimed;
+    }
+
+    synchronized void close() throws IOException {
+        forceAll();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+    }
+
+    private Location append(byte type, int id, long version, long updated, String name, String content)
+        throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + BODY_FIXED + nameBytes.length + contentBytes.length);
+        record.putInt(record.capacity() - RECORD_HEADER).putInt(0)
+            .put(type).putInt(id).putLong(version).putLong(updated)
+            .putInt(nameBytes.length).put(nameBytes)
+            .putInt(contentBytes.length).put(contentBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER, record.capacity() - RECORD_HEADER);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+        return write(record);
+    }
+
+    private Location copy(Location location) throws IOException {
+        ByteBuffer record = location.segment.buffer.duplicate();
+        record.limit(location.offset + location.size).position(location.offset);
+        return write(record);
+    }
+
+    private Location write(ByteBuffer record) throws IOException {
+        Segment head = segments.get(segments.size() - 1);
+        if (head.end + record.remaining() > head.buffer.capacity()) {
+            head = roll(Math.max(segmentBytes, SEGMENT_HEADER + record.remaining()));
+        }
+        int offset = head.end;
+        ByteBuffer target = head.buffer.duplicate();
+        target.position(offset);
+        target.put(record);
+        head.end = target.position();
+        totalBytes += head.end - offset;
+        return Location.decode(head, offset, head.buffer);
+    }
+
+    private Segment roll(int capacity) throws IOException {
+        if (!segments.isEmpty()) {
+            // The sealed segment is never written again
+            segments.get(segments.size() - 1).buffer.force();
+        }
+        long number = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).number + 1;
+        Segment segment = Segment.create(segmentFile(number), number, capacity, nextId);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void force() {
+        if (sync) {
+            segments.get(segments.size() - 1).buffer.force();
+        }
+    }
+
+    private void forceAll() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    private void index(Location location) {
+        Location previous = byId.put(location.id, location);
+        if (previous != null) {
+            if (!previous.name.equals(location.name)) {
+                idsByName.remove(previous.name, location.id);
+            }
+            account(previous, -1);
+        }
+        idsByName.put(location.name, location.id);
+        account(location, 1);
+    }
+
+    private void tombstone(Location location) {
+        Location previous = tombstones.put(location.id, location);
+        if (previous != null) {
+            account(previous, -1);
+        }
+        account(location, 1);
+    }
+
+    private void account(Location location, int sign) {
+        location.segment.liveBytes += sign * location.size;
+        liveBytes += sign * location.size;
+    }
+
+    private static final class Segment {
+
+        private final long number;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int end;
+        private long liveBytes;
+
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path file, long number, int capacity, int nextId) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC).putInt(4, FORMAT).putInt(8, nextId);
+            buffer.force();
+            Segment segment = new Segment(number, channel, buffer);
+            segment.end = SEGMENT_HEADER;
+            return segment;
+        }
+
+        /**
+         * Maps an existing segment, or returns null if its header was never written.
+         */
+        static Segment open(Path file, long number) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IOException("Invalid page store segment " + file);
+            }
+            MappedByteBuffer buffer = size >= SEGMENT_HEADER
+                ? channel.map(FileChannel.MapMode.READ_WRITE, 0, size)
+                : null;
+            if (buffer == null || (buffer.getInt(0) == 0 && buffer.getInt(4) == 0)) {
+                channel.close();
+                return null;
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+                channel.close();
+                throw new IOException("Invalid page store segment " + file);
+            }
+            return new Segment(number, channel, buffer);
+        }
+    }
+
+    /**
+     * Where the latest record of a page is, with the metadata the index answers from without reading it.
+     */
+    private static final class Location {
+
+        private final Segment segment;
+        private final int offset;
+        private final int size;
+        private final boolean deleted;
+        private final int id;
+        private final long version;
+        private final long updated;
+        private final String name;
+        private final int contentOffset;
+
+        private Location(Segment segment, int offset, int size, boolean deleted, int id, long version, long updated,
+                         String name, int contentOffset) {
+            this.segment = segment;
+            this.offset = offset;
+            this.size = size;
+            this.deleted = deleted;
+            this.id = id;
+            this.version = version;
+            this.updated = updated;
+            this.name = name;
+            this.contentOffset = contentOffset;
+        }
+
+        static Location decode(Segment segment, int offset, ByteBuffer buffer) {
+            int body = offset + RECORD_HEADER;
+            int nameLength = buffer.getInt(body + 21);
+            return new Location(segment, offset, RECORD_HEADER + buffer.getInt(offset), buffer.get(body) == DELETE,
+                buffer.getInt(body + 1), buffer.getLong(body + 5), buffer.getLong(body + 13),
+                string(buffer, body + 25, nameLength), body + 25 + nameLength);
+        }
+
+        JsonArray row() {
+            ByteBuffer buffer = segment.buffer;
+            return new JsonArray()
+                .add(id)
+                .add(name)
+                .add(string(buffer, contentOffset + 4, buffer.getInt(contentOffset)))
+                .addNull()
+                .addNull()
+                .add(version)
+                .add(Instant.ofEpochMilli(updated).toString());
+        }
+
+        private static String string(ByteBuffer buffer, int position, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(position);
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
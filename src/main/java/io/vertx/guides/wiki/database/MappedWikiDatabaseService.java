@@ -0,0 +1,385 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Maybe;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.metrics.LabelledTimers;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.guides.wiki.search.IndexedPage;
+import io.vertx.guides.wiki.search.SearchIndex;
+import io.vertx.reactivex.CompletableHelper;
+import io.vertx.reactivex.SingleHelper;
+import io.vertx.reactivex.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link WikiDatabaseService} backed by a {@link MappedPageStore} instead of JDBC, for read-heavy deployments.
+ * <p>
+ * Reads are answered on the event loop straight from the mapped segments: no connection, worker thread or CLOB
+ * conversion is involved. Writes run one at a time, in the order they were received, on a worker thread, as they
+ * may force the log to disk. Compaction runs periodically in the same order as the writes.
+ * <p>
+ * HTML is never stored (render-on-write is ignored, and so is write-behind), and the search index is rebuilt in memory
+ * when the service starts rather than persisted.
+ */
+public class MappedWikiDatabaseService implements WikiDatabaseService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedWikiDatabaseService.class);
+
+    private final Vertx vertx;
+    private final DeliveryOptions exportDeliveryOptions;
+    private final double compactionGarbageRatio;
+    private final LabelledTimers queryTime;
+    private final LongAdder compactedBytes;
+    private final Timer searchTime;
+
+    // Set once opened, by a worker thread
+    private volatile MappedPageStore store;
+
+    // Only touched from the event loop of the verticle owning this service
+    private SearchIndex searchIndex = new SearchIndex();
+    private boolean compacting;
+    private long compactionTimer = -1;
+
+    public MappedWikiDatabaseService(io.vertx.core.Vertx vertx, JsonObject config,
+                                     Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+        this.vertx = new Vertx(vertx);
+        this.exportDeliveryOptions = new DeliveryOptions()
+            .setSendTimeout(config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_EXPORT_ACK_TIMEOUT, 60_000L));
+        this.compactionGarbageRatio = config.getDouble(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_COMPACTION_RATIO, 0.5);
+        WikiMetrics metrics = WikiMetrics.get(vertx);
+        this.queryTime = metrics.timers("wikidb.query.time", "operation");
+        this.compactedBytes = metrics.counter("wikidb.store.compacted_bytes");
+        this.searchTime = metrics.timer("wikidb.search.time");
+        metrics.gauge("wikidb.store.pages", () -> store != null ? store.pages() : 0);
+        metrics.gauge("wikidb.store.bytes", () -> store != null ? store.totalBytes() : 0);
+        metrics.gauge("wikidb.store.live_bytes", () -> store != null ? store.liveBytes() : 0);
+        metrics.gauge("wikidb.search.documents", () -> searchIndex.documents());
+        metrics.gauge("wikidb.search.terms", () -> searchIndex.terms());
+        String directory = config.getString(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_DIRECTORY, "db/wiki-pages");
+        int segmentBytes = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_SEGMENT_BYTES, 64 * 1024 * 1024);
+        boolean sync = config.getBoolean(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_SYNC, true);
+        long compactionInterval = config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_COMPACTION_INTERVAL, 60_000L);
+
+        write(() -> {
+            MappedPageStore opened = MappedPageStore.open(Paths.get(directory), segmentBytes, sync);
+            long start = System.nanoTime();
+            List<IndexedPage> pages = new ArrayList<>(opened.pages());
+            for (JsonArray row : opened.pagesAfter(-1, Integer.MAX_VALUE, true)) {
+                pages.add(indexedPage(row));
+            }
+            LOGGER.info("Tokenized " + pages.size() + " pages for the search index in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+            store = opened;
+            return pages;
+        })
+            .toSingle()
+            .map(pages -> {
+                pages.forEach(searchIndex::put);
+                if (compactionInterval > 0) {
+                    compactionTimer = this.vertx.setPeriodic(compactionInterval, id -> compact());
+                }
+                return (WikiDatabaseService) this;
+            })
+            .doOnError(e -> LOGGER.error("Page store opening error", e))
+            .subscribe(SingleHelper.toObserver(readyHandler));
+    }
+
+    /**
+     * Stops compaction, then closes the store once the writes already requested are done.
+     */
+    void close(Handler<AsyncResult<Void>> completionHandler) {
+        vertx.cancelTimer(compactionTimer);
+        write(() -> {
+            if (store != null) {
+                store.close();
+            }
+            return null;
+        })
+            .ignoreElement()
+            .subscribe(CompletableHelper.toObserver(completionHandler));
+    }
+
+    @FunctionalInterface
+    private interface Write<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Runs a store write on a worker thread, after the writes requested before it.
+     */
+    private <T> Maybe<T> write(Write<T> write) {
+        return vertx.<T>rxExecuteBlocking(promise -> {
+            try {
+                promise.complete(write.run());
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, true);
+    }
+
+    private <T> T read(String operation, Supplier<T> read) {
+        long start = System.nanoTime();
+        T result = read.get();
+        queryTime.get(operation).recordSince(start);
+        return result;
+    }
+
+    private void compact() {
+        if (compacting) {
+            return;
+        }
+        long total = store.totalBytes();
+        if (total == 0 || total - store.liveBytes() < total * compactionGarbageRatio) {
+            return;
+        }
+        compacting = true;
+        long start = System.nanoTime();
+        write(() -> store.compact(compactionGarbageRatio))
+            .toSingle()
+            .doFinally(() -> compacting = false)
+            .subscribe(reclaimed -> {
+                compactedBytes.add(reclaimed);
+                LOGGER.info("Page store compacted: " + reclaimed + " bytes reclaimed in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }, e -> LOGGER.error("Page store compaction error", e));
+    }
+
+    private static IndexedPage indexedPage(JsonArray row) {
+        return IndexedPage.of(row.getInteger(0), row.getString(1), row.getLong(5) + "@" + row.getString(6),
+            row.getString(2));
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(read("fetchAllPages", () -> new JsonArray(store.names()))));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(read("fetchAllPagesData", () -> store
+            .pagesAfter(-1, Integer.MAX_VALUE, true)
+            .stream()
+            .map(row -> new JsonObject()
+                .put("ID", row.getInteger(0))
+                .put("NAME", row.getString(1))
+                .put("CONTENT", row.getString(2)))
+            .collect(Collectors.toList()))));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(read("fetchPagesSummary", () -> store
+            .pagesAfter(after, limit, false)
+            .stream()
+            .map(WikiDatabaseServiceImpl::pageSummary)
+            .collect(Collectors.toList()))));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+        JsonArray row = read("fetchPage", () -> store.get(name));
+        resultHandler.handle(Future.succeededFuture(row == null
+            ? new JsonObject().put("found", false)
+            : new JsonObject()
+                .put("found", true)
+                .put("id", row.getInteger(0))
+                .put("rawContent", row.getString(2))));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        JsonArray row = read("fetchPageById", () -> store.get(id));
+        resultHandler.handle(Future.succeededFuture(row == null
+            ? new JsonObject().put("found", false)
+            : WikiDatabaseServiceImpl.pageDetails(row)));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(read("fetchPagesByIds", () -> pages(ids, store::get))));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(read("fetchPagesByNames", () -> pages(names, store::get))));
+        return this;
+    }
+
+    private static <K> List<JsonObject> pages(List<K> keys, Function<K, JsonArray> lookup) {
+        return new LinkedHashSet<>(keys).stream()
+            .map(lookup)
+            .filter(Objects::nonNull)
+            .map(row -> {
+                JsonObject page = WikiDatabaseServiceImpl.pageDetails(row);
+                page.remove("found");
+                return page;
+            })
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        JsonObject version = read("fetchPageVersion", () -> store.version(id));
+        resultHandler.handle(Future.succeededFuture(version == null
+            ? new JsonObject().put("found", false)
+            : version.put("found", true)));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) {
+        write(() -> store.create(title, markdown))
+            .toSingle()
+            .doOnSuccess(id -> reindex(store.get(id)))
+            .doOnError(e -> LOGGER.error("Page store update error", e))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) {
+        write(() -> store.save(id, markdown))
+            .doOnSuccess(row -> {
+                reindex(row);
+                vertx.eventBus().publish(WikiDatabaseServiceImpl.PAGE_SAVED_ADDRESS, new JsonObject()
+                    .put("id", id)
+                    .put("version", row.getLong(5))
+                    .put("client", client));
+            })
+            .ignoreElement()
+            .doOnError(e -> LOGGER.error("Page store update error", e))
+            .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) {
+        write(() -> store.rename(id, name))
+            .doOnSuccess(this::reindex)
+            .map(row -> true)
+            .defaultIfEmpty(false)
+            .toSingle()
+            .doOnError(e -> LOGGER.error("Page store update error", e))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
+        write(() -> store.delete(id))
+            .ignoreElement()
+            .doOnComplete(() -> searchIndex.remove(id))
+            .doOnError(e -> LOGGER.error("Page store update error", e))
+            .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) {
+        JsonArray created = new JsonArray();
+        JsonArray conflicts = new JsonArray();
+        write(() -> {
+            List<Integer> ids = store.importPages(pages);
+            // Tokenized here rather than on the event loop, imports being large
+            List<IndexedPage> imported = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                if (ids.get(i) == null) {
+                    conflicts.add(i);
+                } else {
+                    JsonArray row = store.get(ids.get(i));
+                    created.add(new JsonObject().put("id", row.getInteger(0)).put("name", row.getString(1)));
+                    imported.add(indexedPage(row));
+                }
+            }
+            return imported;
+        })
+            .toSingle()
+            .map(imported -> {
+                imported.forEach(searchIndex::put);
+                return new JsonObject()
+                    .put("imported", imported.size())
+                    .put("pages", created)
+                    .put("conflicts", conflicts);
+            })
+            .doOnError(e -> LOGGER.error("Page store import error", e))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) {
+        exportAfter(address, batchSize, -1, 0, resultHandler);
+        return this;
+    }
+
+    /**
+     * Sends the batch of pages following {@code after}, then the next one once it has been replied to, as
+     * {@link PageExport} does for JDBC.
+     */
+    private void exportAfter(String address, int batchSize, int after, int count,
+                             Handler<AsyncResult<Integer>> resultHandler) {
+        List<JsonArray> rows = store.pagesAfter(after, batchSize, true);
+        if (rows.isEmpty()) {
+            resultHandler.handle(Future.succeededFuture(count));
+            return;
+        }
+        JsonArray batch = new JsonArray();
+        for (JsonArray row : rows) {
+            batch.add(new JsonObject()
+                .put("id", row.getInteger(0))
+                .put("name", row.getString(1))
+                .put("markdown", row.getString(2)));
+        }
+        int last = rows.get(rows.size() - 1).getInteger(0);
+        vertx.getDelegate().eventBus().request(address, batch, exportDeliveryOptions, ack -> {
+            if (ack.succeeded()) {
+                exportAfter(address, batchSize, last, count + rows.size(), resultHandler);
+            } else {
+                LOGGER.error("Page export error", ack.cause());
+                resultHandler.handle(Future.failedFuture(ack.cause()));
+            }
+        });
+    }
+
+    @Override
+    public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        long start = System.nanoTime();
+        List<JsonObject> hits = searchIndex.search(query, limit);
+        searchTime.recordSince(start);
+        resultHandler.handle(Future.succeededFuture(hits));
+        return this;
+    }
+
+    /**
+     * Indexes a page after a write. Writes complete in order, so the row is never older than the indexed one.
+     */
+    private void reindex(JsonArray row) {
+        if (row != null) {
+            searchIndex.put(indexedPage(row));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of {@code Pages} rows, as returned by {@code get-page-by-id}, reachable by id and by name and bounded by
+ * entry count and approximate size in bytes. Entries optionally expire after a TTL.
+ * <p>
+ * Not thread-safe: it is only used from the event loop of the {@link WikiDatabaseVerticle} owning it. Cached rows are
+ * shared between callers and must not be modified.
+ */
+class PageCache {
+
+    // Rough per-entry cost of the map nodes, entry object, row array and boxed values
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Integer, Entry> byId = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private long bytes;
+    private long generation;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    PageCache(int maxEntries, long maxBytes, long ttlMillis, WikiMetrics metrics) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.hits = metrics.counter("wikidb.cache.hits");
+        this.misses = metrics.counter("wikidb.cache.misses");
+        this.evictions = metrics.counter("wikidb.cache.evictions");
+    }
+
+    boolean enabled() {
+        return maxEntries > 0 && maxBytes > 0;
+    }
+
+    JsonArray get(int id) {
+        Entry entry = byId.get(id);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.loadedAt > ttlNanos) {
+            remove(id);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.row;
+    }
+
+    JsonArray get(String name) {
+        Integer id = idsByName.get(name);
+        if (id == null) {
+            misses.increment();
+            return null;
+        }
+        return get(id);
+    }
+
+    /**
+     * Captures the invalidation generation before a row is loaded, to be passed back to {@link #put(JsonArray, long)}.
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches a row unless an invalidation happened since {@code loadGeneration}, in which case the row may be older
+     * than the write that caused it.
+     */
+    void put(JsonArray row, long loadGeneration) {
+        if (!enabled() || loadGeneration != generation) {
+            return;
+        }
+        long size = sizeOf(row);
+        if (size > maxBytes) {
+            return;
+        }
+        int id = row.getInteger(0);
+        remove(id);
+        byId.put(id, new Entry(row, size, System.nanoTime()));
+        idsByName.put(row.getString(1), id);
+        bytes += size;
+        Iterator<Map.Entry<Integer, Entry>> iterator = byId.entrySet().iterator();
+        while ((bytes > maxBytes || byId.size() > maxEntries) && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            idsByName.remove(eldest.row.getString(1));
+            bytes -= eldest.size;
+            evictions.increment();
+        }
+    }
+
+    void invalidate(int id) {
+        generation++;
+        remove(id);
+    }
+
+    void invalidate(String name) {
+        generation++;
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            remove(id);
+        }
+    }
+
+    void invalidateAll() {
+        generation++;
+        byId.clear();
+        idsByName.clear();
+        bytes = 0;
+    }
+
+    private void remove(int id) {
+        Entry removed = byId.remove(id);
+        if (removed != null) {
+            idsByName.remove(removed.row.getString(1));
+            bytes -= removed.size;
+        }
+    }
+
+    private static long sizeOf(JsonArray row) {
+        long size = ENTRY_OVERHEAD;
+        for (Object value : row) {
+            if (value instanceof String) {
+                size += 2L * ((String) value).length();
+            }
+        }
+        return size;
+    }
+
+    private static final class Entry {
+        private final JsonArray row;
+        private final long size;
+        private final long loadedAt;
+
+        private Entry(JsonArray row, long size, long loadedAt) {
+            this.row = row;
+            this.size = size;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
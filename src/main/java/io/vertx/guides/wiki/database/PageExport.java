@@ -0,0 +1,90 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.SQLRowStream;
+
+/**
+ * Forwards a JDBC row stream to an event-bus address in batches. The stream stays paused until the receiver has
+ * replied to the previous batch, so a slow consumer holds back the database cursor instead of buffering rows.
+ */
+class PageExport {
+
+    private final EventBus eventBus;
+    private final SQLConnection conn;
+    private final SQLRowStream stream;
+    private final String address;
+    private final int batchSize;
+    private final DeliveryOptions deliveryOptions;
+    private final Handler<AsyncResult<Integer>> resultHandler;
+
+    private JsonArray batch = new JsonArray();
+    private int count;
+    private boolean done;
+
+    PageExport(EventBus eventBus, SQLConnection conn, SQLRowStream stream, String address, int batchSize,
+               DeliveryOptions deliveryOptions, Handler<AsyncResult<Integer>> resultHandler) {
+        this.eventBus = eventBus;
+        this.conn = conn;
+        this.stream = stream;
+        this.address = address;
+        this.batchSize = batchSize;
+        this.deliveryOptions = deliveryOptions;
+        this.resultHandler = resultHandler;
+    }
+
+    void start() {
+        stream
+            .exceptionHandler(this::fail)
+            .endHandler(v -> flush(() -> finish(Future.succeededFuture(count))))
+            .handler(row -> {
+                batch.add(new JsonObject()
+                    .put("id", row.getInteger(0))
+                    .put("name", row.getString(1))
+                    .put("markdown", row.getString(2)));
+                if (batch.size() >= batchSize) {
+                    stream.pause();
+                    flush(stream::resume);
+                }
+            });
+    }
+
+    private void flush(Runnable next) {
+        if (batch.isEmpty()) {
+            next.run();
+            return;
+        }
+        JsonArray pages = batch;
+        batch = new JsonArray();
+        eventBus.request(address, pages, deliveryOptions, ack -> {
+            if (ack.succeeded()) {
+                count += pages.size();
+                next.run();
+            } else {
+                fail(ack.cause());
+            }
+        });
+    }
+
+    private void fail(Throwable t) {
+        if (!done) {
+            stream.close();
+        }
+        finish(Future.failedFuture(t));
+    }
+
+    private void finish(AsyncResult<Integer> result) {
+        if (done) {
+            return;
+        }
+        done = true;
+        conn.close();
+        resultHandler.handle(result);
+    }
+}
@@ -0,0 +1,320 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.subjects.CompletableSubject;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.reactivex.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind for page saves: the first save of a page opens a window of {@code windowMs}, and only the content of
+ * the last save received within it is written when it closes. Saves are acknowledged according to the
+ * {@link Durability}.
+ * <p>
+ * Readers must {@link #flush(int)} a page before querying it, so that acknowledged saves are never read stale. A page
+ * is written by at most one flush at a time, in the order the saves were received.
+ * <p>
+ * Not thread-safe: it is only used from the event loop of the {@link WikiDatabaseVerticle} owning it.
+ */
+class SaveCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaveCoalescer.class);
+
+    enum Durability {
+        /**
+         * Saves complete once their content, or the content of a later save of the page, is written.
+         */
+        FLUSH,
+        /**
+         * Saves complete once buffered; those not yet written are lost if the process dies.
+         */
+        MEMORY,
+        /**
+         * Saves complete once appended to a journal and forced to disk; the journal is replayed at startup and
+         * truncated whenever nothing is left to write.
+         */
+        JOURNAL
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        Completable write(int id, String markdown, String client);
+    }
+
+    private final Vertx vertx;
+    private final long windowMs;
+    private final Durability durability;
+    private final Path journalFile;
+    private final Writer writer;
+    private final Map<Integer, Pending> pending = new HashMap<>();
+    private final Map<Integer, CompletableSubject> flushing = new HashMap<>();
+    private FileChannel journal;
+
+    private final LongAdder coalesced;
+    private final LongAdder flushes;
+
+    SaveCoalescer(Vertx vertx, long windowMs, Durability durability, Path journalFile, Writer writer,
+                  WikiMetrics metrics) {
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("Invalid write-behind window " + windowMs);
+        }
+        if (durability == Durability.JOURNAL && journalFile == null) {
+            throw new IllegalArgumentException("Journal durability requires a journal file");
+        }
+        this.vertx = vertx;
+        this.windowMs = windowMs;
+        this.durability = durability;
+        this.journalFile = journalFile;
+        this.writer = writer;
+        this.coalesced = metrics.counter("wikidb.write_behind.coalesced");
+        this.flushes = metrics.counter("wikidb.write_behind.flushes");
+        metrics.gauge("wikidb.write_behind.pending", () -> pending.size());
+    }
+
+    int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the saves left in the journal by the previous run, then opens it for appending.
+     */
+    Completable open() {
+        if (durability != Durability.JOURNAL) {
+            return Completable.complete();
+        }
+        return vertx.<Map<Integer, JsonObject>>rxExecuteBlocking(promise -> {
+            try {
+                promise.complete(readJournal(journalFile));
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, true)
+            .toSingle()
+            .flatMapCompletable(saves -> {
+                if (!saves.isEmpty()) {
+                    LOGGER.info("Replaying " + saves.size() + " journaled page saves from " + journalFile);
+                }
+                return Flowable.fromIterable(saves.values())
+                    .concatMapCompletable(save -> writer.write(save.getInteger("id"), save.getString("markdown"),
+                        save.getString("client")));
+            })
+            .andThen(vertx.rxExecuteBlocking(promise -> {
+                try {
+                    journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                    journal.truncate(0);
+                    promise.complete();
+                } catch (IOException e) {
+                    promise.fail(e);
+                }
+            }, true).ignoreElement());
+    }
+
+    /**
+     * Reads the last journaled save of each page. A torn last line, left by a crash during an append, is skipped.
+     */
+    static Map<Integer, JsonObject> readJournal(Path file) throws IOException {
+        Map<Integer, JsonObject> saves = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return saves;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                JsonObject save = new JsonObject(line);
+                saves.remove(save.getInteger("id"));
+                saves.put(save.getInteger("id"), save);
+            } catch (DecodeException e) {
+                LOGGER.warn("Skipping a torn entry of journal " + file);
+            }
+        }
+        return saves;
+    }
+
+    Completable save(int id, String markdown, String client) {
+        return Completable.defer(() -> {
+            Pending save = pending.get(id);
+            if (save == null) {
+                save = new Pending();
+                save.timer = vertx.setTimer(windowMs, timer -> due(id));
+                pending.put(id, save);
+            } else {
+                coalesced.increment();
+            }
+            save.markdown = markdown;
+            save.client = client;
+            switch (durability) {
+                case FLUSH:
+                    return save.flushed;
+                case JOURNAL:
+                    return append(new JsonObject().put("id", id).put("markdown", markdown).put("client", client));
+                default:
+                    return Completable.complete();
+            }
+        });
+    }
+
+    /**
+     * Whether a save of the page is waiting to be written or being written.
+     */
+    boolean dirty(int id) {
+        return pending.containsKey(id) || flushing.containsKey(id);
+    }
+
+    /**
+     * Writes the pending save of a page now, completing once every save received so far for it is written.
+     */
+    Completable flush(int id) {
+        return Completable.defer(() -> {
+            Pending save = pending.get(id);
+            if (save == null) {
+                CompletableSubject inFlight = flushing.get(id);
+                return inFlight != null ? inFlight : Completable.complete();
+            }
+            if (flushing.containsKey(id)) {
+                save.due = true;
+                return save.flushed;
+            }
+            return startFlush(id);
+        });
+    }
+
+    Completable flushAll() {
+        return Completable.defer(() -> {
+            Set<Integer> ids = new LinkedHashSet<>(flushing.keySet());
+            ids.addAll(pending.keySet());
+            List<Completable> flushed = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                flushed.add(flush(id));
+            }
+            return Completable.mergeDelayError(flushed);
+        });
+    }
+
+    /**
+     * Writes every pending save, then closes the journal.
+     */
+    Completable close() {
+        return flushAll()
+            .doOnError(e -> LOGGER.error("Pending page saves could not be written", e))
+            .onErrorComplete()
+            .andThen(Completable.defer(() -> {
+                if (journal == null) {
+                    return Completable.complete();
+                }
+                return vertx.rxExecuteBlocking(promise -> {
+                    try {
+                        journal.close();
+                        promise.complete();
+                    } catch (IOException e) {
+                        promise.fail(e);
+                    }
+                }, true).ignoreElement();
+            }));
+    }
+
+    private void due(int id) {
+        Pending save = pending.get(id);
+        if (flushing.containsKey(id)) {
+            save.due = true;
+        } else {
+            startFlush(id);
+        }
+    }
+
+    private Completable startFlush(int id) {
+        Pending save = pending.remove(id);
+        vertx.cancelTimer(save.timer);
+        flushing.put(id, save.flushed);
+        flushes.increment();
+        writer.write(id, save.markdown, save.client)
+            .doFinally(() -> {
+                flushing.remove(id);
+                Pending next = pending.get(id);
+                if (next != null && next.due) {
+                    startFlush(id);
+                } else if (journal != null && pending.isEmpty() && flushing.isEmpty()) {
+                    truncateJournal();
+                }
+            })
+            .subscribe(save.flushed::onComplete, e -> {
+                LOGGER.error("Write-behind save of page " + id + " failed", e);
+                if (durability != Durability.FLUSH && !pending.containsKey(id)) {
+                    // Already acknowledged: retry unless a later save supersedes it
+                    Pending retry = new Pending();
+                    retry.markdown = save.markdown;
+                    retry.client = save.client;
+                    retry.timer = vertx.setTimer(windowMs, timer -> due(id));
+                    pending.put(id, retry);
+                }
+                save.flushed.onError(e);
+            });
+        return save.flushed;
+    }
+
+    /**
+     * Appends run in order on a worker thread, so the journal lists saves in the order they were received.
+     */
+    private Completable append(JsonObject save) {
+        byte[] line = (save.encode() + "\n").getBytes(StandardCharsets.UTF_8);
+        return vertx.rxExecuteBlocking(promise -> {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journal.force(false);
+                promise.complete();
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, true).ignoreElement();
+    }
+
+    /**
+     * Runs after the appends already requested, whose saves have all been written since nothing is pending.
+     */
+    private void truncateJournal() {
+        vertx.rxExecuteBlocking(promise -> {
+            try {
+                journal.truncate(0);
+                promise.complete();
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, true)
+            .ignoreElement()
+            .subscribe(() -> {
+            }, e -> LOGGER.error("Journal truncation error", e));
+    }
+
+    private static final class Pending {
+        private final CompletableSubject flushed = CompletableSubject.create();
+        private String markdown;
+        private String client;
+        private long timer;
+        private boolean due;
+    }
+}
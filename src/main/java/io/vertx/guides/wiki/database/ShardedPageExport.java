@@ -0,0 +1,166 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the exports of every shard, each ordered by id, into one export ordered by id. Each shard streams its batches
+ * to an address of its own, and a batch is only replied to once all its pages have been forwarded, so a shard's
+ * database cursor is held back until the merge needs its next pages.
+ * <p>
+ * Not thread-safe: it is only used from the event loop of the {@link WikiDatabaseVerticle} owning the shards.
+ */
+class ShardedPageExport {
+
+    private final EventBus eventBus;
+    private final String address;
+    private final int batchSize;
+    private final DeliveryOptions deliveryOptions;
+    private final Handler<AsyncResult<Integer>> resultHandler;
+    private final List<Source> sources = new ArrayList<>();
+
+    private JsonArray batch = new JsonArray();
+    private int count;
+    private boolean sending;
+    private boolean done;
+
+    ShardedPageExport(EventBus eventBus, String address, int batchSize, DeliveryOptions deliveryOptions,
+                      Handler<AsyncResult<Integer>> resultHandler) {
+        this.eventBus = eventBus;
+        this.address = address;
+        this.batchSize = batchSize;
+        this.deliveryOptions = deliveryOptions;
+        this.resultHandler = resultHandler;
+    }
+
+    void start(List<? extends WikiDatabaseService> shards) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Source source = new Source();
+            String shardAddress = address + ".shard." + shard;
+            source.consumer = eventBus.localConsumer(shardAddress, msg -> received(source, msg));
+            sources.add(source);
+            shards.get(shard).exportPages(shardAddress, batchSize, ar -> exported(source, ar));
+        }
+    }
+
+    private void received(Source source, Message<JsonArray> msg) {
+        if (done) {
+            msg.fail(ErrorCodes.DB_ERROR.ordinal(), "Export aborted");
+            return;
+        }
+        source.held = msg;
+        source.position = 0;
+        merge();
+    }
+
+    private void exported(Source source, AsyncResult<Integer> result) {
+        source.finished = true;
+        source.consumer.unregister();
+        if (result.failed()) {
+            fail(result.cause());
+        } else {
+            merge();
+        }
+    }
+
+    /**
+     * Moves pages into the batch in id order for as long as every shard still exporting has pages waiting, sending the
+     * batch whenever it is full or once every shard is done.
+     */
+    private void merge() {
+        while (!sending && !done) {
+            Source next = null;
+            for (Source source : sources) {
+                if (source.held == null) {
+                    if (!source.finished) {
+                        // Its next page may come before every waiting one
+                        return;
+                    }
+                } else if (next == null || source.headId() < next.headId()) {
+                    next = source;
+                }
+            }
+            if (next == null) {
+                if (batch.isEmpty()) {
+                    finish(Future.succeededFuture(count));
+                } else {
+                    send();
+                }
+                return;
+            }
+            batch.add(next.take());
+            if (batch.size() >= batchSize) {
+                send();
+            }
+        }
+    }
+
+    private void send() {
+        JsonArray pages = batch;
+        batch = new JsonArray();
+        sending = true;
+        eventBus.request(address, pages, deliveryOptions, ack -> {
+            sending = false;
+            if (ack.succeeded()) {
+                count += pages.size();
+                merge();
+            } else {
+                fail(ack.cause());
+            }
+        });
+    }
+
+    private void fail(Throwable t) {
+        if (done) {
+            return;
+        }
+        for (Source source : sources) {
+            if (source.held != null) {
+                source.held.fail(ErrorCodes.DB_ERROR.ordinal(), "Export aborted: " + t.getMessage());
+                source.held = null;
+            }
+        }
+        finish(Future.failedFuture(t));
+    }
+
+    private void finish(AsyncResult<Integer> result) {
+        if (done) {
+            return;
+        }
+        done = true;
+        resultHandler.handle(result);
+    }
+
+    /**
+     * The export of one shard: the batch it sent last, until all its pages have been taken.
+     */
+    private static final class Source {
+        private MessageConsumer<JsonArray> consumer;
+        private Message<JsonArray> held;
+        private int position;
+        private boolean finished;
+
+        private int headId() {
+            return held.body().getJsonObject(position).getInteger("id");
+        }
+
+        private JsonObject take() {
+            JsonObject page = held.body().getJsonObject(position++);
+            if (position == held.body().size()) {
+                held.reply(null);
+                held = null;
+            }
+            return page;
+        }
+    }
+}
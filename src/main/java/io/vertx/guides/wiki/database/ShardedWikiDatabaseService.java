@@ -0,0 +1,579 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.reactivex.CompletableHelper;
+import io.vertx.reactivex.SingleHelper;
+import io.vertx.serviceproxy.ServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link WikiDatabaseService} spreading pages over several databases, each with its own JDBC pool, so that writes to
+ * different shards do not contend on the same database lock.
+ * <p>
+ * A page is created on the shard its name hashes to. Each shard numbers its pages from its own index, in steps of the
+ * number of shards, so ids are unique across shards and {@code id % shards} is the shard holding a page: reads and
+ * writes by id go to that shard alone. Renamed pages stay on their shard, so a name missing from the shard it hashes
+ * to is looked up on the others before the page is reported missing.
+ * <p>
+ * Names stay unique across shards because creating, renaming or importing a page first claims its name in the
+ * {@code PageNames} table of the shard the name hashes to. A claim is a single insert under the table's primary key, so
+ * of two writes giving a name to pages on different shards at once only one succeeds. Claims are released when the
+ * write they were taken for fails or a page gives its name up; the first verticle instance to start reconciles the
+ * claims with the pages, for writes interrupted in between.
+ * <p>
+ * Listings query every shard in parallel and merge their sorted results, and so do exports, streaming every shard at
+ * once. Imports run one transaction per shard, and search hits are merged by score, each shard scoring against its
+ * own pages.
+ * <p>
+ * The database of each shard is named after {@code wikidb.jdbc.url} with a {@code -<shard>} suffix, and so are the
+ * files kept beside it. Ids depend on the number of shards, which cannot be changed once pages are stored.
+ */
+public class ShardedWikiDatabaseService implements WikiDatabaseService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedWikiDatabaseService.class);
+
+    private final List<WikiDatabaseServiceImpl> shards = new ArrayList<>();
+    private final io.vertx.core.Vertx vertx;
+    private final DeliveryOptions exportDeliveryOptions;
+
+    public ShardedWikiDatabaseService(io.vertx.core.Vertx vertx, int count, Map<SqlQuery, String> sqlQueries,
+                                      JsonObject config, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+        this.vertx = vertx;
+        this.exportDeliveryOptions = new DeliveryOptions()
+            .setSendTimeout(config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_EXPORT_ACK_TIMEOUT, 60_000L));
+        List<Completable> opened = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            JsonObject shardConfig = shardConfig(config, shard);
+            Map<SqlQuery, String> shardQueries = new HashMap<>(sqlQueries);
+            shardQueries.put(SqlQuery.CREATE_PAGES_TABLE,
+                String.format(sqlQueries.get(SqlQuery.CREATE_SHARDED_PAGES_TABLE), shard, count));
+            JDBCClient dbClient = JDBCClient.createShared(vertx, WikiDatabaseVerticle.jdbcConfig(shardConfig),
+                WikiDatabaseVerticle.dataSourceName(config) + ".shard." + shard);
+            Promise<WikiDatabaseService> ready = Promise.promise();
+            shards.add(new WikiDatabaseServiceImpl(vertx, dbClient, shardQueries, shardConfig, ready));
+            opened.add(SingleHelper.<WikiDatabaseService>toSingle(ready.future()::onComplete).ignoreElement());
+        }
+        registerGauges(WikiMetrics.get(vertx), config);
+        // Instances start one after the other and the first one does not serve requests yet, so only it reconciles
+        boolean reconcile = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCE, 0) == 0;
+
+        Completable.merge(opened)
+            .andThen(Flowable.fromIterable(shards)
+                .concatMapCompletable(shard -> shard.execute("createPageNamesTable", SqlQuery.CREATE_PAGE_NAMES_TABLE)))
+            .andThen(reconcile ? reconcileClaims() : Completable.complete())
+            .andThen(Single.just((WikiDatabaseService) this))
+            .subscribe(SingleHelper.toObserver(readyHandler));
+    }
+
+    /**
+     * The configuration of a shard, whose database URL and files kept beside the database get the shard as suffix.
+     */
+    static JsonObject shardConfig(JsonObject config, int shard) {
+        String url = config.getString(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, WikiDatabaseVerticle.DEFAULT_JDBC_URL);
+        // Connection properties follow the database name
+        int end = url.indexOf(';');
+        JsonObject shardConfig = config.copy().put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, end < 0
+            ? url + "-" + shard
+            : url.substring(0, end) + "-" + shard + url.substring(end));
+        for (String key : Arrays.asList(WikiDatabaseVerticle.CONFIG_WIKIDB_SEARCH_INDEX_FILE,
+            WikiDatabaseVerticle.CONFIG_WIKIDB_WRITE_BEHIND_JOURNAL_FILE)) {
+            String file = config.getString(key);
+            if (file != null && !file.isEmpty()) {
+                shardConfig.put(key, file + "-" + shard);
+            }
+        }
+        return shardConfig;
+    }
+
+    /**
+     * Replaces the gauges each shard registered over its own state by gauges summing them over all shards. Search
+     * terms are counted once per shard holding them.
+     */
+    private void registerGauges(WikiMetrics metrics, JsonObject config) {
+        String[] instanceLabels = WikiDatabaseVerticle.instanceLabels(config);
+        int maxPoolSize = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 30);
+        metrics.gauge("wikidb.pool.max_size", () -> (long) maxPoolSize * shards.size(), instanceLabels);
+        metrics.gauge("wikidb.search.documents", () -> sum(shard -> shard.searchIndex().documents()), instanceLabels);
+        metrics.gauge("wikidb.search.terms", () -> sum(shard -> shard.searchIndex().terms()), instanceLabels);
+        if (config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_WRITE_BEHIND_WINDOW, 0L) > 0) {
+            metrics.gauge("wikidb.write_behind.pending", () -> sum(WikiDatabaseServiceImpl::pendingSaves));
+        }
+        List<Admission> admissions = shards.get(0).admissions();
+        for (int i = 0; i < admissions.size(); i++) {
+            int index = i;
+            String[] labels = WikiDatabaseVerticle.instanceLabels(config, "class", admissions.get(index).name());
+            metrics.gauge("wikidb.admission.active",
+                () -> sum(shard -> shard.admissions().get(index).active()), labels);
+            metrics.gauge("wikidb.admission.queued",
+                () -> sum(shard -> shard.admissions().get(index).queued()), labels);
+            metrics.gauge("wikidb.admission.concurrency",
+                () -> sum(shard -> shard.admissions().get(index).concurrency()), labels);
+        }
+    }
+
+    private long sum(ToIntFunction<WikiDatabaseServiceImpl> value) {
+        return shards.stream().mapToLong(value::applyAsInt).sum();
+    }
+
+    void close(Handler<AsyncResult<Void>> completionHandler) {
+        Flowable.fromIterable(shards)
+            .flatMapCompletable(shard -> CompletableHelper.toCompletable(shard::close))
+            .subscribe(CompletableHelper.toObserver(completionHandler));
+    }
+
+    private int shardOf(int id) {
+        return Math.floorMod(id, shards.size());
+    }
+
+    private int homeShard(String name) {
+        return Math.floorMod(name.hashCode(), shards.size());
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, shards.size()).boxed().collect(Collectors.toList());
+    }
+
+    private List<Integer> otherShards(int shard) {
+        return IntStream.range(0, shards.size()).filter(other -> other != shard).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Calls the given shards at once, completing with their results in the same order.
+     */
+    private <T> Single<List<T>> fanOut(Collection<Integer> targets, BiConsumer<Integer, Handler<AsyncResult<T>>> call) {
+        return Flowable.fromIterable(targets)
+            .concatMapEager(shard -> SingleHelper.<T>toSingle(handler -> call.accept(shard, handler)).toFlowable())
+            .toList();
+    }
+
+    /**
+     * Same as {@link #fanOut(Collection, BiConsumer)}, calling every shard.
+     */
+    private <T> Single<List<T>> onAllShards(Function<WikiDatabaseServiceImpl, Single<T>> call) {
+        return Flowable.fromIterable(shards)
+            .concatMapEager(shard -> call.apply(shard).toFlowable())
+            .toList();
+    }
+
+    /**
+     * Claims a name on its home shard, completing with {@code false} if it is already claimed.
+     */
+    private Single<Boolean> claim(String name) {
+        return shards.get(homeShard(name))
+            .batchUpdate("claimPageName", SqlQuery.CLAIM_PAGE_NAME, nameParams(Collections.singletonList(name)))
+            .map(counts -> counts.get(0) > 0);
+    }
+
+    private Completable claimOrFail(String name) {
+        return claim(name).flatMapCompletable(claimed -> claimed
+            ? Completable.complete()
+            : Completable.error(new ServiceException(ErrorCodes.DB_ERROR.ordinal(),
+                "A page named " + name + " already exists")));
+    }
+
+    private Completable release(String name) {
+        return shards.get(homeShard(name))
+            .batchUpdate("releasePageName", SqlQuery.RELEASE_PAGE_NAME, nameParams(Collections.singletonList(name)))
+            .ignoreElement();
+    }
+
+    /**
+     * Releases the claim on a name once the write it was taken for failed, then fails with the write's error.
+     */
+    private <T> Single<T> releasing(String name, Single<T> write) {
+        return write.onErrorResumeNext(t -> release(name).onErrorComplete().andThen(Single.error(t)));
+    }
+
+    private static List<JsonArray> nameParams(Collection<String> names) {
+        return names.stream().map(name -> new JsonArray().add(name)).collect(Collectors.toList());
+    }
+
+    /**
+     * Brings the claims back in line with the names of the pages, as writes interrupted between a claim and the write
+     * it guards leave claims without pages or pages without claims. Also claims the names of pages stored before
+     * claims existed.
+     */
+    private Completable reconcileClaims() {
+        return onAllShards(shard -> shard.query("reconcileClaims", SqlQuery.ALL_PAGES))
+            .zipWith(onAllShards(shard -> shard.query("reconcileClaims", SqlQuery.PAGE_NAMES)), (pages, claims) -> {
+                List<Set<String>> expected = new ArrayList<>();
+                shards.forEach(shard -> expected.add(new HashSet<>()));
+                pages.stream().flatMap(List::stream)
+                    .map(row -> row.getString(0))
+                    .forEach(name -> expected.get(homeShard(name)).add(name));
+                return IntStream.range(0, shards.size())
+                    .mapToObj(shard -> reconcileClaims(shard, expected.get(shard), claims.get(shard)))
+                    .collect(Collectors.toList());
+            })
+            .flatMapCompletable(Completable::concat);
+    }
+
+    private Completable reconcileClaims(int shard, Set<String> names, List<JsonArray> claimRows) {
+        Set<String> claimed = claimRows.stream().map(row -> row.getString(0)).collect(Collectors.toSet());
+        List<String> stale = claimed.stream().filter(name -> !names.contains(name)).collect(Collectors.toList());
+        List<String> missing = names.stream().filter(name -> !claimed.contains(name)).collect(Collectors.toList());
+        if (!stale.isEmpty() || !missing.isEmpty()) {
+            LOGGER.info("Shard " + shard + ": released " + stale.size() + " stale page name claims and claimed "
+                + missing.size() + " missing ones");
+        }
+        WikiDatabaseServiceImpl impl = shards.get(shard);
+        return impl.batchUpdate("reconcileClaims", SqlQuery.RELEASE_PAGE_NAME, nameParams(stale))
+            .flatMap(released -> impl.batchUpdate("reconcileClaims", SqlQuery.CLAIM_PAGE_NAME, nameParams(missing)))
+            .ignoreElement();
+    }
+
+    /**
+     * Merges lists each sorted by {@code order} into one sorted stream, holding one element per list at a time.
+     */
+    static <T> Flowable<T> mergeSorted(List<List<T>> sorted, Comparator<? super T> order) {
+        return Flowable.generate(() -> {
+            PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(a.head, b.head));
+            for (List<T> list : sorted) {
+                Cursor<T> cursor = new Cursor<>(list.iterator());
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+            return heads;
+        }, (heads, emitter) -> {
+            Cursor<T> first = heads.poll();
+            if (first == null) {
+                emitter.onComplete();
+                return;
+            }
+            emitter.onNext(first.head);
+            if (first.advance()) {
+                heads.add(first);
+            }
+        });
+    }
+
+    private static final class Cursor<T> {
+        private final Iterator<T> rest;
+        private T head;
+
+        private Cursor(Iterator<T> rest) {
+            this.rest = rest;
+        }
+
+        private boolean advance() {
+            if (!rest.hasNext()) {
+                return false;
+            }
+            head = rest.next();
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(JsonArray names) {
+        return names.getList();
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+        this.<JsonArray>fanOut(allShards(), (shard, handler) -> shards.get(shard).fetchAllPages(handler))
+            .flatMap(names -> mergeSorted(names.stream()
+                .map(ShardedWikiDatabaseService::names)
+                .collect(Collectors.toList()), Comparator.<String>naturalOrder())
+                .toList())
+            .map(JsonArray::new)
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        this.<List<JsonObject>>fanOut(allShards(), (shard, handler) -> shards.get(shard).fetchAllPagesData(handler))
+            .flatMap(pages -> mergeSorted(pages, Comparator.comparingInt((JsonObject page) -> page.getInteger("ID")))
+                .toList())
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        this.<List<JsonObject>>fanOut(allShards(),
+            (shard, handler) -> shards.get(shard).fetchPagesSummary(after, limit, handler))
+            .flatMap(pages -> mergeSorted(pages, Comparator.comparingInt((JsonObject page) -> page.getInteger("id")))
+                .take(limit)
+                .toList())
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+        int shard = homeShard(name);
+        SingleHelper.<JsonObject>toSingle(handler -> shards.get(shard).fetchPage(name, handler))
+            .flatMap(page -> page.getBoolean("found")
+                ? Single.just(page)
+                : pageElsewhere(name, shard).map(found -> found.orElse(page)))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Looks up a name on the shards other than {@code shard}, where renamed pages may keep it.
+     */
+    private Single<Optional<JsonObject>> pageElsewhere(String name, int shard) {
+        return this.<JsonObject>fanOut(otherShards(shard), (other, handler) -> shards.get(other).fetchPage(name, handler))
+            .map(pages -> pages.stream().filter(page -> page.getBoolean("found")).findFirst());
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        shards.get(shardOf(id)).fetchPageById(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        List<Integer> keys = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, List<Integer>> byShard = keys.stream().collect(Collectors.groupingBy(this::shardOf,
+            TreeMap::new, Collectors.toList()));
+
+        this.<List<JsonObject>>fanOut(byShard.keySet(),
+            (shard, handler) -> shards.get(shard).fetchPagesByIds(byShard.get(shard), handler))
+            .map(pages -> inOrder(keys, flatten(pages), page -> page.getInteger("id")))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(names));
+        Map<Integer, List<String>> byShard = keys.stream().collect(Collectors.groupingBy(this::homeShard,
+            TreeMap::new, Collectors.toList()));
+
+        pagesByNames(byShard)
+            .flatMap(found -> {
+                // Renamed pages may keep their names on other shards than the ones they hash to
+                Set<String> foundNames = found.stream().map(page -> page.getString("name")).collect(Collectors.toSet());
+                Map<Integer, List<String>> elsewhere = new TreeMap<>();
+                for (String name : keys) {
+                    if (!foundNames.contains(name)) {
+                        for (int shard : otherShards(homeShard(name))) {
+                            elsewhere.computeIfAbsent(shard, k -> new ArrayList<>()).add(name);
+                        }
+                    }
+                }
+                return elsewhere.isEmpty()
+                    ? Single.just(found)
+                    : pagesByNames(elsewhere).map(more -> {
+                        found.addAll(more);
+                        return found;
+                    });
+            })
+            .map(pages -> inOrder(keys, pages, page -> page.getString("name")))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    private Single<List<JsonObject>> pagesByNames(Map<Integer, List<String>> byShard) {
+        return this.<List<JsonObject>>fanOut(byShard.keySet(),
+            (shard, handler) -> shards.get(shard).fetchPagesByNames(byShard.get(shard), handler))
+            .map(ShardedWikiDatabaseService::flatten);
+    }
+
+    private static List<JsonObject> flatten(List<List<JsonObject>> lists) {
+        return lists.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static <K> List<JsonObject> inOrder(List<K> keys, List<JsonObject> pages, Function<JsonObject, K> key) {
+        Map<K, JsonObject> byKey = new HashMap<>();
+        pages.forEach(page -> byKey.put(key.apply(page), page));
+        return keys.stream()
+            .map(byKey::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        shards.get(shardOf(id)).fetchPageVersion(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) {
+        int shard = homeShard(title);
+        claimOrFail(title)
+            .andThen(releasing(title,
+                SingleHelper.<Integer>toSingle(handler -> shards.get(shard).createPage(title, markdown, handler))))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) {
+        shards.get(shardOf(id)).savePage(id, markdown, client, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) {
+        WikiDatabaseServiceImpl shard = shards.get(shardOf(id));
+        SingleHelper.<JsonObject>toSingle(handler -> shard.fetchPageById(id, handler))
+            .flatMap(page -> {
+                if (!page.getBoolean("found")) {
+                    return Single.just(false);
+                }
+                Single<Boolean> rename = SingleHelper.toSingle(handler -> shard.renamePage(id, name, handler));
+                String previous = page.getString("name");
+                if (previous.equals(name)) {
+                    return rename;
+                }
+                // The page keeps its shard, but its new name is claimed on the shard the name hashes to
+                return claimOrFail(name)
+                    .andThen(releasing(name, rename))
+                    .flatMap(renamed -> release(renamed ? previous : name).toSingleDefault(renamed));
+            })
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
+        WikiDatabaseServiceImpl shard = shards.get(shardOf(id));
+        SingleHelper.<JsonObject>toSingle(handler -> shard.fetchPageById(id, handler))
+            .flatMapCompletable(page -> CompletableHelper.toCompletable(handler -> shard.deletePage(id, handler))
+                .andThen(page.getBoolean("found") ? release(page.getString("name")) : Completable.complete()))
+            .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Each shard claims the names of the pages hashing to it, then imports the pages whose names it could claim in a
+     * transaction of its own, and releases the claims of the pages it did not import.
+     */
+    @Override
+    public WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) {
+        Map<Integer, List<Integer>> byShard = new TreeMap<>();
+        for (int i = 0; i < pages.size(); i++) {
+            byShard.computeIfAbsent(homeShard(pages.get(i).getString("name")), k -> new ArrayList<>()).add(i);
+        }
+
+        this.<JsonObject>fanOut(byShard.keySet(), (shard, handler) -> importOnShard(shard, pages, byShard.get(shard))
+            .subscribe(SingleHelper.toObserver(handler)))
+            .map(results -> {
+                JsonArray created = new JsonArray();
+                List<Integer> conflicts = new ArrayList<>();
+                for (JsonObject result : results) {
+                    created.addAll(result.getJsonArray("pages"));
+                    for (Object conflict : result.getJsonArray("conflicts")) {
+                        conflicts.add(((Number) conflict).intValue());
+                    }
+                }
+                conflicts.sort(Comparator.naturalOrder());
+                return new JsonObject()
+                    .put("imported", created.size())
+                    .put("pages", created)
+                    .put("conflicts", new JsonArray(conflicts));
+            })
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Imports the pages at {@code indexes}, whose names all hash to {@code shard}, completing with conflicts given as
+     * indexes within {@code pages}.
+     */
+    private Single<JsonObject> importOnShard(int shard, List<JsonObject> pages, List<Integer> indexes) {
+        WikiDatabaseServiceImpl impl = shards.get(shard);
+        List<String> names = indexes.stream().map(i -> pages.get(i).getString("name")).distinct()
+            .collect(Collectors.toList());
+
+        return impl.batchUpdate("claimPageName", SqlQuery.CLAIM_PAGE_NAME, nameParams(names))
+            .flatMap(counts -> {
+                Set<String> claimed = new HashSet<>();
+                for (int i = 0; i < names.size(); i++) {
+                    if (counts.get(i) > 0) {
+                        claimed.add(names.get(i));
+                    }
+                }
+                List<Integer> conflicts = new ArrayList<>();
+                List<Integer> claimedIndexes = new ArrayList<>();
+                for (int i : indexes) {
+                    (claimed.contains(pages.get(i).getString("name")) ? claimedIndexes : conflicts).add(i);
+                }
+                if (claimedIndexes.isEmpty()) {
+                    return Single.just(new JsonObject()
+                        .put("pages", new JsonArray())
+                        .put("conflicts", new JsonArray(conflicts)));
+                }
+                return SingleHelper.<JsonObject>toSingle(handler -> impl.importPages(
+                    claimedIndexes.stream().map(pages::get).collect(Collectors.toList()), handler))
+                    .onErrorResumeNext(t -> impl.batchUpdate("releasePageName", SqlQuery.RELEASE_PAGE_NAME,
+                        nameParams(claimed)).ignoreElement().onErrorComplete().andThen(Single.error(t)))
+                    .flatMap(result -> {
+                        // Back from indexes within the shard's batch to indexes within pages
+                        for (Object conflict : result.getJsonArray("conflicts")) {
+                            conflicts.add(claimedIndexes.get(((Number) conflict).intValue()));
+                        }
+                        Set<String> unused = new HashSet<>(claimed);
+                        for (Object page : result.getJsonArray("pages")) {
+                            unused.remove(((JsonObject) page).getString("name"));
+                        }
+                        return impl.batchUpdate("releasePageName", SqlQuery.RELEASE_PAGE_NAME, nameParams(unused))
+                            .map(released -> new JsonObject()
+                                .put("pages", result.getJsonArray("pages"))
+                                .put("conflicts", new JsonArray(conflicts)));
+                    });
+            });
+    }
+
+    @Override
+    public WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) {
+        new ShardedPageExport(vertx.eventBus(), address, batchSize, exportDeliveryOptions, resultHandler).start(shards);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        this.<List<JsonObject>>fanOut(allShards(),
+            (shard, handler) -> shards.get(shard).searchPages(query, limit, handler))
+            .map(hits -> hits.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingDouble((JsonObject hit) -> hit.getDouble("score")).reversed()
+                    .thenComparingInt(hit -> hit.getInteger("id")))
+                .limit(limit)
+                .collect(Collectors.toList()))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+}
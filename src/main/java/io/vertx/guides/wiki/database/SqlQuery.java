@@ -2,11 +2,33 @@ package io.vertx.guides.wiki.database;
 
 public enum SqlQuery {
     CREATE_PAGES_TABLE,
+    CREATE_SHARDED_PAGES_TABLE,
+    PAGES_COLUMNS,
+    ADD_HTML_COLUMN,
+    ADD_HTML_VERSION_COLUMN,
+    ADD_VERSION_COLUMN,
+    ADD_UPDATED_COLUMN,
     ALL_PAGES,
     ALL_PAGES_DATA,
+    PAGES_SUMMARY_AFTER,
     GET_PAGE,
     GET_PAGE_BY_ID,
+    GET_PAGES_BY_IDS,
+    GET_PAGES_BY_NAMES,
+    GET_PAGE_IDS_BY_NAMES,
+    GET_PAGE_VERSION,
     CREATE_PAGE,
     SAVE_PAGE,
-    DELETE_PAGE
+    RENAME_PAGE,
+    DELETE_PAGE,
+    PAGES_NEEDING_RENDER,
+    UPDATE_PAGE_HTML,
+    EXPORT_PAGES,
+    IMPORT_PAGE,
+    PAGE_STAMPS,
+    PAGES_TO_INDEX,
+    CREATE_PAGE_NAMES_TABLE,
+    PAGE_NAMES,
+    CLAIM_PAGE_NAME,
+    RELEASE_PAGE_NAME
 }
@@ -7,6 +7,7 @@ import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.jdbc.JDBCClient;
@@ -24,24 +25,92 @@ public interface WikiDatabaseService {
     @Fluent
     WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler);
 
+    /**
+     * Lists pages as {@code id}/{@code name} pairs ordered by id, starting after the {@code after} id (keyset
+     * pagination). Page content is not loaded.
+     */
+    @Fluent
+    WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
     @Fluent
     WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler);
 
     @Fluent
     WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler);
 
+    /**
+     * Looks up many pages at once, in as few queries as the chunk size allows. Completes with the pages found, in the
+     * order of {@code ids} and without duplicates, as {@link #fetchPageById(int, Handler)} objects without the
+     * {@code found} flag; {@code html} is only set when stored HTML is up to date.
+     */
+    @Fluent
+    WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
+    /**
+     * Same as {@link #fetchPagesByIds(List, Handler)}, by page names.
+     */
     @Fluent
-    WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler);
+    WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler);
 
+    /**
+     * Looks up the {@code version} and {@code updated} time of a page without loading its content.
+     */
     @Fluent
-    WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler);
+    WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler);
+
+    /**
+     * Creates a page, completing with the id the database generated for it.
+     */
+    @Fluent
+    WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler);
+
+    /**
+     * Replaces the markdown of a page, then publishes a {@code page.saved} event with its {@code id}, its new
+     * {@code version} and the {@code client} that saved it. With write-behind enabled, successive saves of a page may
+     * be coalesced into one write and one event, carrying the client of the last save.
+     */
+    @Fluent
+    WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler);
+
+    /**
+     * Renames a page, completing with {@code false} if there is no page with that id.
+     */
+    @Fluent
+    WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler);
 
     @Fluent
     WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler);
 
+    /**
+     * Inserts {@code name}/{@code markdown} pages in a single transaction. Pages whose name already exists, in the
+     * database or earlier in the same batch, are skipped. Completes with the number of {@code imported} pages, the
+     * {@code pages} array of their {@code id}/{@code name} objects and the {@code conflicts} array of skipped indexes
+     * within {@code pages}.
+     */
+    @Fluent
+    WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler);
+
+    /**
+     * Streams every page, ordered by id, to {@code address} as JSON arrays of at most {@code batchSize}
+     * {@code id}/{@code name}/{@code markdown} objects. Each batch is sent as a request and the next one is only read
+     * from the database once it has been replied to; failing a batch aborts the export. Completes with the number of
+     * exported pages.
+     */
+    @Fluent
+    WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler);
+
+    /**
+     * Full-text search over page names and markdown, ranked with BM25. Completes with at most {@code limit}
+     * {@code id}/{@code name}/{@code score} objects, best match first. The index is maintained in memory by the
+     * service, so searches never query the database.
+     */
+    @Fluent
+    WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
     @GenIgnore
-    static WikiDatabaseService create(JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
-        return new WikiDatabaseServiceImpl(dbClient, sqlQueries, readyHandler);
+    static WikiDatabaseService create(Vertx vertx, JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, JsonObject config,
+                                      Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+        return new WikiDatabaseServiceImpl(vertx, dbClient, sqlQueries, config, readyHandler);
     }
 
     @GenIgnore
@@ -49,4 +118,33 @@ public interface WikiDatabaseService {
         return new WikiDatabaseServiceVertxEBProxy(vertx, address);
     }
 
+    @GenIgnore
+    static WikiDatabaseService createProxy(Vertx vertx, String address, DeliveryOptions options) {
+        return new WikiDatabaseServiceVertxEBProxy(vertx, address, options);
+    }
+
+    /**
+     * Proxy passing arguments and results by reference instead of encoding them, for callers running in the same
+     * JVM as the service. Falls back to {@link #createProxy(Vertx, String, DeliveryOptions)} when clustered.
+     */
+    @GenIgnore
+    static WikiDatabaseService createLocalProxy(Vertx vertx, String address, DeliveryOptions options) {
+        if (vertx.isClustered()) {
+            return createProxy(vertx, address, options);
+        }
+        return new WikiDatabaseServiceLocalProxy(vertx, address, options);
+    }
+
+    /**
+     * Local proxy for the services of {@code instances} {@link WikiDatabaseVerticle} instances: reads are spread over
+     * all of them, and the writes to a page always go to the same one, so that they are applied in order.
+     */
+    @GenIgnore
+    static WikiDatabaseService createRoutedProxy(Vertx vertx, String address, int instances, DeliveryOptions options) {
+        if (instances <= 1) {
+            return createLocalProxy(vertx, address, options);
+        }
+        return new WikiDatabaseServiceRouter(vertx, address, instances, options);
+    }
+
 }
@@ -1,53 +1,619 @@
 package io.vertx.guides.wiki.database;
 
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.Single;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLOptions;
+import io.vertx.guides.wiki.SingleFlight;
+import io.vertx.guides.wiki.metrics.LabelledTimers;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.guides.wiki.render.Markdown;
+import io.vertx.guides.wiki.search.IndexedPage;
+import io.vertx.guides.wiki.search.SearchIndex;
 import io.vertx.reactivex.CompletableHelper;
 import io.vertx.reactivex.MaybeHelper;
 import io.vertx.reactivex.SingleHelper;
+import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.jdbc.JDBCClient;
 import io.vertx.reactivex.ext.sql.SQLClientHelper;
+import io.vertx.reactivex.ext.sql.SQLConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class WikiDatabaseServiceImpl implements WikiDatabaseService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WikiDatabaseServiceImpl.class);
 
+    private static final long SEARCH_SYNC_DELAY_MS = 200;
+
+    static final String PAGE_SAVED_ADDRESS = "page.saved";
+
+    private static final String PAGE_CHANGED_ADDRESS = "wikidb.page_changed";
+
+    // Columns added after the first release of the Pages table, in the order they must be created
+    private static final Map<String, SqlQuery> COLUMN_UPGRADES = new LinkedHashMap<>();
+
+    static {
+        COLUMN_UPGRADES.put("HTML", SqlQuery.ADD_HTML_COLUMN);
+        COLUMN_UPGRADES.put("HTMLVERSION", SqlQuery.ADD_HTML_VERSION_COLUMN);
+        COLUMN_UPGRADES.put("VERSION", SqlQuery.ADD_VERSION_COLUMN);
+        COLUMN_UPGRADES.put("UPDATED", SqlQuery.ADD_UPDATED_COLUMN);
+    }
+
+    private final Vertx vertx;
     private final Map<SqlQuery, String> sqlQueries;
     private final JDBCClient dbClient;
+    private final boolean renderOnWrite;
+    private final int renderBatchSize;
+    private final SQLOptions exportOptions;
+    private final DeliveryOptions exportDeliveryOptions;
+    private final PageCache cache;
+    private final SingleFlight<Integer, JsonObject> loadsById;
+    private final SingleFlight<String, JsonArray> loadsByName;
+    private final int batchChunkSize;
+    private final String pagesByIdsQuery;
+    private final String pagesByNamesQuery;
+    private final String pageIdsByNamesQuery;
+    private final LabelledTimers poolWait;
+    private final LabelledTimers queryTime;
+    private final LongAdder connectionsInUse;
+    private final Admission reads;
+    private final Admission writes;
+    private final Admission background;
+
+    // Search index state, only touched from the event loop of the verticle owning this service
+    private final Path searchIndexFile;
+    private final int searchSyncBatchSize;
+    private final int searchSyncParallelism;
+    private final Timer searchTime;
+    private final Set<Integer> touchedDuringSync = new HashSet<>();
+    private SearchIndex searchIndex = new SearchIndex();
+    private boolean searchIndexDirty;
+    private boolean searchSyncing;
+    private boolean searchSyncRequested;
+    private boolean searchPersisting;
+    private long searchSyncTimer = -1;
+    private long searchPersistTimer = -1;
 
-    public WikiDatabaseServiceImpl(io.vertx.ext.jdbc.JDBCClient dbClient,
+    // Write-behind of page saves, null unless enabled
+    private final SaveCoalescer saves;
+
+    // Changes announced to the other verticle instances serving the same database, if any
+    private final boolean announceChanges;
+    private final String origin = UUID.randomUUID().toString();
+    private final String database;
+
+    public WikiDatabaseServiceImpl(io.vertx.core.Vertx vertx,
+                                   io.vertx.ext.jdbc.JDBCClient dbClient,
                                    Map<SqlQuery, String> sqlQueries,
+                                   JsonObject config,
                                    Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+        this.vertx = new Vertx(vertx);
         this.sqlQueries = sqlQueries;
         this.dbClient = new JDBCClient(dbClient);
+        this.renderOnWrite = config.getBoolean(WikiDatabaseVerticle.CONFIG_WIKIDB_RENDER_ON_WRITE, false);
+        this.renderBatchSize = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_RENDER_BATCH_SIZE, 100);
+        this.exportOptions = new SQLOptions()
+            .setReadOnly(true)
+            .setFetchSize(config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_EXPORT_FETCH_SIZE, 100));
+        this.exportDeliveryOptions = new DeliveryOptions()
+            .setSendTimeout(config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_EXPORT_ACK_TIMEOUT, 60_000L));
+        WikiMetrics metrics = WikiMetrics.get(vertx);
+        this.cache = new PageCache(
+            config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_CACHE_MAX_ENTRIES, 10_000),
+            config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_CACHE_MAX_BYTES, 64L * 1024 * 1024),
+            config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_CACHE_TTL, 0L),
+            metrics);
+        this.loadsById = new SingleFlight<>(metrics.counter("wikidb.page_loads.coalesced", "key", "id"));
+        this.loadsByName = new SingleFlight<>(metrics.counter("wikidb.page_loads.coalesced", "key", "name"));
+        this.batchChunkSize = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_BATCH_CHUNK_SIZE, 50);
+        if (batchChunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch chunk size " + batchChunkSize);
+        }
+        this.pagesByIdsQuery = chunkQuery(sqlQueries.get(SqlQuery.GET_PAGES_BY_IDS), batchChunkSize);
+        this.pagesByNamesQuery = chunkQuery(sqlQueries.get(SqlQuery.GET_PAGES_BY_NAMES), batchChunkSize);
+        this.pageIdsByNamesQuery = chunkQuery(sqlQueries.get(SqlQuery.GET_PAGE_IDS_BY_NAMES), batchChunkSize);
+        this.poolWait = metrics.timers("wikidb.pool.wait", "operation");
+        this.queryTime = metrics.timers("wikidb.query.time", "operation");
+        String[] instanceLabels = WikiDatabaseVerticle.instanceLabels(config);
+        this.connectionsInUse = metrics.gauge("wikidb.pool.in_use", instanceLabels);
+        int maxPoolSize = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 30);
+        metrics.gauge("wikidb.pool.max_size", () -> maxPoolSize, instanceLabels);
+        // By default the three classes split the pool, so background work never delays requests for a connection
+        int backgroundConcurrency = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_ADMISSION_BACKGROUND_CONCURRENCY,
+            Math.max(1, maxPoolSize / 10));
+        int writeConcurrency = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_ADMISSION_WRITE_CONCURRENCY,
+            Math.max(1, (maxPoolSize - backgroundConcurrency) / 3));
+        this.reads = new Admission("read",
+            config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_ADMISSION_READ_CONCURRENCY,
+                Math.max(1, maxPoolSize - backgroundConcurrency - writeConcurrency)),
+            config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_ADMISSION_READ_QUEUE, 256),
+            metrics, instanceLabels);
+        this.writes = new Admission("write", writeConcurrency,
+            config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_ADMISSION_WRITE_QUEUE, 128),
+            metrics, instanceLabels);
+        this.background = new Admission("background", backgroundConcurrency, -1, metrics, instanceLabels);
+        this.searchIndexFile = searchIndexFile(config);
+        this.searchSyncBatchSize = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_SEARCH_SYNC_BATCH_SIZE, 500);
+        this.searchSyncParallelism = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_SEARCH_SYNC_PARALLELISM,
+            Runtime.getRuntime().availableProcessors());
+        this.searchTime = metrics.timer("wikidb.search.time");
+        metrics.gauge("wikidb.search.documents", () -> searchIndex.documents(), instanceLabels);
+        metrics.gauge("wikidb.search.terms", () -> searchIndex.terms(), instanceLabels);
+        long searchPersistInterval = config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_SEARCH_PERSIST_INTERVAL, 60_000L);
+        this.saves = saveCoalescer(config, metrics);
+        this.announceChanges = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCES, 1) > 1;
+        this.database = config.getString(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, WikiDatabaseVerticle.DEFAULT_JDBC_URL);
+        if (announceChanges) {
+            this.vertx.eventBus().<JsonObject>consumer(PAGE_CHANGED_ADDRESS, msg -> changedElsewhere(msg.body()));
+        }
+        // Other instances find the stored HTML being migrated already
+        boolean migrateHtml = renderOnWrite && config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCE, 0) == 0;
 
         SQLClientHelper.usingConnectionSingle(this.dbClient,
             conn -> conn
                 .rxExecute(sqlQueries.get(SqlQuery.CREATE_PAGES_TABLE))
+                .andThen(upgradeSchema(conn))
                 .doOnComplete(() -> LOGGER.info("Database successfully prepared"))
                 .doOnError(e -> LOGGER.error("Database preparation error", e))
+                .andThen(loadSearchIndex())
+                .andThen(saves != null ? saves.open() : Completable.complete())
                 .andThen(Single.just(this)))
+            .doOnSuccess(service -> {
+                if (migrateHtml) {
+                    renderStaleHtml(-1);
+                }
+                syncSearchIndex();
+                if (searchIndexFile != null && searchPersistInterval > 0) {
+                    searchPersistTimer = this.vertx.setPeriodic(searchPersistInterval, id -> {
+                        if (!searchPersisting) {
+                            persistSearchIndex().onErrorComplete().subscribe();
+                        }
+                    });
+                }
+            })
             .subscribe(SingleHelper.toObserver(readyHandler));
     }
 
+    /**
+     * Tells the other instances serving the same database that a page changed, before the change is acknowledged, so
+     * that they drop it from their caches before they are asked for it. Their search indexes catch up in the
+     * background, so searches they serve are only eventually consistent. A {@code null} id stands for changes to any
+     * number of pages, after which they synchronize their search index.
+     */
+    private void announce(Integer id) {
+        if (announceChanges) {
+            vertx.eventBus().publish(PAGE_CHANGED_ADDRESS, new JsonObject()
+                .put("origin", origin)
+                .put("database", database)
+                .put("id", id));
+        }
+    }
+
+    private void changedElsewhere(JsonObject change) {
+        if (origin.equals(change.getString("origin")) || !database.equals(change.getString("database"))) {
+            return;
+        }
+        Integer id = change.getInteger("id");
+        if (id == null) {
+            loadsByName.forgetAll();
+            requestSearchSync();
+        } else {
+            invalidate(id);
+            reindex(pageById(background, id), id).subscribe();
+        }
+    }
+
+    /**
+     * The file the search index is persisted to: the configured one, or next to the database files of an HSQLDB
+     * file database. Other databases, in-memory ones in particular, rebuild the index at every start. Verticle
+     * instances other than the first one persist theirs to files of their own, suffixed with their index.
+     */
+    static Path searchIndexFile(JsonObject config) {
+        Path file = fileBesideDatabase(config, WikiDatabaseVerticle.CONFIG_WIKIDB_SEARCH_INDEX_FILE, ".search");
+        int instance = config.getInteger(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCE, 0);
+        return file == null || instance == 0 ? file : Paths.get(file + "-" + instance);
+    }
+
+    /**
+     * The file configured under {@code key}, an empty value disabling it, or else the HSQLDB file database path with
+     * {@code extension} appended, if the database is one.
+     */
+    static Path fileBesideDatabase(JsonObject config, String key, String extension) {
+        String file = config.getString(key);
+        if (file != null) {
+            return file.isEmpty() ? null : Paths.get(file);
+        }
+        String url = config.getString(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, WikiDatabaseVerticle.DEFAULT_JDBC_URL);
+        String prefix = "jdbc:hsqldb:file:";
+        if (!url.startsWith(prefix)) {
+            return null;
+        }
+        int end = url.indexOf(';');
+        return Paths.get(url.substring(prefix.length(), end < 0 ? url.length() : end) + extension);
+    }
+
+    private SaveCoalescer saveCoalescer(JsonObject config, WikiMetrics metrics) {
+        long window = config.getLong(WikiDatabaseVerticle.CONFIG_WIKIDB_WRITE_BEHIND_WINDOW, 0L);
+        if (window <= 0) {
+            return null;
+        }
+        SaveCoalescer.Durability durability = SaveCoalescer.Durability.valueOf(config
+            .getString(WikiDatabaseVerticle.CONFIG_WIKIDB_WRITE_BEHIND_DURABILITY, "flush")
+            .toUpperCase(Locale.ROOT));
+        Path journalFile = null;
+        if (durability == SaveCoalescer.Durability.JOURNAL) {
+            journalFile = fileBesideDatabase(config, WikiDatabaseVerticle.CONFIG_WIKIDB_WRITE_BEHIND_JOURNAL_FILE,
+                ".journal");
+            if (journalFile == null) {
+                LOGGER.warn("No file to journal page saves to, acknowledging them after they are written instead");
+                durability = SaveCoalescer.Durability.FLUSH;
+            }
+        }
+        return new SaveCoalescer(vertx, window, durability, journalFile, this::writePage, metrics);
+    }
+
+    /**
+     * Writes the pending page saves and stops the background search index tasks, then persists the index if it
+     * changed since it was last written.
+     */
+    void close(Handler<AsyncResult<Void>> completionHandler) {
+        vertx.cancelTimer(searchSyncTimer);
+        vertx.cancelTimer(searchPersistTimer);
+        (saves != null ? saves.close() : Completable.complete())
+            .andThen(Completable.defer(this::persistSearchIndex))
+            .subscribe(CompletableHelper.toObserver(completionHandler));
+    }
+
+    // For ShardedWikiDatabaseService to report gauges over all of its shards
+
+    SearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    List<Admission> admissions() {
+        return Arrays.asList(reads, writes, background);
+    }
+
+    int pendingSaves() {
+        return saves != null ? saves.pending() : 0;
+    }
+
+    // For ShardedWikiDatabaseService to keep its page name claims in the database of each shard
+
+    Completable execute(String operation, SqlQuery query) {
+        return withConnection(background, operation, conn -> conn.rxExecute(sqlQueries.get(query)).toSingleDefault(true))
+            .ignoreElement();
+    }
+
+    Single<List<JsonArray>> query(String operation, SqlQuery query) {
+        return withConnection(background, operation, conn -> conn.rxQuery(sqlQueries.get(query)))
+            .map(ResultSet::getResults);
+    }
+
+    Single<List<Integer>> batchUpdate(String operation, SqlQuery query, List<JsonArray> params) {
+        if (params.isEmpty()) {
+            return Single.just(Collections.emptyList());
+        }
+        return withConnection(writes, operation, conn -> conn.rxBatchWithParams(sqlQueries.get(query), params));
+    }
+
+    private Completable upgradeSchema(SQLConnection conn) {
+        return conn.rxQuery(sqlQueries.get(SqlQuery.PAGES_COLUMNS))
+            .map(rs -> rs.getResults().stream().map(row -> row.getString(0)).collect(Collectors.toSet()))
+            .flatMapCompletable(columns -> Completable.concat(COLUMN_UPGRADES.entrySet()
+                .stream()
+                .filter(upgrade -> !columns.contains(upgrade.getKey()))
+                .map(upgrade -> conn.rxExecute(sqlQueries.get(upgrade.getValue())))
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Background migration for render-on-write: renders pages whose HTML is missing or was produced by another
+     * renderer version, one batch at a time, walking the table by id.
+     */
+    private void renderStaleHtml(int after) {
+        JsonArray params = new JsonArray().add(after).add(Markdown.VERSION).add(renderBatchSize);
+
+        withConnection(background, "renderStaleHtml",
+            conn -> conn.rxQueryWithParams(sqlQueries.get(SqlQuery.PAGES_NEEDING_RENDER), params))
+            .map(ResultSet::getResults)
+            .flatMap(rows -> {
+                if (rows.isEmpty()) {
+                    return Single.just(-1);
+                }
+                int lastId = rows.get(rows.size() - 1).getInteger(0);
+                return vertx.<List<JsonArray>>rxExecuteBlocking(promise -> {
+                    List<JsonArray> batch = new ArrayList<>(rows.size());
+                    for (JsonArray row : rows) {
+                        batch.add(new JsonArray()
+                            .add(Markdown.render(row.getString(1)))
+                            .add(Markdown.VERSION)
+                            .add(row.getInteger(0))
+                            .add(Markdown.VERSION));
+                    }
+                    promise.complete(batch);
+                }, false)
+                    .toSingle()
+                    .flatMap(batch -> withConnection(background, "renderStaleHtml",
+                        conn -> conn.rxBatchWithParams(sqlQueries.get(SqlQuery.UPDATE_PAGE_HTML), batch)))
+                    .doOnSuccess(counts -> rows.forEach(row -> invalidate(row.getInteger(0))))
+                    .map(counts -> lastId);
+            })
+            .subscribe(lastId -> {
+                if (lastId >= 0) {
+                    vertx.runOnContext(v -> renderStaleHtml(lastId));
+                } else {
+                    LOGGER.info("Stored HTML is up to date with renderer version " + Markdown.VERSION);
+                }
+            }, e -> LOGGER.error("Stored HTML migration error", e));
+    }
+
+    private Completable loadSearchIndex() {
+        if (searchIndexFile == null || !Files.exists(searchIndexFile)) {
+            return Completable.complete();
+        }
+        long start = System.nanoTime();
+        return vertx.<SearchIndex>rxExecuteBlocking(promise -> {
+            try {
+                promise.complete(SearchIndex.readFrom(searchIndexFile));
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, false)
+            .doOnSuccess(index -> {
+                searchIndex = index;
+                LOGGER.info("Loaded search index of " + index.documents() + " pages from " + searchIndexFile + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            })
+            .ignoreElement()
+            .doOnError(e -> LOGGER.warn("Discarding search index " + searchIndexFile, e))
+            .onErrorComplete();
+    }
+
+    /**
+     * Writes a snapshot of the search index on a worker thread. Pages indexed after the snapshot was taken are caught
+     * up by the stamp comparison of {@link #syncSearchIndex()} after a restart, so losing them in a crash is harmless.
+     */
+    private Completable persistSearchIndex() {
+        if (searchIndexFile == null || !searchIndexDirty) {
+            return Completable.complete();
+        }
+        SearchIndex.Snapshot snapshot = searchIndex.snapshot();
+        searchIndexDirty = false;
+        searchPersisting = true;
+        return vertx.rxExecuteBlocking(promise -> {
+            try {
+                snapshot.writeTo(searchIndexFile);
+                promise.complete();
+            } catch (IOException e) {
+                promise.fail(e);
+            }
+        }, false)
+            .ignoreElement()
+            .doOnError(e -> {
+                searchIndexDirty = true;
+                LOGGER.error("Search index persistence error", e);
+            })
+            .doFinally(() -> searchPersisting = false);
+    }
+
+    /**
+     * Brings the search index up to date with the database: pages whose version or update time differs from the
+     * indexed one are re-indexed, batch by batch, with tokenization spread over worker threads, and pages that no
+     * longer exist are removed. Pages written while the synchronization runs are indexed by the write itself and
+     * left alone. Searches keep being served, from a partially synchronized index, in the meantime.
+     */
+    private void syncSearchIndex() {
+        searchSyncing = true;
+        searchSyncRequested = false;
+        long start = System.nanoTime();
+
+        withConnection(background, "syncSearchIndex", conn -> conn.rxQuery(sqlQueries.get(SqlQuery.PAGE_STAMPS)))
+            .map(ResultSet::getResults)
+            .flatMap(rows -> {
+                Set<Integer> removed = new HashSet<>();
+                searchIndex.forEachPageId(removed::add);
+                List<Integer> stale = new ArrayList<>();
+                for (JsonArray row : rows) {
+                    int id = row.getInteger(0);
+                    removed.remove(id);
+                    if (!stamp(row.getLong(1), row.getString(2)).equals(searchIndex.stamp(id))) {
+                        stale.add(id);
+                    }
+                }
+                removed.removeAll(touchedDuringSync);
+                removed.forEach(searchIndex::remove);
+                searchIndexDirty |= !removed.isEmpty();
+
+                List<List<Integer>> batches = new ArrayList<>();
+                for (int i = 0; i < stale.size(); i += searchSyncBatchSize) {
+                    batches.add(stale.subList(i, Math.min(stale.size(), i + searchSyncBatchSize)));
+                }
+                return Flowable.fromIterable(batches)
+                    .flatMapSingle(this::tokenizeForIndex, false, searchSyncParallelism)
+                    .doOnNext(pages -> {
+                        for (IndexedPage page : pages) {
+                            if (!touchedDuringSync.contains(page.pageId())) {
+                                searchIndex.put(page);
+                                searchIndexDirty = true;
+                            }
+                        }
+                    })
+                    .reduce(0, (count, pages) -> count + pages.size());
+            })
+            .doFinally(() -> {
+                searchSyncing = false;
+                touchedDuringSync.clear();
+            })
+            .subscribe(count -> {
+                LOGGER.info("Search index synchronized: " + count + " pages indexed, " + searchIndex.documents()
+                    + " pages and " + searchIndex.terms() + " terms in " + (System.nanoTime() - start) / 1_000_000
+                    + " ms");
+                if (searchSyncRequested) {
+                    syncSearchIndex();
+                }
+            }, e -> LOGGER.error("Search index synchronization error", e));
+    }
+
+    private Single<List<IndexedPage>> tokenizeForIndex(List<Integer> ids) {
+        JsonArray params = new JsonArray().add(ids.get(0)).add(ids.get(ids.size() - 1));
+        Set<Integer> wanted = new HashSet<>(ids);
+
+        return withConnection(background, "syncSearchIndex",
+            conn -> conn.rxQueryWithParams(sqlQueries.get(SqlQuery.PAGES_TO_INDEX), params))
+            .map(ResultSet::getResults)
+            .flatMap(rows -> vertx.<List<IndexedPage>>rxExecuteBlocking(promise -> {
+                List<IndexedPage> pages = new ArrayList<>(ids.size());
+                for (JsonArray row : rows) {
+                    int id = row.getInteger(0);
+                    if (wanted.contains(id)) {
+                        pages.add(IndexedPage.of(id, row.getString(1), stamp(row.getLong(3), row.getString(4)),
+                            row.getString(2)));
+                    }
+                }
+                promise.complete(pages);
+            }, false).toSingle());
+    }
+
+    /**
+     * Coalesces the synchronizations requested by successive imports into one.
+     */
+    private void requestSearchSync() {
+        vertx.cancelTimer(searchSyncTimer);
+        searchSyncTimer = vertx.setTimer(SEARCH_SYNC_DELAY_MS, id -> {
+            searchSyncTimer = -1;
+            if (searchSyncing) {
+                searchSyncRequested = true;
+            } else {
+                syncSearchIndex();
+            }
+        });
+    }
+
+    /**
+     * Indexes the stored row of a page after a write, or unindexes {@code removedId} when the page is gone. The write
+     * already succeeded, so failures are only logged: the next synchronization catches the page up.
+     */
+    private Completable reindex(Maybe<JsonArray> row, int removedId) {
+        return row
+            .doOnSuccess(page -> {
+                int id = page.getInteger(0);
+                long version = page.getLong(5);
+                String indexed = searchIndex.stamp(id);
+                // A concurrent write may have indexed a newer revision already
+                if (indexed == null || Long.parseLong(indexed.substring(0, indexed.indexOf('@'))) <= version) {
+                    searchIndex.put(IndexedPage.of(id, page.getString(1), stamp(version, page.getString(6)),
+                        page.getString(2)));
+                    searchIndexChanged(id);
+                }
+            })
+            .doOnComplete(() -> unindex(removedId))
+            .ignoreElement()
+            .doOnError(e -> LOGGER.error("Search index update error", e))
+            .onErrorComplete();
+    }
+
+    private void unindex(int id) {
+        if (searchIndex.remove(id)) {
+            searchIndexChanged(id);
+        }
+    }
+
+    private void searchIndexChanged(int id) {
+        searchIndexDirty = true;
+        if (searchSyncing) {
+            touchedDuringSync.add(id);
+        }
+    }
+
+    private static String stamp(long version, String updated) {
+        return version + "@" + updated;
+    }
+
+    private Single<JsonArray> renderForStorage(String markdown) {
+        if (!renderOnWrite) {
+            return Single.just(new JsonArray().addNull().addNull());
+        }
+        return vertx.<JsonArray>rxExecuteBlocking(promise -> promise.complete(new JsonArray()
+            .add(Markdown.render(markdown))
+            .add(Markdown.VERSION)), false)
+            .toSingle();
+    }
+
+    /**
+     * Runs {@code work} on a pooled connection once {@code admission} lets it, timing separately how long
+     * {@code operation} waited for the connection and how long it then held it.
+     */
+    private <T> Single<T> withConnection(Admission admission, String operation,
+                                         Function<SQLConnection, Single<T>> work) {
+        return admission.run(Single.defer(() -> {
+            long requested = System.nanoTime();
+            return dbClient.rxGetConnection().flatMap(conn -> {
+                long acquired = borrowed(operation, requested);
+                return work.apply(conn).doFinally(() -> released(operation, acquired, conn));
+            });
+        }));
+    }
+
+    private <T> Maybe<T> withConnectionMaybe(Admission admission, String operation,
+                                             Function<SQLConnection, Maybe<T>> work) {
+        return admission.run(Maybe.defer(() -> {
+            long requested = System.nanoTime();
+            return dbClient.rxGetConnection().flatMapMaybe(conn -> {
+                long acquired = borrowed(operation, requested);
+                return work.apply(conn).doFinally(() -> released(operation, acquired, conn));
+            });
+        }));
+    }
+
+    private long borrowed(String operation, long requested) {
+        long acquired = System.nanoTime();
+        poolWait.get(operation).record(acquired - requested);
+        connectionsInUse.increment();
+        return acquired;
+    }
+
+    private void released(String operation, long acquired, SQLConnection conn) {
+        queryTime.get(operation).recordSince(acquired);
+        connectionsInUse.decrement();
+        conn.close();
+    }
+
     @Override
     public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
-        dbClient.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES))
-            .map(rs -> new JsonArray(rs.getResults()
-                .stream()
-                .map(json -> json.getString(0))
-                .sorted()
-                .collect(Collectors.toList())))
+        withConnection(reads, "fetchAllPages", conn -> conn.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES)))
+            .map(rs -> pageNames(rs.getResults()))
             .doOnError(e -> LOGGER.error("Database query error", e))
             .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
@@ -55,80 +621,380 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
 
     @Override
     public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
-        dbClient.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES_DATA))
+        flushedSaves().andThen(withConnection(reads, "fetchAllPagesData", conn -> conn.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES_DATA))))
             .map(ResultSet::getRows)
             .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
+    @Override
+    public WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        JsonArray params = new JsonArray().add(after).add(limit);
+
+        withConnection(reads, "fetchPagesSummary",
+            conn -> conn.rxQueryWithParams(sqlQueries.get(SqlQuery.PAGES_SUMMARY_AFTER), params))
+            .map(rs -> rs.getResults()
+                .stream()
+                .map(WikiDatabaseServiceImpl::pageSummary)
+                .collect(Collectors.toList()))
+            .doOnError(e -> LOGGER.error("Database query error", e))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
     @Override
     public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
-        JsonArray params = new JsonArray().add(name);
+        pageByName(reads, name)
+            .flatMap(row -> {
+                int id = row.getInteger(0);
+                // The name only tells which page it is once read
+                return saves != null && saves.dirty(id)
+                    ? flushedSave(id).andThen(Maybe.defer(() -> pageByName(reads, name)))
+                    : Maybe.just(row);
+            })
+            .map(row -> new JsonObject()
+                .put("found", true)
+                .put("id", row.getInteger(0))
+                .put("rawContent", row.getString(2)))
+            .defaultIfEmpty(new JsonObject().put("found", false))
+            .doOnError(e -> LOGGER.error("Database query error", e))
+            .subscribe(MaybeHelper.toObserver(resultHandler));
+        return this;
+    }
 
-        dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE), params)
-            .map(rs -> {
-                JsonObject response = new JsonObject();
-                if (rs.getNumRows() == 0) {
-                    response.put("found", false);
-                } else {
-                    response.put("found", true);
-                    JsonArray row = rs.getResults().get(0);
-                    response.put("id", row.getInteger(0));
-                    response.put("rawContent", row.getString(1));
+    /**
+     * Completes once the saves of the page received so far are written, whether they succeeded or not.
+     */
+    private Completable flushedSave(int id) {
+        return saves != null ? saves.flush(id).onErrorComplete() : Completable.complete();
+    }
+
+    private Completable flushedSaves() {
+        return saves != null ? saves.flushAll().onErrorComplete() : Completable.complete();
+    }
+
+    /**
+     * Read-through lookups: cache hits complete without borrowing a JDBC connection. Callers reading pages that may
+     * have pending saves flush them first.
+     */
+    private Maybe<JsonArray> pageById(Admission admission, int id) {
+        if (cache.enabled()) {
+            JsonArray cached = cache.get(id);
+            if (cached != null) {
+                return Maybe.just(cached);
+            }
+        }
+        long generation = cache.generation();
+        return withConnectionMaybe(admission, "fetchPageById",
+            conn -> conn.rxQuerySingleWithParams(sqlQueries.get(SqlQuery.GET_PAGE_BY_ID), new JsonArray().add(id)))
+            .doOnSuccess(row -> cache.put(row, generation));
+    }
+
+    /**
+     * Concurrent cache misses for the same name share one query.
+     */
+    private Maybe<JsonArray> pageByName(Admission admission, String name) {
+        if (cache.enabled()) {
+            JsonArray cached = cache.get(name);
+            if (cached != null) {
+                return Maybe.just(cached);
+            }
+        }
+        return loadsByName.load(name, () -> {
+            long generation = cache.generation();
+            return withConnectionMaybe(admission, "fetchPage",
+                conn -> conn.rxQuerySingleWithParams(sqlQueries.get(SqlQuery.GET_PAGE), new JsonArray().add(name)))
+                .doOnSuccess(row -> cache.put(row, generation));
+        });
+    }
+
+    /**
+     * Drops the cached row of a page and makes later lookups start new loads rather than join those in flight, which
+     * may have read it before it changed. Name lookups are few, so all of them are dropped rather than tracked by id.
+     */
+    private void invalidate(int id) {
+        cache.invalidate(id);
+        loadsById.forget(id);
+        loadsByName.forgetAll();
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        flushedSave(id)
+            .andThen(loadsById.load(id, () -> pageDetailsById(id)))
+            .defaultIfEmpty(new JsonObject().put("found", false))
+            .doOnError(e -> LOGGER.error("Database query error", e))
+            .subscribe(MaybeHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Concurrent requests for the same page share one load and, when its stored HTML is stale, one render.
+     */
+    private Maybe<JsonObject> pageDetailsById(int id) {
+        return pageById(reads, id)
+            .flatMapSingleElement(row -> {
+                JsonObject response = pageDetails(row);
+                if (!renderOnWrite) {
+                    return Single.just(response);
                 }
-                return response;
-            })
+                if (Integer.valueOf(Markdown.VERSION).equals(row.getInteger(4))) {
+                    return Single.just(response.put("html", row.getString(3)));
+                }
+                // Stored HTML is missing or stale: render it now and store it unless a concurrent save got there first
+                return renderForStorage(row.getString(2))
+                    .flatMap(rendered -> withConnection(writes, "updatePageHtml", conn -> conn
+                        .rxUpdateWithParams(sqlQueries.get(SqlQuery.UPDATE_PAGE_HTML), rendered.copy()
+                            .add(id)
+                            .add(Markdown.VERSION)))
+                        // Same content, so loads in flight are not stale
+                        .doOnSuccess(result -> cache.invalidate(id))
+                        .ignoreElement()
+                        // Storing the HTML only spares later renders, so it is skipped rather than failing the read
+                        .onErrorComplete(ErrorCodes::isOverloaded)
+                        .andThen(Single.fromCallable(() -> response.put("html", rendered.getString(0)))));
+            });
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        List<Integer> keys = new ArrayList<>(new LinkedHashSet<>(ids));
+
+        Flowable.fromIterable(keys)
+            .concatMapCompletable(this::flushedSave)
+            .andThen(rowsByKeys(keys, cache::get, row -> row.getInteger(0), pagesByIdsQuery, "fetchPagesByIds"))
+            .map(this::batchDetails)
             .doOnError(e -> LOGGER.error("Database query error", e))
             .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
-    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
-        JsonArray params = new JsonArray().add(id);
+    public WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(names));
+        Single<List<JsonArray>> lookup = rowsByKeys(keys, cache::get, row -> row.getString(1), pagesByNamesQuery,
+            "fetchPagesByNames");
 
-        dbClient.rxQuerySingleWithParams(sqlQueries.get(SqlQuery.GET_PAGE_BY_ID), params)
-            .map(row -> {
-                JsonObject response = new JsonObject();
-                if (row == null) {
-                    response.put("found", false);
+        lookup
+            .flatMap(rows -> {
+                // Names only tell which pages are dirty once read, as in fetchPage
+                List<Integer> dirty = rows.stream()
+                    .map(row -> row.getInteger(0))
+                    .filter(id -> saves != null && saves.dirty(id))
+                    .collect(Collectors.toList());
+                return dirty.isEmpty()
+                    ? Single.just(rows)
+                    : Flowable.fromIterable(dirty).concatMapCompletable(this::flushedSave).andThen(lookup);
+            })
+            .map(this::batchDetails)
+            .doOnError(e -> LOGGER.error("Database query error", e))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Expands the {@code %s} of an {@code in (%s)} query to {@code size} parameters.
+     */
+    static String chunkQuery(String query, int size) {
+        return String.format(query, String.join(", ", Collections.nCopies(size, "?")));
+    }
+
+    /**
+     * Looks up the rows of distinct {@code keys} in the cache, then queries the others on one connection, a chunk of
+     * keys at a time. Every chunk runs the same statement, the last one being padded with its last key. The rows found
+     * are returned in the order of {@code keys}.
+     */
+    private <K> Single<List<JsonArray>> rowsByKeys(List<K> keys, Function<K, JsonArray> cached,
+                                                   Function<JsonArray, K> keyOf, String query, String operation) {
+        return Single.defer(() -> {
+            Map<K, JsonArray> rows = new HashMap<>();
+            List<K> missing = new ArrayList<>();
+            for (K key : keys) {
+                JsonArray row = cache.enabled() ? cached.apply(key) : null;
+                if (row != null) {
+                    rows.put(key, row);
                 } else {
-                    response.put("found", true);
-                    response.put("id", id);
-                    response.put("id", row.getInteger(0));
-                    response.put("name", row.getString(1));
-                    response.put("content", row.getString(2));
+                    missing.add(key);
                 }
-                return response;
+            }
+            if (missing.isEmpty()) {
+                return Single.just(inOrder(keys, rows));
+            }
+            long generation = cache.generation();
+            return withConnection(reads, operation, conn -> Flowable.fromIterable(chunks(missing))
+                .concatMapSingle(params -> conn.rxQueryWithParams(query, params))
+                .concatMapIterable(ResultSet::getResults)
+                .toList())
+                .map(found -> {
+                    for (JsonArray row : found) {
+                        cache.put(row, generation);
+                        rows.put(keyOf.apply(row), row);
+                    }
+                    return inOrder(keys, rows);
+                });
+        });
+    }
+
+    /**
+     * Splits {@code keys} into the parameters of successive chunked queries, the last chunk being padded with its last
+     * key.
+     */
+    private List<JsonArray> chunks(List<?> keys) {
+        List<JsonArray> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += batchChunkSize) {
+            JsonArray params = new JsonArray(
+                new ArrayList<>(keys.subList(from, Math.min(from + batchChunkSize, keys.size()))));
+            while (params.size() < batchChunkSize) {
+                params.add(params.getValue(params.size() - 1));
+            }
+            chunks.add(params);
+        }
+        return chunks;
+    }
+
+    private static <K> List<JsonArray> inOrder(List<K> keys, Map<K, JsonArray> rows) {
+        return keys.stream()
+            .map(rows::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps batch rows like {@link #pageDetails(JsonArray)}, adding the stored HTML when it is current. Stale HTML is
+     * not rendered here: a batch is served from one round of queries.
+     */
+    private List<JsonObject> batchDetails(List<JsonArray> rows) {
+        return rows.stream()
+            .map(row -> {
+                JsonObject page = pageDetails(row);
+                page.remove("found");
+                if (renderOnWrite && Integer.valueOf(Markdown.VERSION).equals(row.getInteger(4))) {
+                    page.put("html", row.getString(3));
+                }
+                return page;
             })
+            .collect(Collectors.toList());
+    }
+
+    static JsonArray pageNames(List<JsonArray> rows) {
+        return new JsonArray(rows
+            .stream()
+            .map(row -> row.getString(0))
+            .collect(Collectors.toList()));
+    }
+
+    static JsonObject pageSummary(JsonArray row) {
+        return new JsonObject()
+            .put("id", row.getInteger(0))
+            .put("name", row.getString(1));
+    }
+
+    /**
+     * Maps a {@code get-page-by-id} row, leaving out the stored HTML whose use depends on the renderer version.
+     */
+    static JsonObject pageDetails(JsonArray row) {
+        JsonObject response = new JsonObject();
+        response.put("found", true);
+        response.put("id", row.getInteger(0));
+        response.put("name", row.getString(1));
+        response.put("content", row.getString(2));
+        response.put("version", row.getLong(5));
+        response.put("updated", row.getString(6));
+        return response;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        Maybe<JsonArray> version = Maybe.defer(() -> {
+            JsonArray cached = cache.enabled() ? cache.get(id) : null;
+            return cached != null
+                ? Maybe.just(new JsonArray().add(cached.getLong(5)).add(cached.getString(6)))
+                : withConnectionMaybe(reads, "fetchPageVersion",
+                    conn -> conn.rxQuerySingleWithParams(sqlQueries.get(SqlQuery.GET_PAGE_VERSION), new JsonArray().add(id)));
+        });
+
+        flushedSave(id)
+            .andThen(version)
+            .map(row -> new JsonObject()
+                .put("found", true)
+                .put("version", row.getLong(0))
+                .put("updated", row.getString(1)))
+            .defaultIfEmpty(new JsonObject().put("found", false))
             .doOnError(e -> LOGGER.error("Database query error", e))
             .subscribe(MaybeHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
-    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler) {
-        JsonArray data = new JsonArray()
-            .add(title)
-            .add(markdown);
-
-        dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), data)
-            .ignoreElement()
+    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) {
+        renderForStorage(markdown)
+            .flatMap(rendered -> withConnection(writes, "createPage",
+                conn -> conn.rxUpdateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), new JsonArray()
+                    .add(title)
+                    .add(markdown)
+                    .addAll(rendered))))
+            // The identity column is the only generated key
+            .map(result -> result.getKeys().getInteger(0))
+            .doOnSuccess(id -> {
+                cache.invalidate(title);
+                loadsByName.forget(title);
+                announce(id);
+            })
             .doOnError(e -> LOGGER.error("Database update error", e))
-            .subscribe(CompletableHelper.toObserver(resultHandler));
+            .flatMap(id -> reindex(pageById(writes, id), -1).toSingleDefault(id))
+            .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
-    public WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) {
-        JsonArray data = new JsonArray()
-            .add(markdown)
-            .add(id);
+    public WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) {
+        (saves != null ? saves.save(id, markdown, client) : writePage(id, markdown, client))
+            .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
 
-        dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), data)
+    private Completable writePage(int id, String markdown, String client) {
+        return renderForStorage(markdown)
+            .flatMap(rendered -> withConnection(writes, "savePage",
+                conn -> conn.rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), new JsonArray()
+                    .add(markdown)
+                    .addAll(rendered)
+                    .add(id))))
             .ignoreElement()
+            .doOnComplete(() -> {
+                invalidate(id);
+                announce(id);
+            })
             .doOnError(e -> LOGGER.error("Database update error", e))
-            .subscribe(CompletableHelper.toObserver(resultHandler));
+            .andThen(Completable.defer(() -> {
+                Maybe<JsonArray> row = pageById(writes, id).cache();
+                return reindex(row, id).andThen(row
+                    .doOnSuccess(page -> vertx.eventBus().publish(PAGE_SAVED_ADDRESS, new JsonObject()
+                        .put("id", id)
+                        .put("version", page.getLong(5))
+                        .put("client", client)))
+                    .ignoreElement()
+                    .onErrorComplete());
+            }));
+    }
+
+    @Override
+    public WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) {
+        JsonArray data = new JsonArray().add(name).add(id);
+
+        withConnection(writes, "renamePage", conn -> conn.rxUpdateWithParams(sqlQueries.get(SqlQuery.RENAME_PAGE), data))
+            .map(result -> result.getUpdated() > 0)
+            .doOnSuccess(renamed -> {
+                invalidate(id);
+                if (renamed) {
+                    announce(id);
+                }
+            })
+            .doOnError(e -> LOGGER.error("Database update error", e))
+            .flatMap(renamed -> renamed
+                ? reindex(pageById(writes, id), id).toSingleDefault(true)
+                : Single.just(false))
+            .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
@@ -136,10 +1002,115 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
     public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
         JsonArray data = new JsonArray().add(id);
 
-        dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.DELETE_PAGE), data)
+        flushedSave(id)
+            .andThen(withConnection(writes, "deletePage",
+                conn -> conn.rxUpdateWithParams(sqlQueries.get(SqlQuery.DELETE_PAGE), data)))
             .ignoreElement()
+            .doOnComplete(() -> {
+                invalidate(id);
+                unindex(id);
+                announce(id);
+            })
             .doOnError(e -> LOGGER.error("Database update error", e))
             .subscribe(CompletableHelper.toObserver(resultHandler));
         return this;
     }
+
+    @Override
+    public WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) {
+        Single<List<JsonArray>> rows = renderOnWrite
+            ? vertx.<List<JsonArray>>rxExecuteBlocking(promise -> promise.complete(importRows(pages)), false).toSingle()
+            : Single.fromCallable(() -> importRows(pages));
+
+        rows
+            .flatMap(batch -> withConnection(writes, "importPages", conn -> conn
+                .rxBatchWithParams(sqlQueries.get(SqlQuery.IMPORT_PAGE), batch)
+                .flatMap(counts -> {
+                    JsonArray conflicts = new JsonArray();
+                    List<String> names = new ArrayList<>();
+                    for (int i = 0; i < counts.size(); i++) {
+                        if (counts.get(i) == 0) {
+                            conflicts.add(i);
+                        } else {
+                            names.add(pages.get(i).getString("name"));
+                        }
+                    }
+                    // The batch does not return generated keys, so the ids are read back before committing
+                    return Flowable.fromIterable(chunks(names))
+                        .concatMapSingle(params -> conn.rxQueryWithParams(pageIdsByNamesQuery, params))
+                        .concatMapIterable(ResultSet::getResults)
+                        .toMap(row -> row.getString(1), row -> row.getInteger(0))
+                        .map(ids -> new JsonObject()
+                            .put("imported", names.size())
+                            .put("pages", new JsonArray(names.stream()
+                                .map(name -> new JsonObject().put("id", ids.get(name)).put("name", name))
+                                .collect(Collectors.toList())))
+                            .put("conflicts", conflicts));
+                })
+                .compose(SQLClientHelper.txSingleTransformer(conn))))
+            .doOnSuccess(result -> {
+                requestSearchSync();
+                announce(null);
+            })
+            .doOnError(e -> LOGGER.error("Database import error", e))
+            .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    private List<JsonArray> importRows(List<JsonObject> pages) {
+        List<JsonArray> rows = new ArrayList<>(pages.size());
+        for (JsonObject page : pages) {
+            String markdown = page.getString("markdown");
+            JsonArray row = new JsonArray()
+                .add(page.getString("name"))
+                .add(markdown);
+            if (renderOnWrite) {
+                row.add(Markdown.render(markdown)).add(Markdown.VERSION);
+            } else {
+                row.addNull().addNull();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        long start = System.nanoTime();
+        List<JsonObject> hits = searchIndex.search(query, limit);
+        searchTime.recordSince(start);
+        resultHandler.handle(Future.succeededFuture(hits));
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) {
+        flushedSaves().andThen(reads.acquire()).subscribe(() -> {
+            Handler<AsyncResult<Integer>> done = ar -> {
+                reads.release();
+                resultHandler.handle(ar);
+            };
+            long requested = System.nanoTime();
+            dbClient.getDelegate().getConnection(connection -> {
+                poolWait.get("exportPages").recordSince(requested);
+                if (connection.failed()) {
+                    LOGGER.error("Database connection error", connection.cause());
+                    done.handle(Future.failedFuture(connection.cause()));
+                    return;
+                }
+                io.vertx.ext.sql.SQLConnection conn = connection.result().setOptions(exportOptions);
+                conn.queryStream(sqlQueries.get(SqlQuery.EXPORT_PAGES), query -> {
+                    if (query.failed()) {
+                        LOGGER.error("Database query error", query.cause());
+                        conn.close();
+                        done.handle(Future.failedFuture(query.cause()));
+                        return;
+                    }
+                    new PageExport(vertx.getDelegate().eventBus(), conn, query.result(), address, batchSize,
+                        exportDeliveryOptions, done).start();
+                });
+            });
+        }, e -> resultHandler.handle(Future.failedFuture(e)));
+        return this;
+    }
 }
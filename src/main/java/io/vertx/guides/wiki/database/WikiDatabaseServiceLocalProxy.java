@@ -0,0 +1,126 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.metrics.LabelledTimers;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link WikiDatabaseService} proxy for callers in the same JVM as the service, see {@link LocalDelivery}.
+ */
+class WikiDatabaseServiceLocalProxy implements WikiDatabaseService {
+
+    private final Vertx vertx;
+    private final String address;
+    private final DeliveryOptions options;
+    private final LabelledTimers roundTrip;
+
+    WikiDatabaseServiceLocalProxy(Vertx vertx, String serviceAddress, DeliveryOptions options) {
+        LocalDelivery.registerCodecs(vertx);
+        this.vertx = vertx;
+        this.address = LocalDelivery.address(serviceAddress);
+        this.options = options;
+        this.roundTrip = WikiMetrics.get(vertx).timers("wikidb.proxy.round_trip", "operation");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> WikiDatabaseService invoke(String operation,
+                                           BiConsumer<WikiDatabaseService, Handler<AsyncResult<T>>> invocation,
+                                           Handler<AsyncResult<T>> resultHandler) {
+        long start = System.nanoTime();
+        vertx.eventBus().<LocalDelivery.Reply>request(address, new LocalDelivery.Call(invocation), options, ar -> {
+            roundTrip.get(operation).recordSince(start);
+            if (ar.failed()) {
+                resultHandler.handle(Future.failedFuture(ar.cause()));
+            } else {
+                resultHandler.handle((AsyncResult<T>) ar.result().body().result);
+            }
+        });
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+        return invoke("fetchAllPages", WikiDatabaseService::fetchAllPages, resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return invoke("fetchAllPagesData", WikiDatabaseService::fetchAllPagesData, resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return invoke("fetchPagesSummary",
+            (service, handler) -> service.fetchPagesSummary(after, limit, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return invoke("fetchPage", (service, handler) -> service.fetchPage(name, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return invoke("fetchPageById", (service, handler) -> service.fetchPageById(id, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return invoke("fetchPagesByIds", (service, handler) -> service.fetchPagesByIds(ids, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return invoke("fetchPagesByNames", (service, handler) -> service.fetchPagesByNames(names, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return invoke("fetchPageVersion", (service, handler) -> service.fetchPageVersion(id, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) {
+        return invoke("createPage", (service, handler) -> service.createPage(title, markdown, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) {
+        return invoke("savePage", (service, handler) -> service.savePage(id, markdown, client, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) {
+        return invoke("renamePage", (service, handler) -> service.renamePage(id, name, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
+        return invoke("deletePage", (service, handler) -> service.deletePage(id, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) {
+        return invoke("importPages", (service, handler) -> service.importPages(pages, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) {
+        return invoke("exportPages",
+            (service, handler) -> service.exportPages(address, batchSize, handler), resultHandler);
+    }
+
+    @Override
+    public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        return invoke("searchPages", (service, handler) -> service.searchPages(query, limit, handler), resultHandler);
+    }
+}
@@ -0,0 +1,128 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link WikiDatabaseService} proxy for several {@link WikiDatabaseVerticle} instances, see
+ * {@link WikiDatabaseService#createRoutedProxy(Vertx, String, int, DeliveryOptions)}.
+ * <p>
+ * Reads and imports go to the address every instance serves, which the event bus hands to each instance in turn.
+ * Writes to a page go to the address of the instance owning its id, and creations to the one owning the hash of the
+ * name, so that successive writes to a page are applied by the same instance, in the order they were sent.
+ */
+class WikiDatabaseServiceRouter implements WikiDatabaseService {
+
+    private final WikiDatabaseService balanced;
+    private final List<WikiDatabaseService> owners;
+
+    WikiDatabaseServiceRouter(Vertx vertx, String address, int instances, DeliveryOptions options) {
+        this.balanced = WikiDatabaseService.createLocalProxy(vertx, address, options);
+        this.owners = IntStream.range(0, instances)
+            .mapToObj(instance -> WikiDatabaseService.createLocalProxy(vertx,
+                WikiDatabaseVerticle.instanceAddress(address, instance), options))
+            .collect(Collectors.toList());
+    }
+
+    private WikiDatabaseService owner(int id) {
+        return owners.get(Math.floorMod(id, owners.size()));
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+        balanced.fetchAllPages(resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        balanced.fetchAllPagesData(resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesSummary(int after, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        balanced.fetchPagesSummary(after, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+        balanced.fetchPage(name, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        balanced.fetchPageById(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        balanced.fetchPagesByIds(ids, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPagesByNames(List<String> names, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        balanced.fetchPagesByNames(names, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+        balanced.fetchPageVersion(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Integer>> resultHandler) {
+        owner(title.hashCode()).createPage(title, markdown, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService savePage(int id, String markdown, String client, Handler<AsyncResult<Void>> resultHandler) {
+        owner(id).savePage(id, markdown, client, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService renamePage(int id, String name, Handler<AsyncResult<Boolean>> resultHandler) {
+        owner(id).renamePage(id, name, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
+        owner(id).deletePage(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService importPages(List<JsonObject> pages, Handler<AsyncResult<JsonObject>> resultHandler) {
+        balanced.importPages(pages, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService exportPages(String address, int batchSize, Handler<AsyncResult<Integer>> resultHandler) {
+        balanced.exportPages(address, batchSize, resultHandler);
+        return this;
+    }
+
+    @Override
+    public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        balanced.searchPages(query, limit, resultHandler);
+        return this;
+    }
+}
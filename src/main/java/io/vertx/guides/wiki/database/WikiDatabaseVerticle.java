@@ -1,6 +1,8 @@
 package io.vertx.guides.wiki.database;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.jdbc.JDBCClient;
@@ -11,40 +13,159 @@ import org.slf4j.LoggerFactory;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 
 public class WikiDatabaseVerticle extends AbstractVerticle {
 
+    public static final String CONFIG_WIKIDB_BACKEND = "wikidb.backend";
     public static final String CONFIG_WIKIDB_JDBC_URL = "wikidb.jdbc.url";
     public static final String CONFIG_WIKIDB_JDBC_DRIVER_CLASS = "wikidb.jdbc.driver_class";
     public static final String CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE = "wikidb.jdbc.max_pool_size";
+    public static final String CONFIG_WIKIDB_SHARDS = "wikidb.shards";
+    public static final String CONFIG_WIKIDB_INSTANCES = "wikidb.instances";
+    public static final String CONFIG_WIKIDB_INSTANCE = "wikidb.instance";
     public static final String CONFIG_WIKIDB_SQL_QUERIES_RESOURCE_FILE = "wikidb.sqlqueries.resource.file";
+    public static final String CONFIG_WIKIDB_RENDER_ON_WRITE = "wikidb.render_on_write";
+    public static final String CONFIG_WIKIDB_RENDER_BATCH_SIZE = "wikidb.render_on_write.batch_size";
+    public static final String CONFIG_WIKIDB_EXPORT_FETCH_SIZE = "wikidb.export.fetch_size";
+    public static final String CONFIG_WIKIDB_EXPORT_ACK_TIMEOUT = "wikidb.export.ack_timeout_ms";
+    public static final String CONFIG_WIKIDB_CACHE_MAX_ENTRIES = "wikidb.cache.max_entries";
+    public static final String CONFIG_WIKIDB_CACHE_MAX_BYTES = "wikidb.cache.max_bytes";
+    public static final String CONFIG_WIKIDB_CACHE_TTL = "wikidb.cache.ttl_ms";
+    public static final String CONFIG_WIKIDB_SEARCH_INDEX_FILE = "wikidb.search.index_file";
+    public static final String CONFIG_WIKIDB_SEARCH_PERSIST_INTERVAL = "wikidb.search.persist_interval_ms";
+    public static final String CONFIG_WIKIDB_SEARCH_SYNC_BATCH_SIZE = "wikidb.search.sync_batch_size";
+    public static final String CONFIG_WIKIDB_SEARCH_SYNC_PARALLELISM = "wikidb.search.sync_parallelism";
+    public static final String CONFIG_WIKIDB_ADMISSION_READ_CONCURRENCY = "wikidb.admission.read.concurrency";
+    public static final String CONFIG_WIKIDB_ADMISSION_READ_QUEUE = "wikidb.admission.read.queue_size";
+    public static final String CONFIG_WIKIDB_ADMISSION_WRITE_CONCURRENCY = "wikidb.admission.write.concurrency";
+    public static final String CONFIG_WIKIDB_ADMISSION_WRITE_QUEUE = "wikidb.admission.write.queue_size";
+    public static final String CONFIG_WIKIDB_ADMISSION_BACKGROUND_CONCURRENCY = "wikidb.admission.background.concurrency";
+    public static final String CONFIG_WIKIDB_BATCH_CHUNK_SIZE = "wikidb.batch.chunk_size";
+    public static final String CONFIG_WIKIDB_WRITE_BEHIND_WINDOW = "wikidb.write_behind.window_ms";
+    public static final String CONFIG_WIKIDB_WRITE_BEHIND_DURABILITY = "wikidb.write_behind.durability";
+    public static final String CONFIG_WIKIDB_WRITE_BEHIND_JOURNAL_FILE = "wikidb.write_behind.journal_file";
+    public static final String CONFIG_WIKIDB_MAPPED_DIRECTORY = "wikidb.mapped.directory";
+    public static final String CONFIG_WIKIDB_MAPPED_SEGMENT_BYTES = "wikidb.mapped.segment_bytes";
+    public static final String CONFIG_WIKIDB_MAPPED_SYNC = "wikidb.mapped.sync";
+    public static final String CONFIG_WIKIDB_MAPPED_COMPACTION_RATIO = "wikidb.mapped.compaction.garbage_ratio";
+    public static final String CONFIG_WIKIDB_MAPPED_COMPACTION_INTERVAL = "wikidb.mapped.compaction.interval_ms";
+
+    static final String DEFAULT_JDBC_URL = "jdbc:hsqldb:file:db/wiki";
 
     public static final String CONFIG_WIKIDB_QUEUE = "wikidb.queue";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WikiDatabaseVerticle.class);
 
-    @Override
-    public void start(Promise<Void> promise) throws Exception {
-        Map<SqlQuery, String> sqlQueries = loadSqlQueries();
+    private Handler<Promise<Void>> close;
 
-        JDBCClient dbClient = JDBCClient.createShared(vertx, new JsonObject()
-            .put("url", config().getString(CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:file:db/wiki"))
-            .put("driver_class", config().getString(CONFIG_WIKIDB_JDBC_DRIVER_CLASS, "org.hsqldb.jdbcDriver"))
-            .put("max_pool_size", config().getInteger(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 30)));
+    /**
+     * One instance per two cores, or a single one when the configuration only supports one, see
+     * {@link #singleInstanceOnly(JsonObject)}.
+     */
+    public static int defaultInstances(JsonObject config) {
+        return singleInstanceOnly(config) ? 1 : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * The labels of a gauge computed from the state of one instance: the given ones, followed by an {@code instance}
+     * label when several instances run, as the gauges of every instance would otherwise share one name.
+     */
+    static String[] instanceLabels(JsonObject config, String... labels) {
+        if (config.getInteger(CONFIG_WIKIDB_INSTANCES, 1) <= 1) {
+            return labels;
+        }
+        String[] withInstance = Arrays.copyOf(labels, labels.length + 2);
+        withInstance[labels.length] = "instance";
+        withInstance[labels.length + 1] = String.valueOf(config.getInteger(CONFIG_WIKIDB_INSTANCE, 0));
+        return withInstance;
+    }
+
+    /**
+     * Whether the configuration keeps state that other instances would not see: the memory-mapped store, whose files
+     * a single writer may append to, or saves pending write-behind, which reads served by other instances would miss.
+     */
+    static boolean singleInstanceOnly(JsonObject config) {
+        return "mapped".equals(config.getString(CONFIG_WIKIDB_BACKEND, "jdbc"))
+            || config.getLong(CONFIG_WIKIDB_WRITE_BEHIND_WINDOW, 0L) > 0;
+    }
+
+    /**
+     * The address the instance of index {@code instance} also serves, besides the one shared by all instances, for
+     * the writes to the pages it owns. See {@link WikiDatabaseService#createRoutedProxy}.
+     */
+    static String instanceAddress(String address, int instance) {
+        return address + "." + instance;
+    }
+
+    /**
+     * Shared JDBC clients of the same data source share their pool, so every instance names its own.
+     */
+    static String dataSourceName(JsonObject config) {
+        return "wikidb." + config.getInteger(CONFIG_WIKIDB_INSTANCE, 0);
+    }
 
-        WikiDatabaseService.create(dbClient, sqlQueries, ready -> {
+    @Override
+    public void start(Promise<Void> promise) throws Exception {
+        int instances = config().getInteger(CONFIG_WIKIDB_INSTANCES, 1);
+        if (instances > 1 && singleInstanceOnly(config())) {
+            throw new IllegalArgumentException("The memory-mapped backend and write-behind need a single instance");
+        }
+        Handler<AsyncResult<WikiDatabaseService>> readyHandler = ready -> {
             if (ready.succeeded()) {
                 ServiceBinder binder = new ServiceBinder(vertx);
                 binder.setAddress(CONFIG_WIKIDB_QUEUE).register(WikiDatabaseService.class, ready.result());
+                LocalDelivery.bind(vertx, CONFIG_WIKIDB_QUEUE, ready.result());
+                if (instances > 1) {
+                    String address = instanceAddress(CONFIG_WIKIDB_QUEUE, config().getInteger(CONFIG_WIKIDB_INSTANCE, 0));
+                    binder.setAddress(address).register(WikiDatabaseService.class, ready.result());
+                    LocalDelivery.bind(vertx, address, ready.result());
+                }
                 promise.complete();
             } else {
                 LOGGER.error("Database init error", ready.cause());
                 promise.fail(ready.cause());
             }
-        });
+        };
+
+        String backend = config().getString(CONFIG_WIKIDB_BACKEND, "jdbc");
+        switch (backend) {
+            case "jdbc": {
+                Map<SqlQuery, String> sqlQueries = loadSqlQueries();
+
+                int shards = config().getInteger(CONFIG_WIKIDB_SHARDS, 1);
+                if (shards < 1) {
+                    throw new IllegalArgumentException("Invalid number of shards " + shards);
+                }
+                if (shards == 1) {
+                    JDBCClient dbClient = JDBCClient.createShared(vertx, jdbcConfig(config()), dataSourceName(config()));
+                    close = new WikiDatabaseServiceImpl(vertx, dbClient, sqlQueries, config(), readyHandler)::close;
+                } else {
+                    close = new ShardedWikiDatabaseService(vertx, shards, sqlQueries, config(), readyHandler)::close;
+                }
+                break;
+            }
+            case "mapped":
+                close = new MappedWikiDatabaseService(vertx, config(), readyHandler)::close;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown database backend " + backend);
+        }
+    }
+
+    @Override
+    public void stop(Promise<Void> promise) {
+        close.handle(promise);
+    }
+
+    static JsonObject jdbcConfig(JsonObject config) {
+        return new JsonObject()
+            .put("url", config.getString(CONFIG_WIKIDB_JDBC_URL, DEFAULT_JDBC_URL))
+            .put("driver_class", config.getString(CONFIG_WIKIDB_JDBC_DRIVER_CLASS, "org.hsqldb.jdbcDriver"))
+            .put("max_pool_size", config.getInteger(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 30));
     }
 
     private Map<SqlQuery, String> loadSqlQueries() throws IOException {
@@ -63,13 +184,35 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
         Map<SqlQuery, String> sqlQueries = new HashMap<>();
 
         sqlQueries.put(SqlQuery.CREATE_PAGES_TABLE, queriesProps.getProperty("create-pages-table"));
+        sqlQueries.put(SqlQuery.CREATE_SHARDED_PAGES_TABLE, queriesProps.getProperty("create-sharded-pages-table"));
+        sqlQueries.put(SqlQuery.PAGES_COLUMNS, queriesProps.getProperty("pages-columns"));
+        sqlQueries.put(SqlQuery.ADD_HTML_COLUMN, queriesProps.getProperty("add-html-column"));
+        sqlQueries.put(SqlQuery.ADD_HTML_VERSION_COLUMN, queriesProps.getProperty("add-html-version-column"));
+        sqlQueries.put(SqlQuery.ADD_VERSION_COLUMN, queriesProps.getProperty("add-version-column"));
+        sqlQueries.put(SqlQuery.ADD_UPDATED_COLUMN, queriesProps.getProperty("add-updated-column"));
         sqlQueries.put(SqlQuery.ALL_PAGES, queriesProps.getProperty("all-pages"));
         sqlQueries.put(SqlQuery.ALL_PAGES_DATA, queriesProps.getProperty("all-pages-data"));
+        sqlQueries.put(SqlQuery.PAGES_SUMMARY_AFTER, queriesProps.getProperty("pages-summary-after"));
         sqlQueries.put(SqlQuery.GET_PAGE, queriesProps.getProperty("get-page"));
         sqlQueries.put(SqlQuery.GET_PAGE_BY_ID, queriesProps.getProperty("get-page-by-id"));
+        sqlQueries.put(SqlQuery.GET_PAGES_BY_IDS, queriesProps.getProperty("get-pages-by-ids"));
+        sqlQueries.put(SqlQuery.GET_PAGES_BY_NAMES, queriesProps.getProperty("get-pages-by-names"));
+        sqlQueries.put(SqlQuery.GET_PAGE_IDS_BY_NAMES, queriesProps.getProperty("get-page-ids-by-names"));
+        sqlQueries.put(SqlQuery.GET_PAGE_VERSION, queriesProps.getProperty("get-page-version"));
         sqlQueries.put(SqlQuery.CREATE_PAGE, queriesProps.getProperty("create-page"));
         sqlQueries.put(SqlQuery.SAVE_PAGE, queriesProps.getProperty("save-page"));
+        sqlQueries.put(SqlQuery.RENAME_PAGE, queriesProps.getProperty("rename-page"));
         sqlQueries.put(SqlQuery.DELETE_PAGE, queriesProps.getProperty("delete-page"));
+        sqlQueries.put(SqlQuery.PAGES_NEEDING_RENDER, queriesProps.getProperty("pages-needing-render"));
+        sqlQueries.put(SqlQuery.UPDATE_PAGE_HTML, queriesProps.getProperty("update-page-html"));
+        sqlQueries.put(SqlQuery.EXPORT_PAGES, queriesProps.getProperty("export-pages"));
+        sqlQueries.put(SqlQuery.IMPORT_PAGE, queriesProps.getProperty("import-page"));
+        sqlQueries.put(SqlQuery.PAGE_STAMPS, queriesProps.getProperty("page-stamps"));
+        sqlQueries.put(SqlQuery.PAGES_TO_INDEX, queriesProps.getProperty("pages-to-index"));
+        sqlQueries.put(SqlQuery.CREATE_PAGE_NAMES_TABLE, queriesProps.getProperty("create-page-names-table"));
+        sqlQueries.put(SqlQuery.PAGE_NAMES, queriesProps.getProperty("page-names"));
+        sqlQueries.put(SqlQuery.CLAIM_PAGE_NAME, queriesProps.getProperty("claim-page-name"));
+        sqlQueries.put(SqlQuery.RELEASE_PAGE_NAME, queriesProps.getProperty("release-page-name"));
 
         return sqlQueries;
     }
@@ -0,0 +1,127 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step producing the production web assets served by {@link StaticAssets}, run by Maven in the
+ * {@code process-classes} phase.
+ * <p>
+ * Every file but the HTML entry points gets a content hash in its name, and references to it from the HTML files are
+ * rewritten, so that browsers may cache it forever. A maximally gzipped {@code .gz} variant is written next to each
+ * file it makes smaller, and {@value StaticAssets#MANIFEST} maps the names requests use to the files to send.
+ */
+public final class AssetPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssetPipeline.class);
+
+    private AssetPipeline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: AssetPipeline <source directory> <output directory>");
+        }
+        Path source = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        JsonObject manifest = build(source, output);
+        LOGGER.info("Built " + manifest.size() + " web assets into " + output);
+    }
+
+    static JsonObject build(Path source, Path output) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Map<String, String> fingerprinted = new LinkedHashMap<>();
+        List<String> entryPoints = new ArrayList<>();
+        for (Path file : files) {
+            String name = source.relativize(file).toString().replace('\\', '/');
+            if (name.endsWith(".html")) {
+                entryPoints.add(name);
+            } else {
+                fingerprinted.put(name, fingerprint(name, Files.readAllBytes(file)));
+            }
+        }
+
+        JsonObject manifest = new JsonObject();
+        for (Map.Entry<String, String> asset : fingerprinted.entrySet()) {
+            byte[] content = Files.readAllBytes(source.resolve(asset.getKey()));
+            manifest.put(asset.getKey(), write(output, asset.getValue(), content, true));
+        }
+        for (String name : entryPoints) {
+            String html = new String(Files.readAllBytes(source.resolve(name)), StandardCharsets.UTF_8);
+            for (Map.Entry<String, String> asset : fingerprinted.entrySet()) {
+                html = html.replace("/app/" + asset.getKey() + "\"", "/app/" + asset.getValue() + "\"");
+            }
+            manifest.put(name, write(output, name, html.getBytes(StandardCharsets.UTF_8), false));
+        }
+        Files.write(output.resolve(StaticAssets.MANIFEST), manifest.encodePrettily().getBytes(StandardCharsets.UTF_8));
+        return manifest;
+    }
+
+    private static JsonObject write(Path output, String name, byte[] content, boolean immutable) throws IOException {
+        Path file = output.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        byte[] gzipped = gzip(content);
+        boolean gzip = gzipped.length < content.length;
+        if (gzip) {
+            Files.write(output.resolve(name + ".gz"), gzipped);
+        }
+        return new JsonObject()
+            .put("file", name)
+            .put("etag", "\"" + hash(content).substring(0, 16) + "\"")
+            .put("immutable", immutable)
+            .put("gzip", gzip);
+    }
+
+    private static String fingerprint(String name, byte[] content) {
+        int dot = name.lastIndexOf('.');
+        int slash = name.lastIndexOf('/');
+        String hash = hash(content).substring(0, 10);
+        return dot > slash ? name.substring(0, dot) + "." + hash + name.substring(dot) : name + "." + hash;
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+        return gzipped.toByteArray();
+    }
+}
@@ -0,0 +1,94 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.guides.wiki.render.Markdown;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Validators for conditional GET requests ({@code ETag}/{@code If-None-Match} and
+ * {@code Last-Modified}/{@code If-Modified-Since}).
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * A page representation is fully determined by its row version and the renderer producing its HTML.
+     */
+    static String pageETag(int id, long version) {
+        return "\"" + id + "-" + version + "-r" + Markdown.VERSION + "\"";
+    }
+
+    static String contentETag(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(body.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The strong validator of the gzipped representation whose identity one has {@code etag}, as both differ byte for
+     * byte.
+     */
+    static String gzipETag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Weak comparison, as required for {@code If-None-Match}, against both the identity and the gzipped
+     * representations.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        return matches(ifNoneMatch, etag, true);
+    }
+
+    /**
+     * Whether {@code If-None-Match} lists the validator of the gzipped representation, which a {@code 304} must then
+     * send back.
+     */
+    static boolean matchesGzip(String ifNoneMatch, String etag) {
+        return matches(ifNoneMatch, gzipETag(etag), false);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag, boolean anyEncoding) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || (anyEncoding && (tag.equals("*") || tag.equals(gzipETag(etag))))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+
+    static boolean notModifiedSince(String ifModifiedSince, Instant lastModified) {
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            Instant since = DateTimeFormatter.RFC_1123_DATE_TIME.parse(ifModifiedSince, Instant::from);
+            return lastModified.getEpochSecond() <= since.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
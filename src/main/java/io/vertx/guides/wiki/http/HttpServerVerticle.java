@@ -1,23 +1,48 @@
 package io.vertx.guides.wiki.http;
 
-import com.github.rjeschke.txtmark.Processor;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.bridge.PermittedOptions;
 import io.vertx.ext.web.handler.sockjs.BridgeOptions;
+import io.vertx.guides.wiki.SingleFlight;
+import io.vertx.guides.wiki.database.ErrorCodes;
 import io.vertx.guides.wiki.database.reactivex.WikiDatabaseService;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.guides.wiki.render.RenderClient;
 import io.vertx.reactivex.core.AbstractVerticle;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.core.eventbus.Message;
+import io.vertx.reactivex.core.eventbus.MessageConsumer;
 import io.vertx.reactivex.core.http.HttpServer;
+import io.vertx.reactivex.core.http.HttpServerResponse;
+import io.vertx.reactivex.core.parsetools.RecordParser;
 import io.vertx.reactivex.ext.web.Router;
 import io.vertx.reactivex.ext.web.RoutingContext;
 import io.vertx.reactivex.ext.web.handler.BodyHandler;
 import io.vertx.reactivex.ext.web.handler.StaticHandler;
+import io.vertx.reactivex.ext.web.handler.sockjs.BridgeEvent;
 import io.vertx.reactivex.ext.web.handler.sockjs.SockJSHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 public class HttpServerVerticle extends AbstractVerticle {
@@ -25,32 +50,117 @@ public class HttpServerVerticle extends AbstractVerticle {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpServerVerticle.class);
 
     public static final String CONFIG_HTTP_SERVER_PORT = "http.server.port";
+    public static final String CONFIG_HTTP_SERVER_INSTANCES = "http.server.instances";
     public static final String CONFIG_WIKIDB_QUEUE = "wikidb.queue";
+    public static final String CONFIG_WIKIDB_INSTANCES = "wikidb.instances";
+    public static final String CONFIG_HTTP_RENDER_CACHE_MAX_BYTES = "http.render_cache.max_bytes";
+    public static final String CONFIG_HTTP_RENDER_INLINE_THRESHOLD = "http.render.inline_threshold";
+    public static final String CONFIG_RENDER_QUEUE = "render.queue";
+    public static final String CONFIG_HTTP_EXPORT_BATCH_SIZE = "http.export.batch_size";
+    public static final String CONFIG_HTTP_EXPORT_TIMEOUT = "http.export.timeout_ms";
+    public static final String CONFIG_HTTP_IMPORT_BATCH_SIZE = "http.import.batch_size";
+    public static final String CONFIG_HTTP_IMPORT_MAX_LINE_BYTES = "http.import.max_line_bytes";
+    public static final String CONFIG_HTTP_COMPRESSION_LEVEL = "http.compression.level";
+    public static final String CONFIG_HTTP_COMPRESSION_MIN_BYTES = "http.compression.min_bytes";
+    public static final String CONFIG_HTTP_ASSETS_MODE = "http.assets.mode";
+    public static final String CONFIG_HTTP_PAGE_CHANGES_CAPACITY = "http.page_changes.capacity";
+    public static final String CONFIG_HTTP_PAGE_SAVED_BATCH = "http.page_saved.batch_ms";
+    public static final String CONFIG_HTTP_PAGES_LIMIT = "http.pages.limit";
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int BATCH_RENDER_CONCURRENCY = 8;
 
     private WikiDatabaseService dbService;
+    private WikiDatabaseService exportDbService;
+    private RenderedPageCache renderCache;
+    private RenderClient renderClient;
+    private ResponseCompression compression;
+    private StaticAssets staticAssets;
+    private PageChanges pageChanges;
+    private SaveNotifications saveNotifications;
+    private SingleFlight<Integer, LoadedPage> pageLoads;
+    private int pagesLimit;
 
     @Override
     public void start(Promise<Void> promise) {
         String wikiDbQueue = config().getString(CONFIG_WIKIDB_QUEUE, CONFIG_WIKIDB_QUEUE);
+        int wikiDbInstances = config().getInteger(CONFIG_WIKIDB_INSTANCES, 1);
         dbService = WikiDatabaseService
             .newInstance(io.vertx.guides.wiki.database.WikiDatabaseService
-                .createProxy(vertx.getDelegate(), wikiDbQueue));
+                .createRoutedProxy(vertx.getDelegate(), wikiDbQueue, wikiDbInstances, new DeliveryOptions()));
+        // An export only completes once every page has been streamed, far beyond the default reply timeout
+        exportDbService = WikiDatabaseService
+            .newInstance(io.vertx.guides.wiki.database.WikiDatabaseService
+                .createRoutedProxy(vertx.getDelegate(), wikiDbQueue, wikiDbInstances, new DeliveryOptions()
+                    .setSendTimeout(config().getLong(CONFIG_HTTP_EXPORT_TIMEOUT, 3_600_000L))));
+        renderCache = RenderedPageCache.get(vertx.getDelegate(),
+            config().getLong(CONFIG_HTTP_RENDER_CACHE_MAX_BYTES, 32L * 1024 * 1024));
+        renderClient = new RenderClient(vertx,
+            config().getString(CONFIG_RENDER_QUEUE, CONFIG_RENDER_QUEUE),
+            config().getInteger(CONFIG_HTTP_RENDER_INLINE_THRESHOLD, 16 * 1024));
+        saveNotifications = SaveNotifications.get(vertx.getDelegate(), config().getLong(CONFIG_HTTP_PAGE_SAVED_BATCH, 0L));
+        pageChanges = PageChanges.get(vertx.getDelegate(), config().getInteger(CONFIG_HTTP_PAGE_CHANGES_CAPACITY, 1024));
+        pagesLimit = config().getInteger(CONFIG_HTTP_PAGES_LIMIT, 100);
+
+        WikiMetrics metrics = WikiMetrics.get(vertx.getDelegate());
+        pageLoads = new SingleFlight<>(metrics.counter("http.page_loads.coalesced"));
+        int compressionLevel = config().getInteger(CONFIG_HTTP_COMPRESSION_LEVEL, 6);
+        int compressionMinBytes = config().getInteger(CONFIG_HTTP_COMPRESSION_MIN_BYTES, 1024);
+        if ("production".equals(config().getString(CONFIG_HTTP_ASSETS_MODE, "production"))) {
+            staticAssets = StaticAssets.load(vertx, "webroot-dist");
+            if (staticAssets == null) {
+                LOGGER.warn("No built assets found in webroot-dist, serving webroot in development mode");
+            }
+        }
+        // Production assets are precompressed, so the server compressor, which prevents zero-copy sendFile, stays off
+        compression = new ResponseCompression(compressionLevel, compressionMinBytes, staticAssets == null, metrics);
 
-        HttpServer server = vertx.createHttpServer();
+        HttpServer server = vertx.createHttpServer(new HttpServerOptions()
+            .setCompressionSupported(compression.serverCompression())
+            .setCompressionLevel(Math.max(1, compressionLevel)));
 
         Router router = Router.router(vertx);
-        router.route().handler(BodyHandler.create());
+        router.route().handler(compression::skipSmallResponses);
+        router.route("/api/pages").handler(instrumented(metrics, "/api/pages"));
+        router.route("/api/pages/changes").handler(instrumented(metrics, "/api/pages/changes"));
+        router.route("/api/pages/batch").handler(instrumented(metrics, "/api/pages/batch"));
+        router.routeWithRegex("/api/pages/[0-9]+").handler(instrumented(metrics, "/api/pages/:id"));
+        router.route("/api/search").handler(instrumented(metrics, "/api/search"));
+        router.route("/app/markdown").handler(instrumented(metrics, "/app/markdown"));
+        router.get("/metrics").handler(this::prometheusMetrics);
 
         SockJSHandler sockJSHandler = SockJSHandler.create(vertx);
         BridgeOptions bridgeOptions = new BridgeOptions()
             .addInboundPermitted(new PermittedOptions().setAddress("app.markdown"))
-            .addOutboundPermitted(new PermittedOptions().setAddress("page.saved"));
-        sockJSHandler.bridge(bridgeOptions);
+            .addOutboundPermitted(new PermittedOptions().setAddressRegex("page\\.saved\\.[0-9]+"))
+            .addOutboundPermitted(new PermittedOptions().setAddress("page." + PageChanges.CREATED))
+            .addOutboundPermitted(new PermittedOptions().setAddress("page." + PageChanges.RENAMED))
+            .addOutboundPermitted(new PermittedOptions().setAddress("page." + PageChanges.DELETED));
+        sockJSHandler.bridge(bridgeOptions, bridgeMetrics(metrics, saveNotifications));
         router.route("/eventbus/*").handler(sockJSHandler);
 
+        Timer markdownLatency = metrics.timer("http.eventbus.request", "address", "app.markdown");
+        LongAdder markdownInFlight = metrics.gauge("http.eventbus.in_flight", "address", "app.markdown");
         vertx.eventBus().<String>consumer("app.markdown", msg -> {
-            String html = Processor.process(msg.body());
-            msg.reply(html);
+            long start = System.nanoTime();
+            markdownInFlight.increment();
+            renderClient.rxRender(msg.body())
+                .doFinally(() -> {
+                    markdownInFlight.decrement();
+                    markdownLatency.recordSince(start);
+                })
+                .subscribe(
+                    msg::reply,
+                    t -> msg.fail(RenderClient.isQueueFull(t) ? 503 : 500, t.getMessage()));
+        });
+
+        vertx.eventBus().<JsonObject>consumer("page.saved", msg -> {
+            renderCache.invalidate(msg.body().getInteger("id"));
+            pageLoads.forget(msg.body().getInteger("id"));
+            saveNotifications.saved(msg.body());
         });
 
         router.mountSubRouter("/api", apiRouter());
@@ -71,72 +181,399 @@ public class HttpServerVerticle extends AbstractVerticle {
             });
     }
 
+    /**
+     * Times requests to {@code route} until their response body is written, or their connection is closed first, and
+     * tracks how many are in flight.
+     */
+    private static Handler<RoutingContext> instrumented(WikiMetrics metrics, String route) {
+        Timer latency = metrics.timer("http.requests", "route", route);
+        LongAdder inFlight = metrics.gauge("http.requests.in_flight", "route", route);
+        return context -> {
+            long start = System.nanoTime();
+            inFlight.increment();
+            AtomicBoolean finished = new AtomicBoolean();
+            Handler<Void> finish = v -> {
+                if (finished.compareAndSet(false, true)) {
+                    inFlight.decrement();
+                    latency.recordSince(start);
+                }
+            };
+            context.addBodyEndHandler(finish);
+            context.response().closeHandler(finish);
+            context.next();
+        };
+    }
+
+    /**
+     * SockJS connections are long-lived, so the bridge is measured by open sockets and message counts rather than
+     * per-request latency. Subscriptions to per-page save notifications are tracked along.
+     */
+    private static Handler<BridgeEvent> bridgeMetrics(WikiMetrics metrics, SaveNotifications saveNotifications) {
+        LongAdder sockets = metrics.gauge("http.eventbus.sockets");
+        LongAdder sent = metrics.counter("http.eventbus.messages", "type", "send");
+        LongAdder published = metrics.counter("http.eventbus.messages", "type", "publish");
+        LongAdder received = metrics.counter("http.eventbus.messages", "type", "receive");
+        return event -> {
+            switch (event.type()) {
+                case SOCKET_CREATED:
+                    sockets.increment();
+                    break;
+                case SOCKET_CLOSED:
+                    sockets.decrement();
+                    saveNotifications.closed(event.socket().writeHandlerID());
+                    break;
+                case REGISTER:
+                    saveNotifications.subscribed(event.socket().writeHandlerID(),
+                        event.getRawMessage().getString("address"));
+                    break;
+                case UNREGISTER:
+                    saveNotifications.unsubscribed(event.socket().writeHandlerID(),
+                        event.getRawMessage().getString("address"));
+                    break;
+                case SEND:
+                    sent.increment();
+                    break;
+                case PUBLISH:
+                    published.increment();
+                    break;
+                case RECEIVE:
+                    received.increment();
+                    break;
+                default:
+                    break;
+            }
+            event.complete(true);
+        };
+    }
+
     private Router apiRouter() {
         Router router = Router.router(vertx);
         router.get("/pages").handler(this::apiRoot);
+        router.get("/pages/changes").handler(this::apiPageChanges);
+        router.get("/pages/batch").handler(this::apiGetPages);
         router.get("/pages/:id").handler(this::apiGetPage);
+        router.get("/search").handler(this::apiSearch);
+        // Registered ahead of the body handler: imports are parsed as they arrive instead of being buffered
+        router.post("/import").handler(this::apiImport);
         router.post().handler(BodyHandler.create());
         router.post("/pages").handler(this::apiCreatePage);
         router.put().handler(BodyHandler.create());
         router.put("/pages/:id").handler(this::apiUpdatePage);
+        router.put("/pages/:id/name").handler(this::apiRenamePage);
         router.delete("/pages/:id").handler(this::apiDeletePage);
+        router.get("/metrics").handler(this::apiMetrics);
+        router.get("/export").handler(this::apiExport);
         return router;
     }
 
     private Router appRouter() {
         Router router = Router.router(vertx);
-        router.get("/*").handler(StaticHandler.create().setCachingEnabled(false));
-        router.post("/markdown").handler(context -> {
-            String html = Processor.process(context.getBodyAsString());
-            context.response()
+        if (staticAssets != null) {
+            router.get("/*").handler(context -> staticAssets.handle(context, compression.accepted(context)));
+        } else {
+            router.get("/*").handler(StaticHandler.create().setCachingEnabled(false));
+        }
+        router.post("/markdown").handler(BodyHandler.create());
+        router.post("/markdown").handler(context -> renderClient.rxRender(context.getBodyAsString()).subscribe(
+            html -> context.response()
                 .putHeader("Content-Type", "text/html")
                 .setStatusCode(200)
-                .end(html);
-        });
+                .end(html),
+            t -> {
+                if (RenderClient.isQueueFull(t)) {
+                    context.response().putHeader("Retry-After", RETRY_AFTER_SECONDS);
+                }
+                context.response()
+                    .setStatusCode(RenderClient.isQueueFull(t) ? 503 : 500)
+                    .end();
+            }));
         return router;
     }
 
     private void apiRoot(RoutingContext context) {
-        dbService.rxFetchAllPagesData().subscribe(
-            reply -> {
-                List<JsonObject> pages = reply
-                    .stream()
-                    .map(obj -> new JsonObject()
-                        .put("id", obj.getInteger("ID"))
-                        .put("name", obj.getString("NAME")))
-                    .collect(Collectors.toList());
-
-                apiResponse(context, 200, "pages", pages);
+        Integer after = intParam(context, "after", -1);
+        Integer requested = intParam(context, "limit", pagesLimit);
+        if (after == null || requested == null || requested <= 0) {
+            apiFailure(context, 400, "Invalid pagination parameters");
+            return;
+        }
+        int limit = Math.min(requested, pagesLimit);
+        // Read first, so that replaying the changes since then over the listing can only repeat some
+        long seq = pageChanges.seq();
+        dbService.rxFetchPagesSummary(after, limit).subscribe(
+            pages -> {
+                String body = pagesListing(pages, limit).put("seq", seq).encode();
+                String etag = ConditionalRequests.contentETag(body);
+                context.response().putHeader("ETag", etag);
+                String ifNoneMatch = context.request().getHeader("If-None-Match");
+                if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+                    notModified(context, ifNoneMatch, etag);
+                    return;
+                }
+                context.response().setStatusCode(200);
+                context.response().putHeader("Content-Type", "application/json");
+                compression.end(context, body);
             },
             e -> apiFailure(context, e));
     }
 
+    /**
+     * A page of the listing, with the cursor of the next page when this one is full.
+     */
+    static JsonObject pagesListing(List<JsonObject> pages, int limit) {
+        JsonObject wrapped = new JsonObject()
+            .put("success", true)
+            .put("pages", pages);
+        if (pages.size() == limit) {
+            wrapped.put("next", pages.get(pages.size() - 1).getInteger("id"));
+        }
+        return wrapped;
+    }
+
+    /**
+     * The page list changes since the {@code since} sequence number, or {@code 410} when they are no longer all known
+     * and the client must reload the listing.
+     */
+    private void apiPageChanges(RoutingContext context) {
+        String since = context.request().getParam("since");
+        long seq;
+        try {
+            seq = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            apiFailure(context, 400, "Invalid since parameter");
+            return;
+        }
+        List<JsonObject> changes = pageChanges.since(seq);
+        if (changes == null) {
+            apiFailure(context, 410, "Changes since " + seq + " are no longer available, reload the page list");
+            return;
+        }
+        context.response().setStatusCode(200);
+        context.response().putHeader("Content-Type", "application/json");
+        compression.end(context, new JsonObject()
+            .put("success", true)
+            .put("seq", changes.isEmpty() ? seq : changes.get(changes.size() - 1).getLong("seq"))
+            .put("changes", changes)
+            .encode());
+    }
+
+    private Integer intParam(RoutingContext context, String name, int defaultValue) {
+        String value = context.request().getParam(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void apiSearch(RoutingContext context) {
+        String query = context.request().getParam("q");
+        Integer limit = intParam(context, "limit", DEFAULT_SEARCH_LIMIT);
+        if (query == null || query.trim().isEmpty() || limit == null || limit <= 0) {
+            apiFailure(context, 400, "Invalid search parameters");
+            return;
+        }
+        dbService.rxSearchPages(query, Math.min(limit, MAX_SEARCH_LIMIT)).subscribe(
+            hits -> apiResponse(context, 200, "results", hits),
+            e -> apiFailure(context, e));
+    }
+
     private void apiGetPage(RoutingContext context) {
         int id = Integer.parseInt(context.request().getParam("id"));
-        dbService.rxFetchPageById(id).subscribe(
-            obj -> {
-                if (obj.getBoolean("found")) {
-                    JsonObject payload = new JsonObject()
-                        .put("name", obj.getString("name"))
-                        .put("id", obj.getInteger("id"))
-                        .put("markdown", obj.getString("content"))
-                        .put("html", Processor.process(obj.getString("content")));
-
-                    apiResponse(context, 200, "page", payload);
-                } else {
+        String ifNoneMatch = context.request().getHeader("If-None-Match");
+        String ifModifiedSince = context.request().getHeader("If-Modified-Since");
+        if (ifNoneMatch == null && ifModifiedSince == null) {
+            sendPage(context, id);
+            return;
+        }
+        // Revalidation only needs the row version, so the content is neither loaded nor rendered for a 304
+        dbService.rxFetchPageVersion(id).subscribe(
+            version -> {
+                if (!version.getBoolean("found")) {
                     apiFailure(context, 404, "There is no page with ID " + id);
+                    return;
+                }
+                String etag = putValidators(context, id, version);
+                if (ConditionalRequests.matches(ifNoneMatch, etag) || (ifNoneMatch == null
+                    && ConditionalRequests.notModifiedSince(ifModifiedSince, version.getInstant("updated")))) {
+                    notModified(context, ifNoneMatch, etag);
+                } else {
+                    sendPage(context, id);
                 }
             },
             e -> apiFailure(context, e));
     }
 
+    /**
+     * Several pages in one request, by {@code ids} (comma-separated or repeated) or repeated {@code name} parameters,
+     * with their HTML when {@code render=true}. Pages that do not exist are listed under {@code missing}.
+     */
+    private void apiGetPages(RoutingContext context) {
+        List<String> idParams = context.queryParam("ids");
+        List<String> names = context.queryParam("name");
+        if (idParams.isEmpty() == names.isEmpty()) {
+            apiFailure(context, 400, "Expected either ids or name parameters");
+            return;
+        }
+        boolean render = Boolean.parseBoolean(context.request().getParam("render"));
+        List<Integer> ids = new ArrayList<>();
+        try {
+            for (String param : idParams) {
+                for (String id : param.split(",")) {
+                    ids.add(Integer.valueOf(id.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            apiFailure(context, 400, "Invalid ids parameter");
+            return;
+        }
+        List<Object> keys = new ArrayList<>(ids.isEmpty() ? names : ids);
+        if (keys.size() > MAX_BATCH_SIZE) {
+            apiFailure(context, 400, "At most " + MAX_BATCH_SIZE + " pages can be requested at once");
+            return;
+        }
+        Single<List<JsonObject>> lookup = ids.isEmpty()
+            ? dbService.rxFetchPagesByNames(names)
+            : dbService.rxFetchPagesByIds(ids);
+        String keyField = ids.isEmpty() ? "name" : "id";
+
+        lookup
+            .flatMap(pages -> Flowable.fromIterable(pages)
+                .concatMapEager(page -> batchPage(page, render).toFlowable(), BATCH_RENDER_CONCURRENCY, 1)
+                .toList()
+                .map(payloads -> {
+                    Set<Object> found = new HashSet<>();
+                    pages.forEach(page -> found.add(page.getValue(keyField)));
+                    return new JsonObject()
+                        .put("success", true)
+                        .put("pages", payloads)
+                        .put("missing", keys.stream().distinct().filter(key -> !found.contains(key))
+                            .collect(Collectors.toList()));
+                }))
+            .subscribe(
+                body -> {
+                    context.response().setStatusCode(200);
+                    context.response().putHeader("Content-Type", "application/json");
+                    compression.end(context, body.encode());
+                },
+                e -> apiFailure(context, e));
+    }
+
+    private Single<JsonObject> batchPage(JsonObject page, boolean render) {
+        int id = page.getInteger("id");
+        String markdown = page.getString("content");
+        JsonObject payload = new JsonObject()
+            .put("name", page.getString("name"))
+            .put("id", id)
+            .put("markdown", markdown);
+        if (!render) {
+            return Single.just(payload);
+        }
+        Single<String> rendering = page.containsKey("html")
+            ? Single.just(page.getString("html"))
+            : renderPage(id, markdown);
+        return rendering.map(html -> payload.put("html", html));
+    }
+
+    private String putValidators(RoutingContext context, int id, JsonObject version) {
+        String etag = ConditionalRequests.pageETag(id, version.getLong("version"));
+        context.response()
+            .putHeader("ETag", etag)
+            .putHeader("Last-Modified", ConditionalRequests.httpDate(version.getInstant("updated")));
+        return etag;
+    }
+
+    /**
+     * Ends with a {@code 304} carrying the validator of the representation the client holds, gzipped or not.
+     */
+    private void notModified(RoutingContext context, String ifNoneMatch, String etag) {
+        if (ConditionalRequests.matchesGzip(ifNoneMatch, etag)) {
+            context.response().putHeader("ETag", ConditionalRequests.gzipETag(etag));
+        }
+        context.response().setStatusCode(304).end();
+    }
+
+    private void sendPage(RoutingContext context, int id) {
+        pageLoads.load(id, () -> loadPage(id)).subscribe(
+            page -> {
+                putValidators(context, id, page.details);
+                pageResponse(context, id, page.payload);
+            },
+            e -> apiFailure(context, e),
+            () -> apiFailure(context, 404, "There is no page with ID " + id));
+    }
+
+    /**
+     * Loads and renders a page for {@link #sendPage(RoutingContext, int)}. Concurrent requests for the same page share
+     * one load, so the result must not be modified.
+     */
+    private Maybe<LoadedPage> loadPage(int id) {
+        return dbService.rxFetchPageById(id)
+            .flatMapMaybe(obj -> {
+                if (!obj.getBoolean("found")) {
+                    return Maybe.empty();
+                }
+                String markdown = obj.getString("content");
+                Single<String> rendering = obj.containsKey("html")
+                    ? Single.just(obj.getString("html"))
+                    : renderPage(id, markdown);
+                return rendering
+                    .map(html -> new LoadedPage(obj, new JsonObject()
+                        .put("name", obj.getString("name"))
+                        .put("id", obj.getInteger("id"))
+                        .put("markdown", markdown)
+                        .put("html", html)))
+                    .toMaybe();
+            });
+    }
+
+    /**
+     * Sends a page, reusing its gzipped response from the render cache when the client accepts gzip.
+     */
+    private void pageResponse(RoutingContext context, int id, JsonObject page) {
+        context.response().setStatusCode(200);
+        context.response().putHeader("Content-Type", "application/json");
+        if (!compression.accepted(context)) {
+            compression.end(context, successBody("page", page));
+            return;
+        }
+        String markdown = page.getString("markdown");
+        String name = page.getString("name");
+        byte[] gzipped = renderCache.getCompressed(id, markdown, name);
+        if (gzipped == null) {
+            String body = successBody("page", page);
+            if (!compression.worthCompressing(body)) {
+                compression.end(context, body);
+                return;
+            }
+            gzipped = compression.gzip(body);
+            renderCache.putCompressed(id, markdown, page.getString("html"), name, gzipped);
+        }
+        compression.endCompressed(context, gzipped);
+    }
+
+    private Single<String> renderPage(int id, String markdown) {
+        String cached = renderCache.get(id, markdown);
+        if (cached != null) {
+            return Single.just(cached);
+        }
+        return renderClient.rxRender(markdown).doOnSuccess(html -> renderCache.put(id, markdown, html));
+    }
+
     private void apiCreatePage(RoutingContext context) {
         JsonObject page = context.getBodyAsJson();
         if (!validateJsonPageDocument(context, page, "name", "markdown")) {
             return;
         }
         dbService.rxCreatePage(page.getString("name"), page.getString("markdown")).subscribe(
-            () -> apiResponse(context, 201, null, null),
+            id -> {
+                pageChanges.publish(vertx.getDelegate().eventBus(), PageChanges.CREATED, id, page.getString("name"));
+                context.response().putHeader("Location", "/api/pages/" + id);
+                apiResponse(context, 201, "id", id);
+            },
             t -> apiFailure(context, t));
     }
 
@@ -146,23 +583,197 @@ public class HttpServerVerticle extends AbstractVerticle {
         if (!validateJsonPageDocument(context, page, "markdown")) {
             return;
         }
-        dbService.rxSavePage(id, page.getString("markdown"))
+        dbService.rxSavePage(id, page.getString("markdown"), page.getString("client"))
             .doOnComplete(() -> {
-                JsonObject event = new JsonObject()
-                    .put("id", id)
-                    .put("client", page.getString("client"));
-                vertx.eventBus().publish("page.saved", event);
+                renderCache.invalidate(id);
+                pageLoads.forget(id);
             })
             .subscribe(() -> apiResponse(context, 200, null, null), t -> apiFailure(context, t));
     }
 
     private void apiDeletePage(RoutingContext context) {
         int id = Integer.parseInt(context.request().getParam("id"));
-        dbService.rxDeletePage(id).subscribe(
+        dbService.rxDeletePage(id)
+            .doOnComplete(() -> {
+                renderCache.invalidate(id);
+                pageLoads.forget(id);
+                pageChanges.publish(vertx.getDelegate().eventBus(), PageChanges.DELETED, id, null);
+            })
+            .subscribe(
             () -> apiResponse(context, 200, null, null),
             t -> apiFailure(context, t));
     }
 
+    private void apiRenamePage(RoutingContext context) {
+        int id = Integer.parseInt(context.request().getParam("id"));
+        JsonObject page = context.getBodyAsJson();
+        if (!validateJsonPageDocument(context, page, "name")) {
+            return;
+        }
+        String name = page.getString("name");
+        dbService.rxRenamePage(id, name).subscribe(
+            renamed -> {
+                if (renamed) {
+                    pageLoads.forget(id);
+                    pageChanges.publish(vertx.getDelegate().eventBus(), PageChanges.RENAMED, id, name);
+                    apiResponse(context, 200, null, null);
+                } else {
+                    apiFailure(context, 404, "There is no page with id " + id);
+                }
+            },
+            t -> apiFailure(context, t));
+    }
+
+    private void apiExport(RoutingContext context) {
+        HttpServerResponse response = context.response();
+        AtomicBoolean clientGone = new AtomicBoolean();
+        // The batch waiting for the response to drain, which never happens once the client is gone
+        AtomicReference<Message<JsonArray>> draining = new AtomicReference<>();
+        response.closeHandler(v -> {
+            clientGone.set(true);
+            Message<JsonArray> pending = draining.getAndSet(null);
+            if (pending != null) {
+                pending.fail(500, "Export client disconnected");
+            }
+        });
+        ResponseCompression.Stream gzip = compression.accepted(context) ? compression.stream() : null;
+
+        // The database verticle streams pages to this address and waits for each batch to be acknowledged
+        String address = "wiki.export." + UUID.randomUUID();
+        MessageConsumer<JsonArray> consumer = vertx.eventBus().consumer(address, msg -> {
+            if (clientGone.get()) {
+                msg.fail(500, "Export client disconnected");
+                return;
+            }
+            Buffer chunk = Buffer.buffer();
+            for (Object page : msg.body()) {
+                chunk.appendString(((JsonObject) page).encode()).appendString("\n");
+            }
+            if (!response.headWritten()) {
+                response
+                    .setChunked(true)
+                    .setStatusCode(200);
+                exportHeaders(response, gzip);
+            }
+            response.write(gzip != null ? gzip.write(chunk) : chunk);
+            if (response.writeQueueFull()) {
+                draining.set(msg);
+                response.drainHandler(v -> {
+                    if (draining.compareAndSet(msg, null)) {
+                        msg.reply(null);
+                    }
+                });
+            } else {
+                msg.reply(null);
+            }
+        });
+
+        exportDbService.rxExportPages(address, config().getInteger(CONFIG_HTTP_EXPORT_BATCH_SIZE, 100))
+            .doFinally(consumer::unregister)
+            .subscribe(
+                count -> {
+                    if (!response.headWritten()) {
+                        exportHeaders(response, gzip);
+                    }
+                    if (gzip != null) {
+                        response.end(gzip.finish());
+                    } else {
+                        response.end();
+                    }
+                },
+                t -> {
+                    LOGGER.error("Export failed", t);
+                    if (gzip != null) {
+                        gzip.close();
+                    }
+                    if (response.headWritten()) {
+                        response.reset();
+                    } else {
+                        apiFailure(context, t);
+                    }
+                });
+    }
+
+    private void exportHeaders(HttpServerResponse response, ResponseCompression.Stream gzip) {
+        response.putHeader("Content-Type", "application/x-ndjson");
+        if (compression.enabled()) {
+            response.putHeader("Vary", "Accept-Encoding");
+        }
+        if (gzip != null) {
+            response.putHeader("Content-Encoding", "gzip");
+        }
+    }
+
+    private void apiImport(RoutingContext context) {
+        int batchSize = config().getInteger(CONFIG_HTTP_IMPORT_BATCH_SIZE, 500);
+        PageImport pageImport = new PageImport();
+        RecordParser parser = RecordParser.newDelimited("\n", context.request())
+            .maxRecordSize(config().getInteger(CONFIG_HTTP_IMPORT_MAX_LINE_BYTES, 16 * 1024 * 1024));
+
+        parser.exceptionHandler(t -> {
+            if (!context.response().ended()) {
+                apiFailure(context, 400, t.getMessage());
+            }
+        });
+        parser.handler(line -> {
+            if (pageImport.add(line) >= batchSize) {
+                parser.pause();
+                importBatch(pageImport).subscribe(parser::resume, t -> abortImport(context, parser, t));
+            }
+        });
+        parser.endHandler(v -> importBatch(pageImport).subscribe(
+            () -> {
+                JsonObject report = pageImport.report();
+                LOGGER.info("Imported " + report.getInteger("imported") + " pages at "
+                    + report.getLong("rowsPerSecond") + " rows/s");
+                apiResponse(context, 200, "import", report);
+            },
+            t -> abortImport(context, parser, t)));
+    }
+
+    /**
+     * Fails an import once a batch failed: the rest of the body is read and discarded, so that neither the paused
+     * parser holds the connection nor its end handler sends a second response.
+     */
+    private void abortImport(RoutingContext context, RecordParser parser, Throwable t) {
+        LOGGER.error("Import failed", t);
+        parser.handler(line -> { });
+        parser.endHandler(v -> { });
+        parser.resume();
+        if (!context.response().ended()) {
+            apiFailure(context, t);
+        }
+    }
+
+    private Completable importBatch(PageImport pageImport) {
+        if (!pageImport.hasPending()) {
+            return Completable.complete();
+        }
+        List<JsonObject> pages = pageImport.pendingPages();
+        List<Integer> lines = pageImport.pendingLines();
+        pageImport.clearPending();
+        return dbService.rxImportPages(pages)
+            .doOnSuccess(result -> {
+                pageImport.imported(pages, lines, result);
+                // Clients keep their page list in sync from the numbered deltas, imported pages included
+                for (Object created : result.getJsonArray("pages")) {
+                    JsonObject page = (JsonObject) created;
+                    pageChanges.publish(vertx.getDelegate().eventBus(), PageChanges.CREATED, page.getInteger("id"),
+                        page.getString("name"));
+                }
+            })
+            .ignoreElement();
+    }
+
+    private void apiMetrics(RoutingContext context) {
+        apiResponse(context, 200, "metrics", WikiMetrics.get(vertx.getDelegate()).toJson());
+    }
+
+    private void prometheusMetrics(RoutingContext context) {
+        context.response().putHeader("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        compression.end(context, WikiMetrics.get(vertx.getDelegate()).toPrometheus());
+    }
+
     private boolean validateJsonPageDocument(RoutingContext context, JsonObject page, String... expectedKeys) {
         if (!Arrays.stream(expectedKeys).allMatch(page::containsKey)) {
             LOGGER.error("Bad page creation JSON payload: " + page.encodePrettily() + " from " + context.request().remoteAddress());
@@ -179,15 +790,24 @@ public class HttpServerVerticle extends AbstractVerticle {
     private void apiResponse(RoutingContext context, int statusCode, String jsonField, Object jsonData) {
         context.response().setStatusCode(statusCode);
         context.response().putHeader("Content-Type", "application/json");
+        compression.end(context, successBody(jsonField, jsonData));
+    }
+
+    static String successBody(String jsonField, Object jsonData) {
         JsonObject wrapped = new JsonObject().put("success", true);
         if (jsonField != null && jsonData != null) {
             wrapped.put(jsonField, jsonData);
         }
-        context.response().end(wrapped.encode());
+        return wrapped.encode();
     }
 
     private void apiFailure(RoutingContext context, Throwable t) {
-        apiFailure(context, 500, t.getMessage());
+        if (RenderClient.isQueueFull(t) || ErrorCodes.isOverloaded(t)) {
+            context.response().putHeader("Retry-After", RETRY_AFTER_SECONDS);
+            apiFailure(context, 503, t.getMessage());
+        } else {
+            apiFailure(context, 500, t.getMessage());
+        }
     }
 
     private void apiFailure(RoutingContext context, int statusCode, String error) {
@@ -198,4 +818,13 @@ public class HttpServerVerticle extends AbstractVerticle {
             .put("error", error).encode());
     }
 
+    private static final class LoadedPage {
+        private final JsonObject details;
+        private final JsonObject payload;
+
+        private LoadedPage(JsonObject details, JsonObject payload) {
+            this.details = details;
+            this.payload = payload;
+        }
+    }
 }
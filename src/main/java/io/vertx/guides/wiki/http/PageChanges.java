@@ -0,0 +1,89 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded log of the changes to the page list, published as {@code page.created}, {@code page.renamed} and
+ * {@code page.deleted} events. Changes are numbered by a sequence shared by all {@link HttpServerVerticle} instances
+ * of a {@link Vertx}, so clients can detect missed events and catch up with the changes since the last one they saw,
+ * as long as the log still holds them.
+ * <p>
+ * Numbering and publishing happen under the same lock, so every consumer receives the events in sequence order.
+ */
+public class PageChanges implements Shareable {
+
+    static final String CREATED = "created";
+    static final String RENAMED = "renamed";
+    static final String DELETED = "deleted";
+
+    private static final String SHARED_MAP = "wiki.http.page-changes";
+
+    private final int capacity;
+    private final ArrayDeque<JsonObject> log;
+    private long seq;
+
+    PageChanges(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid change log capacity " + capacity);
+        }
+        this.capacity = capacity;
+        this.log = new ArrayDeque<>(capacity);
+    }
+
+    public static PageChanges get(Vertx vertx, int capacity) {
+        return vertx.sharedData()
+            .<String, PageChanges>getLocalMap(SHARED_MAP)
+            .computeIfAbsent(SHARED_MAP, k -> new PageChanges(capacity));
+    }
+
+    /**
+     * The sequence number of the last change, 0 before the first one.
+     */
+    public synchronized long seq() {
+        return seq;
+    }
+
+    /**
+     * Numbers a change, logs it and publishes it to {@code page.<type>} as a {@code seq}/{@code id}/{@code name}
+     * object, the name being left out when {@code null}.
+     */
+    public synchronized JsonObject publish(EventBus eventBus, String type, int id, String name) {
+        JsonObject event = new JsonObject()
+            .put("seq", ++seq)
+            .put("id", id);
+        if (name != null) {
+            event.put("name", name);
+        }
+        if (log.size() == capacity) {
+            log.poll();
+        }
+        log.add(event.copy().put("type", type));
+        eventBus.publish("page." + type, event);
+        return event;
+    }
+
+    /**
+     * The changes numbered after {@code since}, oldest first, or {@code null} when the log no longer holds all of
+     * them or {@code since} was never handed out, in which case the client must reload the whole list.
+     */
+    public synchronized List<JsonObject> since(long since) {
+        long oldest = log.isEmpty() ? seq + 1 : log.peek().getLong("seq");
+        if (since > seq || since < oldest - 1) {
+            return null;
+        }
+        List<JsonObject> changes = new ArrayList<>((int) (seq - since));
+        for (JsonObject change : log) {
+            if (change.getLong("seq") > since) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+}
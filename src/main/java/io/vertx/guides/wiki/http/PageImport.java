@@ -0,0 +1,87 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.buffer.Buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Book-keeping for one NDJSON import request: the batch of parsed pages waiting to be written and the running report
+ * of imported, conflicting and invalid lines.
+ */
+class PageImport {
+
+    private final long startNanos = System.nanoTime();
+
+    private List<JsonObject> pendingPages = new ArrayList<>();
+    private List<Integer> pendingLines = new ArrayList<>();
+    private int line;
+    private long imported;
+    private final JsonArray conflicts = new JsonArray();
+    private final JsonArray invalid = new JsonArray();
+
+    /**
+     * Parses one line and queues it when it is a valid page document.
+     *
+     * @return the number of pending pages
+     */
+    int add(Buffer buffer) {
+        line++;
+        String text = buffer.toString("UTF-8").trim();
+        if (text.isEmpty()) {
+            return pendingPages.size();
+        }
+        try {
+            JsonObject page = new JsonObject(text);
+            if (page.getString("name") == null || page.getString("markdown") == null) {
+                invalid.add(new JsonObject().put("line", line).put("error", "Missing name or markdown"));
+            } else {
+                pendingPages.add(page);
+                pendingLines.add(line);
+            }
+        } catch (DecodeException | ClassCastException e) {
+            invalid.add(new JsonObject().put("line", line).put("error", "Invalid JSON"));
+        }
+        return pendingPages.size();
+    }
+
+    boolean hasPending() {
+        return !pendingPages.isEmpty();
+    }
+
+    List<JsonObject> pendingPages() {
+        return pendingPages;
+    }
+
+    List<Integer> pendingLines() {
+        return pendingLines;
+    }
+
+    void clearPending() {
+        pendingPages = new ArrayList<>();
+        pendingLines = new ArrayList<>();
+    }
+
+    void imported(List<JsonObject> pages, List<Integer> lines, JsonObject result) {
+        imported += result.getInteger("imported");
+        for (Object index : result.getJsonArray("conflicts")) {
+            int i = (Integer) index;
+            conflicts.add(new JsonObject()
+                .put("line", lines.get(i))
+                .put("name", pages.get(i).getString("name")));
+        }
+    }
+
+    JsonObject report() {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return new JsonObject()
+            .put("imported", imported)
+            .put("conflicts", conflicts)
+            .put("invalid", invalid)
+            .put("elapsedMs", elapsedNanos / 1_000_000)
+            .put("rowsPerSecond", imported * 1_000_000_000L / elapsedNanos);
+    }
+}
@@ -0,0 +1,128 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of rendered page HTML bounded by an approximate size in bytes. Entries may also hold the gzipped JSON
+ * response of the page, so that serving it compressed again neither re-encodes nor re-compresses it.
+ * <p>
+ * Entries are keyed by page id and only served back while the markdown they were rendered from is unchanged, so a
+ * missed invalidation can cost a re-render but never returns stale HTML. One instance is shared by all
+ * {@link HttpServerVerticle} instances of a {@link Vertx}.
+ */
+public class RenderedPageCache implements Shareable {
+
+    private static final String SHARED_MAP = "wiki.http.render-cache";
+
+    // Rough per-entry cost of the map node, entry object and boxed key
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder compressedHits;
+    private final LongAdder compressedMisses;
+
+    RenderedPageCache(long maxBytes, WikiMetrics metrics) {
+        this.maxBytes = maxBytes;
+        this.hits = metrics.counter("http.render_cache.hits");
+        this.misses = metrics.counter("http.render_cache.misses");
+        this.evictions = metrics.counter("http.render_cache.evictions");
+        this.compressedHits = metrics.counter("http.render_cache.compressed_hits");
+        this.compressedMisses = metrics.counter("http.render_cache.compressed_misses");
+    }
+
+    public static RenderedPageCache get(Vertx vertx, long maxBytes) {
+        return vertx.sharedData()
+            .<String, RenderedPageCache>getLocalMap(SHARED_MAP)
+            .computeIfAbsent(SHARED_MAP, k -> new RenderedPageCache(maxBytes, WikiMetrics.get(vertx)));
+    }
+
+    public synchronized String get(int id, String markdown) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.markdown.equals(markdown)) {
+            hits.increment();
+            return entry.html;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public synchronized void put(int id, String markdown, String html) {
+        store(id, new Entry(markdown, html, null, null));
+    }
+
+    /**
+     * The gzipped JSON response cached for the page, provided its markdown and name are unchanged.
+     */
+    public synchronized byte[] getCompressed(int id, String markdown, String name) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.gzipped != null && entry.markdown.equals(markdown) && entry.name.equals(name)) {
+            compressedHits.increment();
+            return entry.gzipped;
+        }
+        compressedMisses.increment();
+        return null;
+    }
+
+    public synchronized void putCompressed(int id, String markdown, String html, String name, byte[] gzipped) {
+        store(id, new Entry(markdown, html, name, gzipped));
+    }
+
+    private void store(int id, Entry entry) {
+        long size = entry.size;
+        if (size > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += size;
+        Iterator<Map.Entry<Integer, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().getValue().size;
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(int id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            bytes -= removed.size;
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return bytes;
+    }
+
+    private static final class Entry {
+        private final String markdown;
+        private final String html;
+        private final String name;
+        private final byte[] gzipped;
+        private final long size;
+
+        private Entry(String markdown, String html, String name, byte[] gzipped) {
+            this.markdown = markdown;
+            this.html = html;
+            this.name = name;
+            this.gzipped = gzipped;
+            this.size = ENTRY_OVERHEAD + 2L * (markdown.length() + html.length())
+                + (gzipped != null ? 2L * name.length() + gzipped.length : 0);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.core.http.HttpServerResponse;
+import io.vertx.reactivex.ext.web.RoutingContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip {@code Content-Encoding} negotiation.
+ * <p>
+ * API responses are compressed here, where the time spent can be measured and the result cached, and sent with their
+ * {@code Content-Encoding} already set, which the HTTP server's own compressor leaves alone. Static assets are
+ * compressed at build time by {@link AssetPipeline}. The server compressor is only enabled in development asset mode,
+ * for the files served as they are; it also rules out zero-copy {@code sendFile}. Responses below the threshold are
+ * sent as they are: compressing them costs more than the bytes it saves.
+ */
+final class ResponseCompression {
+
+    private static final String IDENTITY = "identity";
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final int level;
+    private final int minBytes;
+    private final boolean serverCompression;
+    private final Timer time;
+    private final LongAdder bytesIn;
+    private final LongAdder bytesOut;
+
+    /**
+     * @param level             gzip level, from 1 (fastest) to 9 (smallest), or 0 to disable compression
+     * @param serverCompression whether the HTTP server compressor is enabled as well
+     */
+    ResponseCompression(int level, int minBytes, boolean serverCompression, WikiMetrics metrics) {
+        if (level < 0 || level > 9) {
+            throw new IllegalArgumentException("Invalid compression level " + level);
+        }
+        this.level = level;
+        this.minBytes = minBytes;
+        this.serverCompression = serverCompression && level > 0;
+        this.time = metrics.timer("http.compression.time");
+        this.bytesIn = metrics.counter("http.compression.bytes_in");
+        this.bytesOut = metrics.counter("http.compression.bytes_out");
+    }
+
+    boolean enabled() {
+        return level > 0;
+    }
+
+    int level() {
+        return level;
+    }
+
+    boolean serverCompression() {
+        return serverCompression;
+    }
+
+    /**
+     * Route handler opting responses of a known, small length out of the server compressor.
+     */
+    void skipSmallResponses(RoutingContext context) {
+        if (serverCompression) {
+            HttpServerResponse response = context.response();
+            response.headersEndHandler(v -> {
+                if (response.headers().contains("Content-Encoding")) {
+                    return;
+                }
+                String length = response.headers().get("Content-Length");
+                if (length != null && Long.parseLong(length) < minBytes) {
+                    response.putHeader("Content-Encoding", IDENTITY);
+                } else {
+                    response.putHeader("Vary", "Accept-Encoding");
+                }
+            });
+        }
+        context.next();
+    }
+
+    /**
+     * Whether the client accepts gzip, that is lists it, or {@code *}, in {@code Accept-Encoding} without
+     * {@code q=0}.
+     */
+    boolean accepted(RoutingContext context) {
+        if (!enabled()) {
+            return false;
+        }
+        String header = context.request().getHeader("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    boolean worthCompressing(String body) {
+        return enabled() && body.length() >= minBytes;
+    }
+
+    byte[] gzip(String body) {
+        long start = System.nanoTime();
+        byte[] input = body.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 4 + 64);
+        try (GZIPOutputStream out = new LeveledGZIPOutputStream(compressed, level)) {
+            out.write(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] result = compressed.toByteArray();
+        time.recordSince(start);
+        bytesIn.add(input.length);
+        bytesOut.add(result.length);
+        return result;
+    }
+
+    /**
+     * Ends {@code context} with {@code body}, compressed when both the client and the body size allow it.
+     */
+    void end(RoutingContext context, String body) {
+        if (worthCompressing(body) && accepted(context)) {
+            endCompressed(context, gzip(body));
+        } else {
+            HttpServerResponse response = context.response();
+            if (enabled()) {
+                response.putHeader("Vary", "Accept-Encoding");
+            }
+            if (serverCompression) {
+                response.putHeader("Content-Encoding", IDENTITY);
+            }
+            response.end(body);
+        }
+    }
+
+    void endCompressed(RoutingContext context, byte[] gzipped) {
+        String etag = context.response().headers().get("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            context.response().putHeader("ETag", ConditionalRequests.gzipETag(etag));
+        }
+        context.response()
+            .putHeader("Content-Encoding", "gzip")
+            .putHeader("Vary", "Accept-Encoding")
+            .end(Buffer.buffer(gzipped));
+    }
+
+    /**
+     * Starts compressing a streamed response; the caller sets {@code Content-Encoding} and must {@link Stream#finish()}
+     * or {@link Stream#close()} it.
+     */
+    Stream stream() {
+        return new Stream();
+    }
+
+    /**
+     * gzip member written chunk by chunk, each chunk flushed so that the client can decode it as soon as it arrives.
+     */
+    final class Stream {
+        private final Deflater deflater = new Deflater(level, true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] window = new byte[8192];
+        private boolean started;
+
+        Buffer write(Buffer chunk) {
+            long start = System.nanoTime();
+            byte[] input = chunk.getBytes();
+            io.vertx.core.buffer.Buffer output = io.vertx.core.buffer.Buffer.buffer(input.length / 4 + 32);
+            if (!started) {
+                output.appendBytes(GZIP_HEADER);
+                started = true;
+            }
+            crc.update(input);
+            deflater.setInput(input);
+            for (int n; (n = deflater.deflate(window, 0, window.length, Deflater.SYNC_FLUSH)) > 0; ) {
+                output.appendBytes(window, 0, n);
+            }
+            time.recordSince(start);
+            bytesIn.add(input.length);
+            bytesOut.add(output.length());
+            return Buffer.newInstance(output);
+        }
+
+        Buffer finish() {
+            io.vertx.core.buffer.Buffer output = io.vertx.core.buffer.Buffer.buffer(64);
+            if (!started) {
+                output.appendBytes(GZIP_HEADER);
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(window);
+                output.appendBytes(window, 0, n);
+            }
+            output.appendIntLE((int) crc.getValue()).appendIntLE((int) deflater.getBytesRead());
+            close();
+            bytesOut.add(output.length());
+            return Buffer.newInstance(output);
+        }
+
+        void close() {
+            deflater.end();
+        }
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+        private LeveledGZIPOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
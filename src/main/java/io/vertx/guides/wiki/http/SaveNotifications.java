@@ -0,0 +1,143 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Forwards the {@code page.saved} events of the database service to the per-page {@code page.saved.<id>} addresses
+ * browsers subscribe to through the SockJS bridge, so that a save only reaches the tabs showing that page.
+ * <p>
+ * Subscriptions are counted from the bridge events of every {@link HttpServerVerticle} instance of a {@link Vertx},
+ * which share one instance: saves of pages nobody watches are dropped, and the fan-out of the others is measured.
+ * Each instance forwards every event it receives, so events are deduplicated by page version. With a batch window,
+ * the saves of a page within it are notified once, with the last one.
+ */
+public class SaveNotifications implements Shareable {
+
+    static final String ADDRESS_PREFIX = "page.saved.";
+
+    private static final String SHARED_MAP = "wiki.http.save-notifications";
+
+    private final Vertx vertx;
+    private final long batchMs;
+    private final Map<String, Set<Integer>> subscriptionsBySocket = new HashMap<>();
+    private final Map<Integer, Integer> subscribers = new HashMap<>();
+    private final Map<Integer, Long> notifiedVersions = new HashMap<>();
+    private final Map<Integer, JsonObject> batch = new LinkedHashMap<>();
+
+    private final LongAdder publications;
+    private final LongAdder deliveries;
+    private final LongAccumulator maxFanOut = new LongAccumulator(Math::max, 0L);
+
+    SaveNotifications(Vertx vertx, long batchMs, WikiMetrics metrics) {
+        this.vertx = vertx;
+        this.batchMs = batchMs;
+        this.publications = metrics.counter("http.page_saved.publications");
+        this.deliveries = metrics.counter("http.page_saved.deliveries");
+        metrics.gauge("http.page_saved.max_fan_out", maxFanOut::get);
+        metrics.gauge("http.page_saved.watched_pages", this::watchedPages);
+    }
+
+    public static SaveNotifications get(Vertx vertx, long batchMs) {
+        return vertx.sharedData()
+            .<String, SaveNotifications>getLocalMap(SHARED_MAP)
+            .computeIfAbsent(SHARED_MAP, k -> new SaveNotifications(vertx, batchMs, WikiMetrics.get(vertx)));
+    }
+
+    /**
+     * The page whose saves {@code address} notifies, or {@code null} if it is not such an address.
+     */
+    static Integer pageId(String address) {
+        if (address == null || !address.startsWith(ADDRESS_PREFIX)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(address.substring(ADDRESS_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized void subscribed(String socket, String address) {
+        Integer id = pageId(address);
+        if (id != null && subscriptionsBySocket.computeIfAbsent(socket, k -> new HashSet<>()).add(id)) {
+            subscribers.merge(id, 1, Integer::sum);
+        }
+    }
+
+    public synchronized void unsubscribed(String socket, String address) {
+        Integer id = pageId(address);
+        Set<Integer> pages = subscriptionsBySocket.get(socket);
+        if (id != null && pages != null && pages.remove(id)) {
+            release(id);
+        }
+    }
+
+    public synchronized void closed(String socket) {
+        Set<Integer> pages = subscriptionsBySocket.remove(socket);
+        if (pages != null) {
+            pages.forEach(this::release);
+        }
+    }
+
+    private void release(int id) {
+        if (subscribers.merge(id, -1, Integer::sum) == 0) {
+            subscribers.remove(id);
+            notifiedVersions.remove(id);
+        }
+    }
+
+    private synchronized long watchedPages() {
+        return subscribers.size();
+    }
+
+    /**
+     * Notifies a {@code page.saved} event to the subscribers of its page, if any.
+     */
+    public synchronized void saved(JsonObject event) {
+        int id = event.getInteger("id");
+        if (!subscribers.containsKey(id)) {
+            return;
+        }
+        long version = event.getLong("version");
+        Long notified = notifiedVersions.get(id);
+        if (notified != null && notified >= version) {
+            return;
+        }
+        notifiedVersions.put(id, version);
+        if (batchMs <= 0) {
+            publish(id, event);
+            return;
+        }
+        if (batch.isEmpty()) {
+            vertx.setTimer(batchMs, timer -> flush());
+        }
+        batch.put(id, event);
+    }
+
+    private synchronized void flush() {
+        batch.forEach((id, event) -> publish(id, event));
+        batch.clear();
+    }
+
+    private void publish(int id, JsonObject event) {
+        Integer fanOut = subscribers.get(id);
+        if (fanOut == null) {
+            return;
+        }
+        vertx.eventBus().publish(ADDRESS_PREFIX + id, event);
+        publications.increment();
+        deliveries.add(fanOut);
+        maxFanOut.accumulate(fanOut);
+    }
+}
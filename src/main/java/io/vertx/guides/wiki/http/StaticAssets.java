@@ -0,0 +1,98 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.http.HttpServerResponse;
+import io.vertx.reactivex.ext.web.RoutingContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Production serving of the assets built by {@link AssetPipeline}.
+ * <p>
+ * File properties come from the manifest, read once at startup, so serving never touches the file system before
+ * {@code sendFile}, which transfers the file zero-copy. Fingerprinted names are cacheable forever; the HTML entry
+ * points, and the unfingerprinted names stale pages may still reference, must be revalidated with their
+ * {@code ETag}. Clients accepting gzip get the precompressed variant.
+ */
+final class StaticAssets {
+
+    static final String MANIFEST = "assets.json";
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+
+    private final Map<String, Asset> assets = new HashMap<>();
+
+    private StaticAssets(String root, JsonObject manifest) {
+        for (String name : manifest.fieldNames()) {
+            JsonObject entry = manifest.getJsonObject(name);
+            String file = entry.getString("file");
+            String contentType = MimeMapping.getMimeTypeForFilename(file);
+            boolean gzip = entry.getBoolean("gzip");
+            String etag = entry.getString("etag");
+            assets.put(file, new Asset(root + "/" + file, contentType, etag, gzip,
+                entry.getBoolean("immutable") ? IMMUTABLE : REVALIDATE));
+            if (!file.equals(name)) {
+                assets.put(name, new Asset(root + "/" + file, contentType, etag, gzip, REVALIDATE));
+            }
+        }
+    }
+
+    /**
+     * Loads the manifest of the assets built into {@code root}, or returns {@code null} if there is none.
+     */
+    static StaticAssets load(Vertx vertx, String root) {
+        String manifest = root + "/" + MANIFEST;
+        if (!vertx.fileSystem().existsBlocking(manifest)) {
+            return null;
+        }
+        return new StaticAssets(root, vertx.fileSystem().readFileBlocking(manifest).toJsonObject());
+    }
+
+    void handle(RoutingContext context, boolean gzipAccepted) {
+        String mountPoint = context.mountPoint() != null ? context.mountPoint() : "";
+        String path = context.normalisedPath().substring(mountPoint.length() + 1);
+        Asset asset = assets.get(path);
+        if (asset == null) {
+            context.next();
+            return;
+        }
+        HttpServerResponse response = context.response()
+            .putHeader("ETag", asset.etag)
+            .putHeader("Cache-Control", asset.cacheControl);
+        if (asset.gzip) {
+            response.putHeader("Vary", "Accept-Encoding");
+        }
+        if (ConditionalRequests.matches(context.request().getHeader("If-None-Match"), asset.etag)) {
+            response.setStatusCode(304).end();
+            return;
+        }
+        if (asset.contentType != null) {
+            response.putHeader("Content-Type", asset.contentType);
+        }
+        if (asset.gzip && gzipAccepted) {
+            response.putHeader("Content-Encoding", "gzip").sendFile(asset.file + ".gz");
+        } else {
+            response.sendFile(asset.file);
+        }
+    }
+
+    private static final class Asset {
+        private final String file;
+        private final String contentType;
+        private final String etag;
+        private final boolean gzip;
+        private final String cacheControl;
+
+        private Asset(String file, String contentType, String etag, boolean gzip, String cacheControl) {
+            this.file = file;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.gzip = gzip;
+            this.cacheControl = cacheControl;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.vertx.guides.wiki.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Timers of one family told apart by the value of a single label, such as the operation being timed. Repeated lookups
+ * of a known value do not allocate.
+ */
+public class LabelledTimers {
+
+    private final WikiMetrics metrics;
+    private final String name;
+    private final String label;
+    private final ConcurrentMap<String, Timer> byValue = new ConcurrentHashMap<>();
+
+    LabelledTimers(WikiMetrics metrics, String name, String label) {
+        this.metrics = metrics;
+        this.name = name;
+        this.label = label;
+    }
+
+    public Timer get(String value) {
+        Timer timer = byValue.get(value);
+        if (timer == null) {
+            timer = byValue.computeIfAbsent(value, v -> metrics.timer(name, label, v));
+        }
+        return timer;
+    }
+}
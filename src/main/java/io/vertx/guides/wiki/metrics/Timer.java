@@ -0,0 +1,85 @@
+package io.vertx.guides.wiki.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency recorder keeping count, total and maximum duration and a fixed-bucket histogram.
+ * <p>
+ * Recording does not allocate: it bumps one striped counter per field and one bucket counter.
+ */
+public class Timer {
+
+    /**
+     * Upper bounds of the histogram buckets, in nanoseconds. A last, unbounded bucket catches longer durations.
+     */
+    static final long[] BUCKET_BOUNDS = {
+        TimeUnit.MICROSECONDS.toNanos(100),
+        TimeUnit.MICROSECONDS.toNanos(250),
+        TimeUnit.MICROSECONDS.toNanos(500),
+        TimeUnit.MILLISECONDS.toNanos(1),
+        TimeUnit.MICROSECONDS.toNanos(2500),
+        TimeUnit.MILLISECONDS.toNanos(5),
+        TimeUnit.MILLISECONDS.toNanos(10),
+        TimeUnit.MILLISECONDS.toNanos(25),
+        TimeUnit.MILLISECONDS.toNanos(50),
+        TimeUnit.MILLISECONDS.toNanos(100),
+        TimeUnit.MILLISECONDS.toNanos(250),
+        TimeUnit.MILLISECONDS.toNanos(500),
+        TimeUnit.SECONDS.toNanos(1),
+        TimeUnit.MILLISECONDS.toNanos(2500),
+        TimeUnit.SECONDS.toNanos(5),
+        TimeUnit.SECONDS.toNanos(10)
+    };
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+
+    public Timer() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Number of recorded durations falling in bucket {@code index}, not cumulative.
+     */
+    long bucket(int index) {
+        return buckets[index].sum();
+    }
+
+    public JsonObject toJson() {
+        return new JsonObject()
+            .put("count", count.sum())
+            .put("totalMs", TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()))
+            .put("maxMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+    }
+}
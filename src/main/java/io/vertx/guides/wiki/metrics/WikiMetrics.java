@@ -0,0 +1,207 @@
+package io.vertx.guides.wiki.metrics;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named counters, gauges and timers, shared by every verticle deployed on the same
+ * {@link Vertx} instance.
+ * <p>
+ * Metrics may carry labels, given as alternating names and values. Looking a metric up builds its key, so hot paths
+ * resolve their metrics once and keep the returned objects, or use {@link LabelledTimers} for a label only known per
+ * call.
+ */
+public class WikiMetrics implements Shareable {
+
+    private static final String SHARED_MAP = "wiki.metrics";
+
+    private static final String[] BUCKET_LABELS = new String[Timer.BUCKET_BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_LABELS.length; i++) {
+            BUCKET_LABELS[i] = seconds(Timer.BUCKET_BOUNDS[i]);
+        }
+    }
+
+    private final ConcurrentMap<MetricId, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricId, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricId, Timer> timers = new ConcurrentHashMap<>();
+
+    public static WikiMetrics get(Vertx vertx) {
+        return vertx.sharedData()
+            .<String, WikiMetrics>getLocalMap(SHARED_MAP)
+            .computeIfAbsent(SHARED_MAP, k -> new WikiMetrics());
+    }
+
+    public LongAdder counter(String name, String... labels) {
+        return counters.computeIfAbsent(new MetricId(name, labels), k -> new LongAdder());
+    }
+
+    public Timer timer(String name, String... labels) {
+        return timers.computeIfAbsent(new MetricId(name, labels), k -> new Timer());
+    }
+
+    public LabelledTimers timers(String name, String label) {
+        return new LabelledTimers(this, name, label);
+    }
+
+    /**
+     * Returns a gauge that callers move up and down themselves, such as a number of requests in flight.
+     */
+    public LongAdder gauge(String name, String... labels) {
+        LongSupplier gauge = gauges.computeIfAbsent(new MetricId(name, labels), k -> new AdderGauge());
+        if (!(gauge instanceof AdderGauge)) {
+            throw new IllegalStateException("Gauge " + name + " is computed by a supplier");
+        }
+        return (AdderGauge) gauge;
+    }
+
+    /**
+     * Registers a gauge read from {@code value} whenever metrics are reported, replacing any previous one.
+     */
+    public void gauge(String name, LongSupplier value, String... labels) {
+        gauges.put(new MetricId(name, labels), value);
+    }
+
+    public JsonObject toJson() {
+        Map<String, Object> sorted = new TreeMap<>();
+        counters.forEach((id, counter) -> sorted.put(id.key, counter.sum()));
+        gauges.forEach((id, gauge) -> sorted.put(id.key, gauge.getAsLong()));
+        timers.forEach((id, timer) -> sorted.put(id.key, timer.toJson()));
+        return new JsonObject(sorted);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format, version 0.0.4. Dots in names become
+     * underscores and names get a {@code wiki_} prefix; counters end in {@code _total} and timers are histograms in
+     * seconds.
+     */
+    public String toPrometheus() {
+        Map<MetricId, Object> sorted = new TreeMap<>();
+        sorted.putAll(counters);
+        sorted.putAll(gauges);
+        sorted.putAll(timers);
+
+        StringBuilder out = new StringBuilder(4096);
+        String family = null;
+        for (Map.Entry<MetricId, Object> entry : sorted.entrySet()) {
+            MetricId id = entry.getKey();
+            Object metric = entry.getValue();
+            String base = "wiki_" + id.name.replace('.', '_');
+            // Gauges first: the ones callers move themselves are LongAdders too
+            if (metric instanceof LongSupplier) {
+                family = typeLine(out, family, base, "gauge");
+                sample(out, family, id.labels, null, null).append(((LongSupplier) metric).getAsLong()).append('\n');
+            } else if (metric instanceof LongAdder) {
+                family = typeLine(out, family, base + "_total", "counter");
+                sample(out, family, id.labels, null, null).append(((LongAdder) metric).sum()).append('\n');
+            } else {
+                Timer timer = (Timer) metric;
+                family = typeLine(out, family, base + "_seconds", "histogram");
+                long cumulative = 0;
+                for (int i = 0; i < BUCKET_LABELS.length; i++) {
+                    cumulative += timer.bucket(i);
+                    sample(out, family + "_bucket", id.labels, "le", BUCKET_LABELS[i]).append(cumulative).append('\n');
+                }
+                long count = timer.count();
+                sample(out, family + "_bucket", id.labels, "le", "+Inf").append(count).append('\n');
+                sample(out, family + "_sum", id.labels, null, null).append(seconds(timer.totalNanos())).append('\n');
+                sample(out, family + "_count", id.labels, null, null).append(count).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String typeLine(StringBuilder out, String previous, String family, String type) {
+        if (!family.equals(previous)) {
+            out.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+        }
+        return family;
+    }
+
+    private static StringBuilder sample(StringBuilder out, String name, String[] labels, String extraLabel, String extraValue) {
+        out.append(name);
+        if (labels.length > 0 || extraLabel != null) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                label(out, labels[i], labels[i + 1]).append(',');
+            }
+            if (extraLabel != null) {
+                label(out, extraLabel, extraValue).append(',');
+            }
+            out.setCharAt(out.length() - 1, '}');
+        }
+        return out.append(' ');
+    }
+
+    private static StringBuilder label(StringBuilder out, String name, String value) {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static final class AdderGauge extends LongAdder implements LongSupplier {
+        @Override
+        public long getAsLong() {
+            return sum();
+        }
+    }
+
+    private static final class MetricId implements Comparable<MetricId> {
+        private final String name;
+        private final String[] labels;
+        private final String key;
+
+        private MetricId(String name, String[] labels) {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Labels must be name and value pairs: " + name);
+            }
+            this.name = name;
+            this.labels = labels;
+            StringBuilder key = new StringBuilder(name);
+            for (int i = 0; i < labels.length; i += 2) {
+                key.append(i == 0 ? '{' : ',').append(labels[i]).append('=').append(labels[i + 1]);
+            }
+            this.key = labels.length > 0 ? key.append('}').toString() : name;
+        }
+
+        @Override
+        public int compareTo(MetricId other) {
+            // Name first, so that all series of a family are reported together
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : key.compareTo(other.key);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MetricId && key.equals(((MetricId) other).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.vertx.guides.wiki.render;
+
+import com.github.rjeschke.txtmark.Processor;
+
+public final class Markdown {
+
+    /**
+     * Stamp stored with pre-rendered HTML. Bump it whenever the renderer or its configuration changes so that stored
+     * HTML gets rendered again.
+     */
+    public static final int VERSION = 1;
+
+    private Markdown() {
+    }
+
+    public static String render(String markdown) {
+        return Processor.process(markdown);
+    }
+}
@@ -0,0 +1,54 @@
+package io.vertx.guides.wiki.render;
+
+import io.reactivex.Single;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.eventbus.Message;
+
+/**
+ * Renders documents up to {@code inlineThreshold} characters on the calling thread and hands larger ones to the
+ * {@link RenderVerticle} pool.
+ */
+public class RenderClient {
+
+    private final Vertx vertx;
+    private final String renderQueue;
+    private final int inlineThreshold;
+    private final Timer inlineTimer;
+    private final Timer remoteTimer;
+
+    public RenderClient(Vertx vertx, String renderQueue, int inlineThreshold) {
+        this.vertx = vertx;
+        this.renderQueue = renderQueue;
+        this.inlineThreshold = inlineThreshold;
+        WikiMetrics metrics = WikiMetrics.get(vertx.getDelegate());
+        this.inlineTimer = metrics.timer("render.inline.time");
+        this.remoteTimer = metrics.timer("render.remote.time");
+    }
+
+    public Single<String> rxRender(String markdown) {
+        if (markdown.length() <= inlineThreshold) {
+            return Single.fromCallable(() -> {
+                long start = System.nanoTime();
+                String html = Markdown.render(markdown);
+                inlineTimer.recordSince(start);
+                return html;
+            });
+        }
+        return Single.defer(() -> {
+            long start = System.nanoTime();
+            return vertx.eventBus().<String>rxRequest(renderQueue, markdown)
+                .doFinally(() -> remoteTimer.recordSince(start))
+                .map(Message::body);
+        });
+    }
+
+    public static boolean isQueueFull(Throwable t) {
+        return t instanceof ReplyException
+            && ((ReplyException) t).failureType() == ReplyFailure.RECIPIENT_FAILURE
+            && ((ReplyException) t).failureCode() == RenderVerticle.QUEUE_FULL;
+    }
+}
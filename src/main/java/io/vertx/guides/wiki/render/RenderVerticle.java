@@ -0,0 +1,67 @@
+package io.vertx.guides.wiki.render;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders markdown received on {@link #CONFIG_RENDER_QUEUE} on a dedicated worker pool, so that large documents do
+ * not block event loops. At most {@code pool_size + queue_size} renders are accepted at a time; requests beyond that
+ * are failed right away with {@link #QUEUE_FULL}.
+ */
+public class RenderVerticle extends AbstractVerticle {
+
+    public static final String CONFIG_RENDER_QUEUE = "render.queue";
+    public static final String CONFIG_RENDER_POOL_SIZE = "render.pool_size";
+    public static final String CONFIG_RENDER_QUEUE_SIZE = "render.queue_size";
+
+    public static final int QUEUE_FULL = 503;
+
+    private WorkerExecutor executor;
+    private int pending;
+
+    @Override
+    public void start(Promise<Void> promise) {
+        int poolSize = config().getInteger(CONFIG_RENDER_POOL_SIZE, Runtime.getRuntime().availableProcessors());
+        int capacity = poolSize + config().getInteger(CONFIG_RENDER_QUEUE_SIZE, 64);
+        executor = vertx.createSharedWorkerExecutor("wiki-render", poolSize);
+
+        WikiMetrics metrics = WikiMetrics.get(vertx);
+        Timer waitTimer = metrics.timer("render.pool.wait");
+        Timer renderTimer = metrics.timer("render.pool.time");
+        LongAdder rejected = metrics.counter("render.pool.rejected");
+
+        vertx.eventBus().<String>consumer(config().getString(CONFIG_RENDER_QUEUE, CONFIG_RENDER_QUEUE), msg -> {
+            if (pending >= capacity) {
+                rejected.increment();
+                msg.fail(QUEUE_FULL, "Render queue is full");
+                return;
+            }
+            pending++;
+            long queuedAt = System.nanoTime();
+            executor.<String>executeBlocking(future -> {
+                long start = System.nanoTime();
+                waitTimer.record(start - queuedAt);
+                String html = Markdown.render(msg.body());
+                renderTimer.recordSince(start);
+                future.complete(html);
+            }, false, ar -> {
+                pending--;
+                if (ar.succeeded()) {
+                    msg.reply(ar.result());
+                } else {
+                    msg.fail(500, ar.cause().getMessage());
+                }
+            });
+        }).completionHandler(promise);
+    }
+
+    @Override
+    public void stop() {
+        executor.close();
+    }
+}
@@ -0,0 +1,47 @@
+package io.vertx.guides.wiki.search;
+
+import java.util.Map;
+
+/**
+ * A tokenized page, ready to be added to a {@link SearchIndex}. Building one is the costly part of indexing and does
+ * not touch the index, so it can happen on any thread.
+ */
+public final class IndexedPage {
+
+    final int pageId;
+    final String name;
+    final String stamp;
+    final int length;
+    final String[] terms;
+    final int[] frequencies;
+
+    private IndexedPage(int pageId, String name, String stamp, int length, String[] terms, int[] frequencies) {
+        this.pageId = pageId;
+        this.name = name;
+        this.stamp = stamp;
+        this.length = length;
+        this.terms = terms;
+        this.frequencies = frequencies;
+    }
+
+    /**
+     * Tokenizes the name and markdown of a page. The {@code stamp} identifies the indexed revision of the page, so that
+     * a later synchronization only re-indexes pages whose stamp changed.
+     */
+    public static IndexedPage of(int pageId, String name, String stamp, String markdown) {
+        Map<String, Integer> frequencies = Tokenizer.termFrequencies(name + '\n' + markdown);
+        String[] terms = new String[frequencies.size()];
+        int[] counts = new int[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms[i] = entry.getKey();
+            counts[i] = entry.getValue();
+            i++;
+        }
+        return new IndexedPage(pageId, name, stamp, Tokenizer.length(frequencies), terms, counts);
+    }
+
+    public int pageId() {
+        return pageId;
+    }
+}
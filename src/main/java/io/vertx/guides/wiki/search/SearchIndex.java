@@ -0,0 +1,463 @@
+package io.vertx.guides.wiki.search;
+
+import io.vertx.core.json.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * In-memory inverted index of pages ranked with Okapi BM25.
+ * <p>
+ * Every page occupies a slot. For each term, a postings list holds one int per page containing the term: the slot in
+ * the high bits and the term frequency, capped at {@value #MAX_FREQUENCY}, in the low bits. Removing a page only marks
+ * its slot dead; a postings list is compacted once more than half of its entries are dead, and a slot is only reused
+ * once no postings list refers to it any more.
+ * <p>
+ * Not thread-safe: it is only used from the event loop of the database service owning it.
+ */
+public class SearchIndex {
+
+    private static final int FREQUENCY_BITS = 10;
+    private static final int MAX_FREQUENCY = (1 << FREQUENCY_BITS) - 1;
+    private static final int MAX_SLOTS = 1 << (32 - FREQUENCY_BITS);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int MAGIC = 0x57494B53;
+    private static final int FORMAT = 1;
+
+    // pageIds[slot] >= 0 for live pages, DEAD while postings still refer to a removed page, FREE otherwise
+    private static final int DEAD = -1;
+    private static final int FREE = -2;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+
+    private final Map<Integer, Integer> slotsByPage = new HashMap<>();
+    private int[] pageIds = new int[0];
+    private int[] lengths = new int[0];
+    private int[] references = new int[0];
+    private String[] names = new String[0];
+    private String[] stamps = new String[0];
+    private int[][] pageTerms = new int[0][];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private int documents;
+    private long totalLength;
+
+    // Scratch space reused by every query
+    private float[] scores = new float[0];
+    private int[] touched = new int[0];
+
+    public int documents() {
+        return documents;
+    }
+
+    public int terms() {
+        return terms.size();
+    }
+
+    /**
+     * The stamp the page was indexed with, or {@code null} if it is not indexed.
+     */
+    public String stamp(int pageId) {
+        Integer slot = slotsByPage.get(pageId);
+        return slot != null ? stamps[slot] : null;
+    }
+
+    public void forEachPageId(IntConsumer action) {
+        slotsByPage.keySet().forEach(action::accept);
+    }
+
+    /**
+     * Adds a page, replacing any previously indexed revision.
+     */
+    public void put(IndexedPage page) {
+        remove(page.pageId);
+        int slot = allocateSlot();
+        int[] pageTermIds = new int[page.terms.length];
+        for (int i = 0; i < page.terms.length; i++) {
+            int termId = termId(page.terms[i]);
+            pageTermIds[i] = termId;
+            postings.get(termId).add(slot << FREQUENCY_BITS | Math.min(page.frequencies[i], MAX_FREQUENCY));
+        }
+        pageIds[slot] = page.pageId;
+        lengths[slot] = page.length;
+        references[slot] = pageTermIds.length;
+        names[slot] = page.name;
+        stamps[slot] = page.stamp;
+        pageTerms[slot] = pageTermIds;
+        slotsByPage.put(page.pageId, slot);
+        documents++;
+        totalLength += page.length;
+    }
+
+    public boolean remove(int pageId) {
+        Integer slot = slotsByPage.remove(pageId);
+        if (slot == null) {
+            return false;
+        }
+        pageIds[slot] = DEAD;
+        names[slot] = null;
+        stamps[slot] = null;
+        documents--;
+        totalLength -= lengths[slot];
+        int[] removedTerms = pageTerms[slot];
+        pageTerms[slot] = null;
+        for (int termId : removedTerms) {
+            Postings list = postings.get(termId);
+            list.dead++;
+            if (list.dead * 2 > list.size) {
+                compact(list);
+            }
+        }
+        if (references[slot] == 0 && pageIds[slot] == DEAD) {
+            release(slot);
+        }
+        return true;
+    }
+
+    /**
+     * Pages matching any term of {@code query}, best first, as {@code id}/{@code name}/{@code score} objects.
+     */
+    public List<JsonObject> search(String query, int limit) {
+        if (documents == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        float averageLength = Math.max(1f, (float) totalLength / documents);
+        int touchedCount = 0;
+        for (String term : Tokenizer.queryTerms(query)) {
+            Integer termId = termIds.get(term);
+            if (termId == null) {
+                continue;
+            }
+            Postings list = postings.get(termId);
+            int frequency = list.size - list.dead;
+            if (frequency == 0) {
+                continue;
+            }
+            float idf = (float) Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+            int[] entries = list.entries;
+            for (int i = 0; i < list.size; i++) {
+                int slot = entries[i] >>> FREQUENCY_BITS;
+                if (pageIds[slot] < 0) {
+                    continue;
+                }
+                int tf = entries[i] & MAX_FREQUENCY;
+                float norm = K1 * (1 - B + B * lengths[slot] / averageLength);
+                if (scores[slot] == 0) {
+                    touched[touchedCount++] = slot;
+                }
+                scores[slot] += idf * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+        List<JsonObject> hits = topHits(touchedCount, limit);
+        for (int i = 0; i < touchedCount; i++) {
+            scores[touched[i]] = 0;
+        }
+        return hits;
+    }
+
+    private List<JsonObject> topHits(int touchedCount, int limit) {
+        int[] heap = new int[Math.min(limit, touchedCount)];
+        int size = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            if (size < heap.length) {
+                heap[size] = slot;
+                siftUp(heap, size++);
+            } else if (ranksBefore(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, size);
+            }
+        }
+        JsonObject[] hits = new JsonObject[size];
+        while (size > 0) {
+            int slot = heap[0];
+            hits[--size] = new JsonObject()
+                .put("id", pageIds[slot])
+                .put("name", names[slot])
+                .put("score", (double) scores[slot]);
+            heap[0] = heap[size];
+            siftDown(heap, size);
+        }
+        return Arrays.asList(hits);
+    }
+
+    // Min-heap on rank: the root is the weakest hit kept so far
+    private boolean ranksBefore(int slot, int other) {
+        return scores[slot] > scores[other] || (scores[slot] == scores[other] && pageIds[slot] < pageIds[other]);
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksBefore(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int weakest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (ranksBefore(heap[weakest], heap[child])) {
+                    weakest = child;
+                }
+            }
+            if (weakest == index) {
+                return;
+            }
+            swap(heap, index, weakest);
+            index = weakest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private int termId(String term) {
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+            termId = terms.size();
+            termIds.put(term, termId);
+            terms.add(term);
+            postings.add(new Postings(4));
+        }
+        return termId;
+    }
+
+    private void compact(Postings list) {
+        int kept = 0;
+        for (int i = 0; i < list.size; i++) {
+            int slot = list.entries[i] >>> FREQUENCY_BITS;
+            if (pageIds[slot] >= 0) {
+                list.entries[kept++] = list.entries[i];
+            } else if (--references[slot] == 0 && pageIds[slot] == DEAD) {
+                release(slot);
+            }
+        }
+        list.size = kept;
+        list.dead = 0;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == MAX_SLOTS) {
+            throw new IllegalStateException("Search index is full");
+        }
+        if (slotCount == pageIds.length) {
+            int capacity = Math.min(MAX_SLOTS, Math.max(64, slotCount * 2));
+            pageIds = Arrays.copyOf(pageIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            references = Arrays.copyOf(references, capacity);
+            names = Arrays.copyOf(names, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+            pageTerms = Arrays.copyOf(pageTerms, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            touched = Arrays.copyOf(touched, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void release(int slot) {
+        pageIds[slot] = FREE;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Copies the live content of the index, to be written by {@link Snapshot#writeTo(Path)} on another thread.
+     * Pages are renumbered densely, so the copy holds no dead entries.
+     */
+    public Snapshot snapshot() {
+        int[] ordinals = new int[slotCount];
+        int[] snapshotPageIds = new int[documents];
+        int[] snapshotLengths = new int[documents];
+        String[] snapshotNames = new String[documents];
+        String[] snapshotStamps = new String[documents];
+        int ordinal = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (pageIds[slot] >= 0) {
+                ordinals[slot] = ordinal;
+                snapshotPageIds[ordinal] = pageIds[slot];
+                snapshotLengths[ordinal] = lengths[slot];
+                snapshotNames[ordinal] = names[slot];
+                snapshotStamps[ordinal] = stamps[slot];
+                ordinal++;
+            }
+        }
+        List<String> snapshotTerms = new ArrayList<>();
+        List<int[]> snapshotPostings = new ArrayList<>();
+        for (int termId = 0; termId < terms.size(); termId++) {
+            Postings list = postings.get(termId);
+            int[] entries = new int[list.size - list.dead];
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.entries[i] >>> FREQUENCY_BITS;
+                if (pageIds[slot] >= 0) {
+                    entries[kept++] = ordinals[slot] << FREQUENCY_BITS | list.entries[i] & MAX_FREQUENCY;
+                }
+            }
+            if (kept > 0) {
+                snapshotTerms.add(terms.get(termId));
+                snapshotPostings.add(entries);
+            }
+        }
+        return new Snapshot(snapshotPageIds, snapshotLengths, snapshotNames, snapshotStamps, snapshotTerms,
+            snapshotPostings);
+    }
+
+    /**
+     * Loads an index written by {@link Snapshot#writeTo(Path)}.
+     *
+     * @throws IOException if the file cannot be read, or was written by another format or tokenizer version
+     */
+    public static SearchIndex readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || in.readInt() != Tokenizer.VERSION) {
+                throw new IOException("Unsupported search index file " + file);
+            }
+            SearchIndex index = new SearchIndex();
+            int count = in.readInt();
+            for (int slot = 0; slot < count; slot++) {
+                index.allocateSlot();
+                index.pageIds[slot] = in.readInt();
+                index.names[slot] = in.readUTF();
+                index.stamps[slot] = in.readUTF();
+                index.lengths[slot] = in.readInt();
+                index.slotsByPage.put(index.pageIds[slot], slot);
+                index.totalLength += index.lengths[slot];
+            }
+            index.documents = count;
+            int termCount = in.readInt();
+            for (int termId = 0; termId < termCount; termId++) {
+                index.termId(in.readUTF());
+                int size = in.readInt();
+                Postings list = index.postings.get(termId);
+                list.entries = new int[size];
+                for (int i = 0; i < size; i++) {
+                    int entry = in.readInt();
+                    list.entries[i] = entry;
+                    index.references[entry >>> FREQUENCY_BITS]++;
+                }
+                list.size = size;
+            }
+            int[] filled = new int[count];
+            for (int slot = 0; slot < count; slot++) {
+                index.pageTerms[slot] = new int[index.references[slot]];
+            }
+            for (int termId = 0; termId < termCount; termId++) {
+                Postings list = index.postings.get(termId);
+                for (int i = 0; i < list.size; i++) {
+                    int slot = list.entries[i] >>> FREQUENCY_BITS;
+                    index.pageTerms[slot][filled[slot]++] = termId;
+                }
+            }
+            return index;
+        }
+    }
+
+    private static final class Postings {
+        private int[] entries;
+        private int size;
+        private int dead;
+
+        private Postings(int capacity) {
+            this.entries = new int[capacity];
+        }
+
+        private void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(4, size * 2));
+            }
+            entries[size++] = entry;
+        }
+    }
+
+    /**
+     * Immutable copy of an index.
+     */
+    public static final class Snapshot {
+        private final int[] pageIds;
+        private final int[] lengths;
+        private final String[] names;
+        private final String[] stamps;
+        private final List<String> terms;
+        private final List<int[]> postings;
+
+        private Snapshot(int[] pageIds, int[] lengths, String[] names, String[] stamps, List<String> terms,
+                         List<int[]> postings) {
+            this.pageIds = pageIds;
+            this.lengths = lengths;
+            this.names = names;
+            this.stamps = stamps;
+            this.terms = terms;
+            this.postings = postings;
+        }
+
+        /**
+         * Writes to a temporary file next to {@code file}, then moves it in place so that a crash never leaves a
+         * truncated index behind.
+         */
+        public void writeTo(Path file) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT);
+                    out.writeInt(Tokenizer.VERSION);
+                    out.writeInt(pageIds.length);
+                    for (int i = 0; i < pageIds.length; i++) {
+                        out.writeInt(pageIds[i]);
+                        out.writeUTF(names[i]);
+                        out.writeUTF(stamps[i]);
+                        out.writeInt(lengths[i]);
+                    }
+                    out.writeInt(terms.size());
+                    for (int i = 0; i < terms.size(); i++) {
+                        int[] entries = postings.get(i);
+                        out.writeUTF(terms.get(i));
+                        out.writeInt(entries.length);
+                        for (int entry : entries) {
+                            out.writeInt(entry);
+                        }
+                    }
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+}
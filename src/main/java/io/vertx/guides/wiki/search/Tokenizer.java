@@ -0,0 +1,69 @@
+package io.vertx.guides.wiki.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into lower-cased runs of letters and digits. Markdown punctuation therefore never ends up in terms.
+ */
+public final class Tokenizer {
+
+    /**
+     * Bumped whenever tokenization changes, so that persisted indexes built with another version are discarded.
+     */
+    public static final int VERSION = 1;
+
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    public static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(text, token -> frequencies.merge(token, 1, Integer::sum));
+        return frequencies;
+    }
+
+    /**
+     * Distinct terms in order of first appearance.
+     */
+    public static List<String> queryTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(text, terms::add);
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Total number of tokens counted in {@code frequencies}, the document length used for BM25 normalization.
+     */
+    public static int length(Map<String, Integer> frequencies) {
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        return length;
+    }
+
+    private static void tokenize(String text, Consumer<String> sink) {
+        StringBuilder token = new StringBuilder(MAX_LENGTH);
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_LENGTH) {
+                    token.append(Character.toLowerCase(c));
+                }
+            } else if (token.length() > 0) {
+                if (token.length() >= MIN_LENGTH) {
+                    sink.accept(token.toString());
+                }
+                token.setLength(0);
+            }
+        }
+    }
+}
@@ -34,15 +34,72 @@ angular.module("wikiApp", [])
         var DEFAULT_PAGENAME = "Example page";
         var DEFAULT_MARKDOWN = "# Example page\n\nSome text _here_.\n";
 
+        // Replaced once the event bus is set up
+        var watchSaves = function (id) {
+        };
+
         $scope.newPage = function () {
+            watchSaves(undefined);
             $scope.pageId = undefined;
             $scope.pageName = DEFAULT_PAGENAME;
             $scope.pageMarkdown = DEFAULT_MARKDOWN;
         };
 
+        // The listing comes in pages: the following ones are fetched from the "next" cursor of each
         $scope.reload = function () {
-            $http.get("/api/pages").then(function (response) {
-                $scope.pages = response.data.pages;
+            var pages = [];
+            var fetch = function (after, seq) {
+                $http.get("/api/pages" + (after === undefined ? "" : "?after=" + after)).then(function (response) {
+                    pages = pages.concat(response.data.pages);
+                    seq = seq === undefined ? response.data.seq : seq;
+                    if (response.data.next !== undefined) {
+                        fetch(response.data.next, seq);
+                        return;
+                    }
+                    $scope.pages = pages;
+                    $scope.seq = seq;
+                });
+            };
+            fetch(undefined, undefined);
+        };
+
+        // Page list deltas are numbered: a gap means some were missed, and the missing ones are fetched
+        var applyChange = function (type, change) {
+            if ($scope.seq === undefined || change.seq <= $scope.seq) {
+                return;
+            }
+            if (change.seq > $scope.seq + 1) {
+                catchUp();
+                return;
+            }
+            $scope.seq = change.seq;
+            updatePages(type, change);
+        };
+
+        var updatePages = function (type, change) {
+            var index = $scope.pages.findIndex(function (page) { return page.id === change.id; });
+            if (type === "created" && index < 0) {
+                $scope.pages.push({"id": change.id, "name": change.name});
+            } else if (type === "renamed" && index >= 0) {
+                $scope.pages[index].name = change.name;
+                if ($scope.pageId === change.id) {
+                    $scope.pageName = change.name;
+                }
+            } else if (type === "deleted" && index >= 0) {
+                $scope.pages.splice(index, 1);
+            }
+        };
+
+        var catchUp = function () {
+            if ($scope.seq === undefined) {
+                return;
+            }
+            $http.get("/api/pages/changes?since=" + $scope.seq).then(function (response) {
+                response.data.changes.forEach(function (change) {
+                    applyChange(change.type, change);
+                });
+            }, function () {
+                $scope.reload();
             });
         };
 
@@ -54,6 +111,7 @@ angular.module("wikiApp", [])
             $scope.pageModified = false;
             $http.get("/api/pages/" + id).then(function(response) {
                 var page = response.data.page;
+                watchSaves(page.id);
                 $scope.pageId = page.id;
                 $scope.pageName = page.name;
                 $scope.pageMarkdown = page.markdown;
@@ -73,10 +131,9 @@ angular.module("wikiApp", [])
                     "markdown": $scope.pageMarkdown
                 };
                 $http.post("/api/pages", payload).then(function(ok) {
-                    $scope.reload();
+                    updatePages("created", {"id": ok.data.id, "name": payload.name});
                     $scope.success("Page created");
-                    var guessMaxId = _.maxBy($scope.pages, function(page) { return page.id; });
-                    $scope.load(guessMaxId.id || 0);
+                    $scope.load(ok.data.id);
                 }, function(err) {
                     $scope.error(err.data.error);
                 });
@@ -94,8 +151,9 @@ angular.module("wikiApp", [])
         };
 
         $scope.delete = function() {
-            $http.delete("/api/pages/" + $scope.pageId).then(function(ok) {
-                $scope.reload();
+            var id = $scope.pageId;
+            $http.delete("/api/pages/" + id).then(function(ok) {
+                updatePages("deleted", {"id": id});
                 $scope.newPage();
                 $scope.success("Page deleted");
             }, function(err) {
@@ -155,16 +213,48 @@ angular.module("wikiApp", [])
         // end::event-bus-js-setup[]
         // tag::register-page-saved-handler[]
         var clientUuid = generateUUID(); // <1>
+        eb.enableReconnect(true);
         eb.onopen = function () {
-            eb.registerHandler("page.saved", function (error, message) { // <2>
-                if (message.body // <3>
-                    && $scope.pageId === message.body.id // <4>
-                    && clientUuid !== message.body.client) { // <5>
-                    $scope.$apply(function () { // <6>
-                        $scope.pageModified = true; // <7>
-                    });
-                }
+            ["created", "renamed", "deleted"].forEach(function (type) {
+                eb.registerHandler("page." + type, function (error, message) {
+                    if (message.body) {
+                        $scope.$apply(function () {
+                            applyChange(type, message.body);
+                        });
+                    }
+                });
             });
+            catchUp();
+            if (savedAddress !== null) {
+                eb.registerHandler(savedAddress, onPageSaved);
+            }
+        };
+
+        // Only the saves of the page being edited are received
+        var savedAddress = null; // <2>
+        var onPageSaved = function (error, message) {
+            if (message.body // <3>
+                && $scope.pageId === message.body.id // <4>
+                && clientUuid !== message.body.client) { // <5>
+                $scope.$apply(function () { // <6>
+                    $scope.pageModified = true; // <7>
+                });
+            }
+        };
+        watchSaves = function (id) {
+            var address = id === undefined ? null : "page.saved." + id;
+            if (address === savedAddress) {
+                return;
+            }
+            if (eb.state === EventBus.OPEN) {
+                if (savedAddress !== null) {
+                    eb.unregisterHandler(savedAddress, onPageSaved);
+                }
+                if (address !== null) {
+                    eb.registerHandler(address, onPageSaved);
+                }
+            }
+            savedAddress = address;
         };
         // end::register-page-saved-handler[]
 
@@ -0,0 +1,74 @@
+package io.vertx.guides.wiki;
+
+import io.reactivex.Maybe;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.MaybeSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final List<MaybeSubject<String>> loads = new ArrayList<>();
+
+    private Maybe<String> loader() {
+        MaybeSubject<String> load = MaybeSubject.create();
+        loads.add(load);
+        return load;
+    }
+
+    @Test
+    public void concurrent_callers_share_one_load() {
+        LongAdder coalesced = new LongAdder();
+        SingleFlight<Integer, String> flight = new SingleFlight<>(coalesced);
+
+        TestObserver<String> first = flight.load(1, this::loader).test();
+        TestObserver<String> second = flight.load(1, this::loader).test();
+        flight.load(2, this::loader).test();
+        assertThat(loads).hasSize(2);
+        assertThat(coalesced.sum()).isEqualTo(1);
+
+        loads.get(0).onSuccess("one");
+        first.assertValue("one");
+        second.assertValue("one");
+
+        flight.load(1, this::loader).test().assertEmpty();
+        assertThat(loads).hasSize(3);
+    }
+
+    @Test
+    public void failed_loads_fail_every_caller_and_are_not_kept() {
+        SingleFlight<Integer, String> flight = new SingleFlight<>(new LongAdder());
+
+        TestObserver<String> first = flight.load(1, this::loader).test();
+        TestObserver<String> second = flight.load(1, this::loader).test();
+        IllegalStateException failure = new IllegalStateException("Load failed");
+        loads.get(0).onError(failure);
+        first.assertError(failure);
+        second.assertError(failure);
+
+        flight.load(1, this::loader).test();
+        assertThat(loads).hasSize(2);
+    }
+
+    @Test
+    public void forgotten_loads_are_not_joined() {
+        SingleFlight<Integer, String> flight = new SingleFlight<>(new LongAdder());
+
+        TestObserver<String> stale = flight.load(1, this::loader).test();
+        flight.forget(1);
+        TestObserver<String> fresh = flight.load(1, this::loader).test();
+        assertThat(loads).hasSize(2);
+
+        loads.get(0).onSuccess("before");
+        loads.get(1).onSuccess("after");
+        stale.assertValue("before");
+        fresh.assertValue("after");
+        flight.load(1, this::loader).test();
+        assertThat(loads).hasSize(3);
+    }
+}
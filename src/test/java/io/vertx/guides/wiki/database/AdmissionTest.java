@@ -0,0 +1,90 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.serviceproxy.ServiceException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionTest {
+
+    @Test
+    public void queues_then_rejects_beyond_budget() {
+        WikiMetrics metrics = new WikiMetrics();
+        Admission admission = new Admission("read", 2, 1, metrics);
+
+        admission.acquire().test().assertComplete();
+        admission.acquire().test().assertComplete();
+        TestObserver<Void> queued = admission.acquire().test();
+        queued.assertNotComplete();
+
+        TestObserver<Void> rejected = admission.acquire().test();
+        rejected.assertError(e -> ErrorCodes.isOverloaded(e) && e instanceof ServiceException);
+        assertThat(metrics.counter("wikidb.admission.rejected", "class", "read").sum()).isEqualTo(1);
+        assertThat(metrics.toJson().getLong("wikidb.admission.queued{class=read}")).isEqualTo(1);
+
+        admission.release();
+        queued.assertComplete();
+        assertThat(metrics.toJson().getLong("wikidb.admission.active{class=read}")).isEqualTo(2);
+        assertThat(metrics.toJson().getLong("wikidb.admission.queued{class=read}")).isEqualTo(0);
+    }
+
+    @Test
+    public void never_rejects_without_queue_bound() {
+        Admission admission = new Admission("background", 1, -1, new WikiMetrics());
+
+        admission.acquire().test().assertComplete();
+        TestObserver<Void> first = admission.acquire().test();
+        TestObserver<Void> second = admission.acquire().test();
+        first.assertNotComplete();
+        second.assertNotComplete();
+
+        admission.release();
+        first.assertComplete();
+        second.assertNotComplete();
+        admission.release();
+        second.assertComplete();
+    }
+
+    @Test
+    public void skips_waiters_given_up_on() {
+        WikiMetrics metrics = new WikiMetrics();
+        Admission admission = new Admission("read", 1, 2, metrics);
+
+        admission.acquire().test().assertComplete();
+        TestObserver<Void> abandoned = admission.acquire().test();
+        TestObserver<Void> waiting = admission.acquire().test();
+        abandoned.dispose();
+        assertThat(metrics.toJson().getLong("wikidb.admission.queued{class=read}")).isEqualTo(1);
+
+        admission.release();
+        waiting.assertComplete();
+        admission.release();
+        assertThat(metrics.toJson().getLong("wikidb.admission.active{class=read}")).isEqualTo(0);
+        admission.acquire().test().assertComplete();
+    }
+
+    @Test
+    public void releases_slots_of_work_disposed_once_admitted() {
+        WikiMetrics metrics = new WikiMetrics();
+        Admission admission = new Admission("read", 1, 1, metrics);
+
+        // Given up on as soon as it is granted the slot, before the work starts
+        TestObserver<Object> abandoned = new TestObserver<>();
+        admission.run(Single.defer(() -> {
+            abandoned.dispose();
+            return Single.never();
+        })).subscribe(abandoned);
+        assertThat(metrics.toJson().getLong("wikidb.admission.active{class=read}")).isEqualTo(0);
+
+        TestObserver<Object> running = admission.run(Single.never()).test();
+        TestObserver<Object> queued = admission.run(Single.never()).test();
+        running.dispose();
+        queued.dispose();
+        assertThat(metrics.toJson().getLong("wikidb.admission.active{class=read}")).isEqualTo(0);
+        admission.run(Single.just(1)).test().assertValue(1);
+        assertThat(metrics.toJson().getLong("wikidb.admission.active{class=read}")).isEqualTo(0);
+    }
+}
@@ -0,0 +1,105 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedPageStoreTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @Test
+    public void reads_back_writes_after_reopening(@TempDir Path dir) throws IOException {
+        MappedPageStore store = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        int first = store.create("First", "# One");
+        int second = store.create("Second", "# Two");
+        store.save(first, "# One, edited");
+        store.rename(second, "Renamed");
+        store.close();
+
+        MappedPageStore reopened = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        assertThat(reopened.get(first).getString(2)).isEqualTo("# One, edited");
+        assertThat(reopened.get(first).getLong(5)).isEqualTo(1);
+        assertThat(reopened.get("Renamed").getInteger(0)).isEqualTo(second);
+        assertThat(reopened.get("Second")).isNull();
+        assertThat(reopened.names()).containsExactly("First", "Renamed");
+        assertThat(reopened.create("Third", "# Three")).isEqualTo(2);
+    }
+
+    @Test
+    public void rejects_duplicate_names(@TempDir Path dir) throws IOException {
+        MappedPageStore store = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        int id = store.create("Page", "a");
+        store.create("Other", "b");
+
+        assertThatThrownBy(() -> store.create("Page", "c")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> store.rename(id, "Other")).isInstanceOf(IllegalStateException.class);
+        assertThat(store.importPages(Arrays.asList(
+            new JsonObject().put("name", "Page").put("markdown", "d"),
+            new JsonObject().put("name", "New").put("markdown", "e"),
+            new JsonObject().put("name", "New").put("markdown", "f")))).containsExactly(null, 2, null);
+    }
+
+    @Test
+    public void discards_torn_tail_on_recovery(@TempDir Path dir) throws IOException {
+        MappedPageStore store = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        int id = store.create("Page", "kept");
+        store.save(id, "torn");
+        store.close();
+
+        // Flip a byte of the content of the last record, as a crash in the middle of its write would leave it
+        try (FileChannel log = FileChannel.open(dir.resolve("0000000001.log"), StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            ByteBuffer contents = ByteBuffer.allocate(SEGMENT_BYTES);
+            log.read(contents, 0);
+            int tail = new String(contents.array(), "ISO-8859-1").lastIndexOf("torn");
+            log.write(ByteBuffer.wrap(new byte[]{'T'}), tail);
+        }
+
+        MappedPageStore recovered = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        assertThat(recovered.get(id).getString(2)).isEqualTo("kept");
+        recovered.save(id, "rewritten");
+        recovered.close();
+        assertThat(MappedPageStore.open(dir, SEGMENT_BYTES, true).get(id).getString(2)).isEqualTo("rewritten");
+    }
+
+    @Test
+    public void compaction_keeps_live_pages_and_deletions(@TempDir Path dir) throws IOException {
+        MappedPageStore store = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        int kept = store.create("Kept", "# Kept");
+        int deleted = store.create("Deleted", "# Deleted");
+        int edited = store.create("Edited", "# Edited");
+        char[] filler = new char[512];
+        Arrays.fill(filler, 'x');
+        for (int i = 0; i < 20; i++) {
+            store.save(edited, new String(filler) + i);
+        }
+        store.delete(deleted);
+        assertThat(store.segments()).isGreaterThan(2);
+
+        long before = store.totalBytes();
+        long reclaimed = store.compact(0.5);
+        assertThat(reclaimed).isPositive();
+        assertThat(store.totalBytes()).isEqualTo(before - reclaimed);
+        assertThat(store.get(kept).getString(2)).isEqualTo("# Kept");
+        assertThat(store.get(edited).getString(2)).isEqualTo(new String(filler) + 19);
+        store.close();
+
+        MappedPageStore reopened = MappedPageStore.open(dir, SEGMENT_BYTES, true);
+        assertThat(reopened.get(kept).getString(2)).isEqualTo("# Kept");
+        assertThat(reopened.get(deleted)).isNull();
+        assertThat(reopened.get(edited).getLong(5)).isEqualTo(20);
+        assertThat(reopened.pages()).isEqualTo(2);
+        assertThat(reopened.liveBytes()).isLessThanOrEqualTo(reopened.totalBytes());
+    }
+}
@@ -0,0 +1,55 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCacheTest {
+
+    private static JsonArray row(int id, String name, String content) {
+        return new JsonArray().add(id).add(name).add(content).addNull().addNull().add(0L).add("2020-01-01T00:00:00Z");
+    }
+
+    @Test
+    public void finds_rows_by_id_and_name() {
+        PageCache cache = new PageCache(10, 1024 * 1024, 0, new WikiMetrics());
+
+        cache.put(row(1, "One", "# One"), cache.generation());
+
+        assertThat(cache.get(1).getString(2)).isEqualTo("# One");
+        assertThat(cache.get("One").getInteger(0)).isEqualTo(1);
+
+        cache.invalidate(1);
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get("One")).isNull();
+    }
+
+    @Test
+    public void ignores_rows_loaded_before_an_invalidation() {
+        PageCache cache = new PageCache(10, 1024 * 1024, 0, new WikiMetrics());
+
+        long generation = cache.generation();
+        cache.invalidate(1);
+        cache.put(row(1, "One", "stale"), generation);
+
+        assertThat(cache.get(1)).isNull();
+    }
+
+    @Test
+    public void evicts_over_entry_limit() {
+        WikiMetrics metrics = new WikiMetrics();
+        PageCache cache = new PageCache(2, 1024 * 1024, 0, metrics);
+
+        cache.put(row(1, "One", "1"), cache.generation());
+        cache.put(row(2, "Two", "2"), cache.generation());
+        cache.get(1);
+        cache.put(row(3, "Three", "3"), cache.generation());
+
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get("Two")).isNull();
+        assertThat(cache.get(1)).isNotNull();
+        assertThat(metrics.counter("wikidb.cache.evictions").sum()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,84 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Completable;
+import io.vertx.core.Vertx;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class SaveCoalescerTest {
+
+    private final List<String> writes = new ArrayList<>();
+
+    private SaveCoalescer coalescer(Vertx vertx, long window, SaveCoalescer.Durability durability, Path journal,
+                                    WikiMetrics metrics) {
+        return new SaveCoalescer(new io.vertx.reactivex.core.Vertx(vertx), window, durability, journal,
+            (id, markdown, client) -> Completable.fromAction(() -> writes.add(id + ":" + markdown + ":" + client)),
+            metrics);
+    }
+
+    @Test
+    public void writes_last_save_of_window_once(Vertx vertx, VertxTestContext context) {
+        WikiMetrics metrics = new WikiMetrics();
+        vertx.runOnContext(v -> {
+            SaveCoalescer saves = coalescer(vertx, 50, SaveCoalescer.Durability.FLUSH, null, metrics);
+            Completable.mergeArray(saves.save(1, "a", "c1"), saves.save(1, "b", "c2"), saves.save(2, "x", "c1"))
+                .subscribe(() -> context.verify(() -> {
+                    assertThat(writes).containsExactlyInAnyOrder("1:b:c2", "2:x:c1");
+                    assertThat(metrics.counter("wikidb.write_behind.coalesced").sum()).isEqualTo(1);
+                    assertThat(metrics.counter("wikidb.write_behind.flushes").sum()).isEqualTo(2);
+                    context.completeNow();
+                }), context::failNow);
+        });
+    }
+
+    @Test
+    public void acknowledges_in_memory_and_flushes_on_demand(Vertx vertx, VertxTestContext context) {
+        vertx.runOnContext(v -> {
+            SaveCoalescer saves = coalescer(vertx, 60_000, SaveCoalescer.Durability.MEMORY, null, new WikiMetrics());
+            saves.save(1, "a", "c1").subscribe(() -> context.verify(() -> {
+                assertThat(writes).isEmpty();
+                assertThat(saves.dirty(1)).isTrue();
+                saves.flush(1).subscribe(() -> context.verify(() -> {
+                    assertThat(writes).containsExactly("1:a:c1");
+                    assertThat(saves.dirty(1)).isFalse();
+                    context.completeNow();
+                }), context::failNow);
+            }), context::failNow);
+        });
+    }
+
+    @Test
+    public void replays_journal_after_a_crash(Vertx vertx, VertxTestContext context, @TempDir Path dir) {
+        Path journal = dir.resolve("wiki.journal");
+        vertx.runOnContext(v -> {
+            SaveCoalescer crashed = coalescer(vertx, 60_000, SaveCoalescer.Durability.JOURNAL, journal,
+                new WikiMetrics());
+            crashed.open()
+                .andThen(Completable.concatArray(
+                    crashed.save(1, "a", "c1"),
+                    crashed.save(2, "b", "c1"),
+                    crashed.save(1, "c", "c2")))
+                .andThen(Completable.defer(() -> {
+                    assertThat(writes).isEmpty();
+                    return coalescer(vertx, 60_000, SaveCoalescer.Durability.JOURNAL, journal, new WikiMetrics())
+                        .open();
+                }))
+                .subscribe(() -> context.verify(() -> {
+                    assertThat(writes).containsExactly("2:b:c1", "1:c:c2");
+                    assertThat(SaveCoalescer.readJournal(journal)).isEmpty();
+                    context.completeNow();
+                }), context::failNow);
+        });
+    }
+}
@@ -0,0 +1,171 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class ShardedWikiDatabaseServiceTest {
+
+    private static final int SHARDS = 3;
+
+    private io.vertx.guides.wiki.database.reactivex.WikiDatabaseService service;
+
+    @BeforeEach
+    void prepare(Vertx vertx, VertxTestContext context) {
+        JsonObject config = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:shards;shutdown=true")
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4)
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_SHARDS, SHARDS);
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config), context.completing());
+        service = io.vertx.guides.wiki.database.reactivex.WikiDatabaseService.newInstance(
+            WikiDatabaseService.createProxy(vertx, WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE));
+    }
+
+    @AfterEach
+    void finish(Vertx vertx, VertxTestContext context) {
+        vertx.close(context.completing());
+    }
+
+    private static int shardOf(String name) {
+        return Math.floorMod(name.hashCode(), SHARDS);
+    }
+
+    /**
+     * A name hashing to another shard than {@code name}, so renaming a page to it leaves the page away from its home.
+     */
+    private static String otherShardName(String name) {
+        return IntStream.range(0, 100)
+            .mapToObj(i -> "Renamed " + i)
+            .filter(candidate -> shardOf(candidate) != shardOf(name))
+            .findFirst()
+            .get();
+    }
+
+    @Test
+    public void places_pages_by_name_and_merges_listings(VertxTestContext context) {
+        List<String> names = Arrays.asList("Echo", "Alpha", "Delta", "Charlie", "Bravo", "Foxtrot");
+        List<Integer> ids = new ArrayList<>();
+
+        Flowable.fromIterable(names)
+            .concatMapSingle(name -> service.rxCreatePage(name, "# " + name))
+            .doOnNext(ids::add)
+            .ignoreElements()
+            .andThen(service.rxFetchAllPages())
+            .flatMap(all -> {
+                context.verify(() -> {
+                    for (int i = 0; i < names.size(); i++) {
+                        assertThat(Math.floorMod(ids.get(i), SHARDS)).isEqualTo(shardOf(names.get(i)));
+                    }
+                    assertThat(ids).doesNotHaveDuplicates();
+                    assertThat(all.getList()).containsExactly("Alpha", "Bravo", "Charlie", "Delta", "Echo", "Foxtrot");
+                });
+                return service.rxFetchPagesSummary(-1, 4);
+            })
+            .subscribe(first -> context.verify(() -> {
+                assertThat(first.stream().map(page -> page.getInteger("id")).collect(Collectors.toList()))
+                    .containsExactlyElementsOf(ids.stream().sorted().limit(4).collect(Collectors.toList()));
+                context.completeNow();
+            }), context::failNow);
+    }
+
+    @Test
+    public void exports_pages_of_every_shard_by_id(Vertx vertx, VertxTestContext context) {
+        List<Integer> ids = new ArrayList<>();
+        List<Integer> exported = new ArrayList<>();
+        vertx.eventBus().<io.vertx.core.json.JsonArray>consumer("export.sharded", msg -> {
+            msg.body().forEach(page -> exported.add(((JsonObject) page).getInteger("id")));
+            msg.reply(null);
+        });
+
+        Flowable.range(0, 8)
+            .concatMapSingle(i -> service.rxCreatePage("Page " + i, "# " + i))
+            .doOnNext(ids::add)
+            .ignoreElements()
+            .andThen(service.rxExportPages("export.sharded", 3))
+            .subscribe(count -> context.verify(() -> {
+                assertThat(count).isEqualTo(8);
+                assertThat(ids.stream().map(id -> Math.floorMod(id, SHARDS)).distinct().count()).isGreaterThan(1);
+                assertThat(exported).containsExactlyElementsOf(ids.stream().sorted().collect(Collectors.toList()));
+                context.completeNow();
+            }), context::failNow);
+    }
+
+    @Test
+    public void finds_renamed_pages_on_their_shard(VertxTestContext context) {
+        String name = "Page";
+        String renamed = otherShardName(name);
+
+        service.rxCreatePage(name, "# Page")
+            .flatMap(id -> service.rxRenamePage(id, renamed)
+                .flatMap(done -> service.rxFetchPage(renamed))
+                .flatMap(page -> {
+                    context.verify(() -> assertThat(page.getInteger("id")).isEqualTo(id));
+                    return service.rxFetchPagesByNames(Arrays.asList(name, renamed));
+                })
+                .flatMap(pages -> {
+                    context.verify(() -> assertThat(pages).extracting(page -> page.getInteger("id")).containsExactly(id));
+                    return service.rxCreatePage(renamed, "# Duplicate");
+                }))
+            .subscribe(
+                id -> context.failNow(new AssertionError("Created a second page named " + renamed)),
+                t -> context.verify(() -> {
+                    assertThat(t).hasMessageContaining("already exists");
+                    context.completeNow();
+                }));
+    }
+
+    @Test
+    public void keeps_names_unique_under_concurrent_writes(VertxTestContext context) {
+        String name = "Page";
+        String contested = otherShardName(name);
+
+        // The rename claims the name on its home shard, where the creation claims it too
+        service.rxCreatePage(name, "# Page")
+            .flatMap(id -> Single.zip(
+                service.rxRenamePage(id, contested).onErrorReturnItem(false),
+                service.rxCreatePage(contested, "# Contested").map(created -> true).onErrorReturnItem(false),
+                (renamed, created) -> Arrays.asList(renamed, created)))
+            .flatMap(outcomes -> {
+                context.verify(() -> assertThat(outcomes).containsExactlyInAnyOrder(true, false));
+                return service.rxFetchAllPages();
+            })
+            .subscribe(all -> context.verify(() -> {
+                assertThat(Collections.frequency(all.getList(), contested)).isEqualTo(1);
+                context.completeNow();
+            }), context::failNow);
+    }
+
+    @Test
+    public void releases_names_given_up(VertxTestContext context) {
+        String name = "Page";
+        String renamed = otherShardName(name);
+
+        service.rxCreatePage(name, "# Page")
+            .flatMap(id -> service.rxRenamePage(id, renamed)
+                .flatMap(done -> service.rxCreatePage(name, "# Page again"))
+                .flatMap(again -> service.rxDeletePage(id).andThen(service.rxCreatePage(renamed, "# Renamed again"))))
+            .flatMap(id -> service.rxFetchAllPages())
+            .subscribe(all -> context.verify(() -> {
+                assertThat(all.getList()).containsExactly(name, renamed);
+                context.completeNow();
+            }), context::failNow);
+    }
+}
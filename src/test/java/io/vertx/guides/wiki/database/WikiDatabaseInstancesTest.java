@@ -0,0 +1,94 @@
+package io.vertx.guides.wiki.database;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class WikiDatabaseInstancesTest {
+
+    private static final int INSTANCES = 2;
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void prepare(Vertx vertx, VertxTestContext context) {
+        this.vertx = vertx;
+        JsonObject config = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:instances;shutdown=true")
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4)
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCES, INSTANCES);
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions()
+            .setConfig(config.copy().put(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCE, 0)), context.succeeding(
+            first -> vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions()
+                .setConfig(config.copy().put(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCE, 1)), context.completing())));
+    }
+
+    @AfterEach
+    void finish(VertxTestContext context) {
+        vertx.close(context.completing());
+    }
+
+    private io.vertx.guides.wiki.database.reactivex.WikiDatabaseService instance(int instance) {
+        return io.vertx.guides.wiki.database.reactivex.WikiDatabaseService.newInstance(WikiDatabaseService
+            .createLocalProxy(vertx, WikiDatabaseVerticle.instanceAddress(WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE,
+                instance), new DeliveryOptions()));
+    }
+
+    @Test
+    public void other_instances_read_writes_once_acknowledged(VertxTestContext context) {
+        io.vertx.guides.wiki.database.reactivex.WikiDatabaseService routed =
+            io.vertx.guides.wiki.database.reactivex.WikiDatabaseService.newInstance(WikiDatabaseService
+                .createRoutedProxy(vertx, WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE, INSTANCES, new DeliveryOptions()));
+
+        routed.rxCreatePage("Page", "# One")
+            .flatMap(id -> {
+                // The instance not owning the page caches it, then has to notice the save made by the owner
+                io.vertx.guides.wiki.database.reactivex.WikiDatabaseService other = instance((id + 1) % INSTANCES);
+                return other.rxFetchPageById(id)
+                    .flatMapCompletable(page -> routed.rxSavePage(id, "# Two", "test"))
+                    .andThen(other.rxFetchPageById(id));
+            })
+            .subscribe(page -> context.verify(() -> {
+                assertThat(page.getString("content")).isEqualTo("# Two");
+                assertThat(page.getLong("version")).isEqualTo(1);
+                context.completeNow();
+            }), context::failNow);
+    }
+
+    @Test
+    public void gauges_are_reported_per_instance(VertxTestContext context) {
+        context.verify(() -> {
+            JsonObject metrics = WikiMetrics.get(vertx).toJson();
+            for (int instance = 0; instance < INSTANCES; instance++) {
+                assertThat(metrics.getLong("wikidb.pool.max_size{instance=" + instance + "}")).isEqualTo(4);
+                assertThat(metrics.getLong("wikidb.admission.concurrency{class=read,instance=" + instance + "}"))
+                    .isNotNull();
+            }
+            assertThat(metrics.containsKey("wikidb.pool.max_size")).isFalse();
+            context.completeNow();
+        });
+    }
+
+    @Test
+    public void rejects_several_instances_of_single_instance_backends(VertxTestContext context) {
+        JsonObject config = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_BACKEND, "mapped")
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_INSTANCES, INSTANCES);
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config), context.failing(
+            t -> context.verify(() -> {
+                assertThat(t).isInstanceOf(IllegalArgumentException.class);
+                context.completeNow();
+            })));
+    }
+}
@@ -0,0 +1,98 @@
+package io.vertx.guides.wiki.database;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads through the page cache of the database service.
+ */
+@ExtendWith(VertxExtension.class)
+class WikiDatabaseServiceImplTest {
+
+    private io.vertx.guides.wiki.database.reactivex.WikiDatabaseService service;
+    private Timer pageQueries;
+
+    @BeforeEach
+    void prepare(Vertx vertx, VertxTestContext context) {
+        JsonObject config = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:impl;shutdown=true")
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4);
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config), context.completing());
+        service = io.vertx.guides.wiki.database.reactivex.WikiDatabaseService.newInstance(
+            WikiDatabaseService.createProxy(vertx, WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE));
+        pageQueries = WikiMetrics.get(vertx).timer("wikidb.query.time", "operation", "fetchPageById");
+    }
+
+    @AfterEach
+    void finish(Vertx vertx, VertxTestContext context) {
+        vertx.close(context.completing());
+    }
+
+    /**
+     * Imports do not go through the cache, so the page is loaded from the database on its first read.
+     */
+    private Single<Integer> importPage(String name, String markdown) {
+        JsonObject page = new JsonObject().put("name", name).put("markdown", markdown);
+        return service.rxImportPages(Collections.singletonList(page))
+            .map(result -> result.getJsonArray("pages").getJsonObject(0).getInteger("id"));
+    }
+
+    @Test
+    public void cache_hits_skip_jdbc(VertxTestContext context) {
+        importPage("Cached", "# Cached")
+            .flatMap(id -> service.rxFetchPageById(id)
+                .flatMap(first -> {
+                    long queries = pageQueries.count();
+                    return Flowable.range(0, 3)
+                        .concatMapSingle(i -> service.rxFetchPageById(id))
+                        .toList()
+                        .map(pages -> {
+                            assertThat(pages).allMatch(page -> "# Cached".equals(page.getString("content")));
+                            return pageQueries.count() - queries;
+                        });
+                }))
+            .subscribe(queries -> context.verify(() -> {
+                assertThat(queries).isZero();
+                context.completeNow();
+            }), context::failNow);
+    }
+
+    @Test
+    public void reads_after_a_save_see_it_despite_loads_in_flight(VertxTestContext context) {
+        importPage("Saved", "# One")
+            .flatMap(id -> {
+                // Loads started before the save may read the old row, and must not cache it once the save is done
+                Single<Object> inFlight = Flowable.range(0, 4)
+                    .flatMapSingle(i -> service.rxFetchPageById(id))
+                    .ignoreElements()
+                    .toSingleDefault(id);
+                Single<Object> saved = service.rxSavePage(id, "# Two", "test").toSingleDefault(id);
+                return Single.zip(inFlight, saved, (loaded, done) -> id)
+                    .flatMap(done -> service.rxFetchPageById(id))
+                    .flatMap(afterSave -> {
+                        assertThat(afterSave.getString("content")).isEqualTo("# Two");
+                        return service.rxFetchPageById(id);
+                    });
+            })
+            .subscribe(page -> context.verify(() -> {
+                assertThat(page.getString("content")).isEqualTo("# Two");
+                assertThat(page.getLong("version")).isEqualTo(1);
+                context.completeNow();
+            }), context::failNow);
+    }
+}
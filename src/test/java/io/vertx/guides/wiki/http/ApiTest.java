@@ -4,6 +4,7 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpResponse;
@@ -11,6 +12,9 @@ import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.codec.BodyCodec;
 import io.vertx.guides.wiki.database.WikiDatabaseVerticle;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.guides.wiki.render.RenderVerticle;
+import io.vertx.junit5.Checkpoint;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import org.junit.jupiter.api.AfterEach;
@@ -18,14 +22,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(VertxExtension.class)
 class ApiTest {
 
-    private WebClient webClient;
+    WebClient webClient;
 
     @Test
     public void play_with_api(VertxTestContext context) throws InterruptedException {
@@ -39,6 +53,9 @@ class ApiTest {
             .sendJsonObject(page, postPagePromise);
 
         Future<HttpResponse<JsonObject>> getPageFuture = postPagePromise.future().compose(resp -> {
+            assertThat(resp.statusCode()).isEqualTo(201);
+            assertThat(resp.body().getInteger("id")).isEqualTo(0);
+            assertThat(resp.getHeader("Location")).isEqualTo("/api/pages/0");
             Promise<HttpResponse<JsonObject>> promise = Promise.promise();
             webClient.get("/api/pages")
                 .as(BodyCodec.jsonObject())
@@ -124,17 +141,534 @@ class ApiTest {
         context.awaitCompletion(5000, TimeUnit.MILLISECONDS);
     }
 
+    @Test
+    public void render_large_markdown_on_worker_pool(VertxTestContext context) {
+        StringBuilder markdown = new StringBuilder();
+        while (markdown.length() < 64 * 1024) {
+            markdown.append("Some *text* here.\n\n");
+        }
 
-    @BeforeEach
-    void prepare(Vertx vertx, VertxTestContext context) {
-        JsonObject dbConf = new JsonObject()
+        webClient.post("/app/markdown")
+            .as(BodyCodec.string())
+            .sendBuffer(Buffer.buffer(markdown.toString()), context.succeeding(resp -> context.verify(() -> {
+                assertThat(resp.statusCode()).isEqualTo(200);
+                assertThat(resp.body()).startsWith("<p>Some <em>text</em> here.</p>");
+                context.completeNow();
+            })));
+    }
+
+    @Test
+    public void export_pages_as_ndjson(VertxTestContext context) {
+        Future<Void> created = Future.succeededFuture();
+        for (int i = 0; i < 3; i++) {
+            JsonObject page = new JsonObject()
+                .put("name", "Page " + i)
+                .put("markdown", "Content " + i);
+            created = created.compose(v -> {
+                Promise<HttpResponse<Buffer>> promise = Promise.promise();
+                webClient.post("/api/pages").sendJsonObject(page, promise);
+                return promise.future().mapEmpty();
+            });
+        }
+
+        created.compose(v -> {
+            Promise<HttpResponse<String>> promise = Promise.promise();
+            webClient.get("/api/export")
+                .as(BodyCodec.string())
+                .send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(resp.getHeader("Content-Type")).isEqualTo("application/x-ndjson");
+            String[] lines = resp.body().split("\n");
+            assertThat(lines).hasSize(3);
+            JsonObject last = new JsonObject(lines[2]);
+            assertThat(last.getString("name")).isEqualTo("Page 2");
+            assertThat(last.getString("markdown")).isEqualTo("Content 2");
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void import_pages_from_ndjson(VertxTestContext context) {
+        String body = "{\"name\":\"One\",\"markdown\":\"# One\"}\n"
+            + "{\"name\":\"Two\",\"markdown\":\"# Two\"}\n"
+            + "not json\n"
+            + "\n"
+            + "{\"name\":\"One\",\"markdown\":\"# Again\"}";
+
+        Promise<HttpResponse<JsonObject>> imported = Promise.promise();
+        webClient.post("/api/import")
+            .as(BodyCodec.jsonObject())
+            .sendBuffer(Buffer.buffer(body), imported);
+
+        imported.future().compose(resp -> {
+            JsonObject report = resp.body().getJsonObject("import");
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(report.getInteger("imported")).isEqualTo(2);
+            assertThat(report.getJsonArray("conflicts").getJsonObject(0).getInteger("line")).isEqualTo(5);
+            assertThat(report.getJsonArray("conflicts").getJsonObject(0).getString("name")).isEqualTo("One");
+            assertThat(report.getJsonArray("invalid").getJsonObject(0).getInteger("line")).isEqualTo(3);
+            Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+            webClient.get("/api/pages/changes").addQueryParam("since", "0").as(BodyCodec.jsonObject()).send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            // Imported pages reach the clients keeping their page list in sync like created ones
+            JsonArray changes = resp.body().getJsonArray("changes");
+            assertThat(resp.body().getLong("seq")).isEqualTo(2);
+            assertThat(changes.getJsonObject(0).getString("type")).isEqualTo("created");
+            assertThat(changes.getJsonObject(0).getString("name")).isEqualTo("One");
+            assertThat(changes.getJsonObject(1).getString("name")).isEqualTo("Two");
+            assertThat(changes.getJsonObject(1).getInteger("id")).isEqualTo(1);
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void import_failing_partway(VertxTestContext context) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            // A name too long for the database fails the first of three batches
+            String name = i == 10 ? String.join("", Collections.nCopies(300, "x")) : "Page " + i;
+            body.append(new JsonObject().put("name", name).put("markdown", "# " + i).encode()).append('\n');
+        }
+
+        Promise<HttpResponse<JsonObject>> imported = Promise.promise();
+        webClient.post("/api/import")
+            .as(BodyCodec.jsonObject())
+            .sendBuffer(Buffer.buffer(body.toString()), imported);
+
+        imported.future().compose(resp -> {
+            assertThat(resp.statusCode()).isEqualTo(500);
+            assertThat(resp.body().getBoolean("success")).isFalse();
+            Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+            webClient.get("/api/pages").as(BodyCodec.jsonObject()).send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(resp.body().getJsonArray("pages")).isEmpty();
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void conditional_get_with_etag(VertxTestContext context) {
+        JsonObject page = new JsonObject()
+            .put("name", "Cached")
+            .put("markdown", "# Cached");
+
+        Promise<HttpResponse<Buffer>> created = Promise.promise();
+        webClient.post("/api/pages").sendJsonObject(page, created);
+
+        created.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(resp.getHeader("Last-Modified")).isNotNull();
+            String etag = resp.getHeader("ETag");
+            assertThat(etag).isNotNull();
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").putHeader("If-None-Match", etag).send(promise);
+            return promise.future().map(notModified -> {
+                assertThat(notModified.statusCode()).isEqualTo(304);
+                assertThat(notModified.body()).isNull();
+                return etag;
+            });
+        }).compose(etag -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.put("/api/pages/0").sendJsonObject(new JsonObject().put("markdown", "# Changed"), promise);
+            return promise.future().compose(resp -> {
+                Promise<HttpResponse<Buffer>> conditional = Promise.promise();
+                webClient.get("/api/pages/0").putHeader("If-None-Match", etag).send(conditional);
+                return conditional.future();
+            });
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(resp.bodyAsJsonObject().getJsonObject("page").getString("markdown")).isEqualTo("# Changed");
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void page_list_in_pages(VertxTestContext context) {
+        Future<Void> created = Future.succeededFuture();
+        for (int i = 0; i < 3; i++) {
+            JsonObject page = new JsonObject()
+                .put("name", "Page " + i)
+                .put("markdown", "Content " + i);
+            created = created.compose(v -> {
+                Promise<HttpResponse<Buffer>> promise = Promise.promise();
+                webClient.post("/api/pages").sendJsonObject(page, promise);
+                return promise.future().mapEmpty();
+            });
+        }
+
+        created.compose(v -> {
+            Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+            webClient.get("/api/pages").addQueryParam("limit", "2").as(BodyCodec.jsonObject()).send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            JsonArray pages = resp.body().getJsonArray("pages");
+            assertThat(pages.size()).isEqualTo(2);
+            assertThat(pages.getJsonObject(0).getString("name")).isEqualTo("Page 0");
+            assertThat(resp.body().getInteger("next")).isEqualTo(1);
+            Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+            webClient.get("/api/pages")
+                .addQueryParam("after", String.valueOf(resp.body().getInteger("next")))
+                .addQueryParam("limit", "2")
+                .as(BodyCodec.jsonObject())
+                .send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            JsonArray pages = resp.body().getJsonArray("pages");
+            assertThat(pages.size()).isEqualTo(1);
+            assertThat(pages.getJsonObject(0).getString("name")).isEqualTo("Page 2");
+            assertThat(resp.body().containsKey("next")).isFalse();
+            Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+            webClient.get("/api/pages").addQueryParam("limit", "none").as(BodyCodec.jsonObject()).send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(400);
+            assertThat(resp.body().getBoolean("success")).isFalse();
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void page_saved_event(Vertx vertx, VertxTestContext context) {
+        vertx.eventBus().<JsonObject>consumer("page.saved", msg -> context.verify(() -> {
+            assertThat(msg.body().getInteger("id")).isEqualTo(0);
+            assertThat(msg.body().getString("client")).isEqualTo("editor-1");
+            assertThat(msg.body().getLong("version")).isEqualTo(1);
+            context.completeNow();
+        }));
+
+        Promise<HttpResponse<Buffer>> created = Promise.promise();
+        webClient.post("/api/pages").sendJsonObject(new JsonObject()
+            .put("name", "Saved")
+            .put("markdown", "# Draft"), created);
+
+        created.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.put("/api/pages/0").sendJsonObject(new JsonObject()
+                .put("client", "editor-1")
+                .put("markdown", "# Final"), promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> assertThat(resp.statusCode()).isEqualTo(200))));
+    }
+
+    @Test
+    public void page_list_changes(Vertx vertx, VertxTestContext context) {
+        Checkpoint published = context.checkpoint(4);
+        for (String type : new String[]{"created", "renamed", "deleted"}) {
+            vertx.eventBus().<JsonObject>consumer("page." + type, msg -> published.flag());
+        }
+
+        Promise<HttpResponse<Buffer>> created = Promise.promise();
+        webClient.post("/api/pages").sendJsonObject(new JsonObject()
+            .put("name", "Draft")
+            .put("markdown", "# Draft"), created);
+
+        created.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.put("/api/pages/0/name").sendJsonObject(new JsonObject().put("name", "Final"), promise);
+            return promise.future();
+        }).compose(resp -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonObject listing = resp.bodyAsJsonObject();
+            assertThat(listing.getLong("seq")).isEqualTo(2);
+            assertThat(listing.getJsonArray("pages").getJsonObject(0).getString("name")).isEqualTo("Final");
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.delete("/api/pages/0").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/changes").addQueryParam("since", "1").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonObject body = resp.bodyAsJsonObject();
+            assertThat(body.getLong("seq")).isEqualTo(3);
+            assertThat(body.getJsonArray("changes").getJsonObject(0).getString("type")).isEqualTo("renamed");
+            assertThat(body.getJsonArray("changes").getJsonObject(1).getString("type")).isEqualTo("deleted");
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/changes").addQueryParam("since", "42").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(410);
+            published.flag();
+        })));
+    }
+
+    @Test
+    public void full_text_search(VertxTestContext context) {
+        Promise<HttpResponse<Buffer>> first = Promise.promise();
+        webClient.post("/api/pages").sendJsonObject(new JsonObject()
+            .put("name", "Event loop")
+            .put("markdown", "Never block the event loop, the event loop serves every request."), first);
+
+        first.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.post("/api/pages").sendJsonObject(new JsonObject()
+                .put("name", "Workers")
+                .put("markdown", "Blocking code runs on worker threads, away from the event loop."), promise);
+            return promise.future();
+        }).compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/search").addQueryParam("q", "Event LOOP").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonArray results = resp.bodyAsJsonObject().getJsonArray("results");
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(results.size()).isEqualTo(2);
+            assertThat(results.getJsonObject(0).getString("name")).isEqualTo("Event loop");
+            assertThat(results.getJsonObject(0).getDouble("score")).isGreaterThan(results.getJsonObject(1).getDouble("score"));
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.put("/api/pages/" + results.getJsonObject(1).getInteger("id"))
+                .sendJsonObject(new JsonObject().put("markdown", "Verticles deployed as workers."), promise);
+            return promise.future();
+        }).compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/search").addQueryParam("q", "verticles").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonArray results = resp.bodyAsJsonObject().getJsonArray("results");
+            assertThat(results.size()).isEqualTo(1);
+            assertThat(results.getJsonObject(0).getString("name")).isEqualTo("Workers");
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.delete("/api/pages/" + results.getJsonObject(0).getInteger("id")).send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/search").addQueryParam("q", "workers loop").send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonArray results = resp.bodyAsJsonObject().getJsonArray("results");
+            assertThat(results.size()).isEqualTo(1);
+            assertThat(results.getJsonObject(0).getString("name")).isEqualTo("Event loop");
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/search").addQueryParam("q", " ").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(400);
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void fetch_pages_in_batch(VertxTestContext context) {
+        Future<Void> created = Future.succeededFuture();
+        for (int i = 0; i < 3; i++) {
+            JsonObject page = new JsonObject()
+                .put("name", "Page " + i)
+                .put("markdown", "# Title " + i);
+            created = created.compose(v -> {
+                Promise<HttpResponse<Buffer>> promise = Promise.promise();
+                webClient.post("/api/pages").sendJsonObject(page, promise);
+                return promise.future().mapEmpty();
+            });
+        }
+
+        created.compose(v -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/batch")
+                .addQueryParam("ids", "2,0,42")
+                .addQueryParam("ids", "2")
+                .addQueryParam("render", "true")
+                .send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonObject body = resp.bodyAsJsonObject();
+            JsonArray pages = body.getJsonArray("pages");
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(pages.size()).isEqualTo(2);
+            assertThat(pages.getJsonObject(0).getString("name")).isEqualTo("Page 2");
+            assertThat(pages.getJsonObject(0).getString("html")).startsWith("<h1>Title 2</h1>");
+            assertThat(pages.getJsonObject(1).getString("markdown")).isEqualTo("# Title 0");
+            assertThat(body.getJsonArray("missing").getList()).containsExactly(42);
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/batch")
+                .addQueryParam("name", "Page 1")
+                .addQueryParam("name", "Nope")
+                .send(promise);
+            return promise.future();
+        }).compose(resp -> {
+            JsonObject body = resp.bodyAsJsonObject();
+            assertThat(body.getJsonArray("pages").size()).isEqualTo(1);
+            assertThat(body.getJsonArray("pages").getJsonObject(0).getInteger("id")).isEqualTo(1);
+            assertThat(body.getJsonArray("pages").getJsonObject(0).containsKey("html")).isFalse();
+            assertThat(body.getJsonArray("missing").getList()).containsExactly("Nope");
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/batch").addQueryParam("ids", "1,x").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(400);
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void gzip_compression(Vertx vertx, VertxTestContext context) {
+        StringBuilder markdown = new StringBuilder("# Compressible\n\n");
+        for (int i = 0; i < 200; i++) {
+            markdown.append("The same sentence, over and over again.\n");
+        }
+        Promise<HttpResponse<Buffer>> created = Promise.promise();
+        webClient.post("/api/pages").sendJsonObject(new JsonObject()
+            .put("name", "Compressible")
+            .put("markdown", markdown.toString()), created);
+        AtomicReference<String> gzipETag = new AtomicReference<>();
+
+        created.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").putHeader("Accept-Encoding", "gzip, deflate").send(promise);
+            return promise.future();
+        }).compose(first -> {
+            assertThat(first.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(first.getHeader("Vary")).isEqualTo("Accept-Encoding");
+            assertThat(first.getHeader("ETag")).endsWith("-gz\"");
+            gzipETag.set(first.getHeader("ETag"));
+            assertThat(first.body().length()).isLessThan(markdown.length() / 4);
+            JsonObject page = new JsonObject(gunzip(first.body())).getJsonObject("page");
+            assertThat(page.getString("markdown")).isEqualTo(markdown.toString());
+            assertThat(page.getString("html")).startsWith("<h1>Compressible</h1>");
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").putHeader("Accept-Encoding", "gzip").send(promise);
+            return promise.future().map(second -> {
+                assertThat(second.body()).isEqualTo(first.body());
+                return second;
+            });
+        }).compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").putHeader("Accept-Encoding", "gzip;q=0").send(promise);
+            return promise.future();
+        }).compose(identity -> {
+            assertThat(identity.getHeader("Content-Encoding")).isNotEqualTo("gzip");
+            assertThat(identity.bodyAsJsonObject().getJsonObject("page").getString("markdown")).isEqualTo(markdown.toString());
+            // Both representations differ byte for byte, so they must not share a strong validator
+            assertThat(identity.getHeader("ETag")).isEqualTo(gzipETag.get().replace("-gz\"", "\""));
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0")
+                .putHeader("Accept-Encoding", "gzip")
+                .putHeader("If-None-Match", gzipETag.get())
+                .send(promise);
+            return promise.future();
+        }).compose(notModified -> {
+            assertThat(notModified.statusCode()).isEqualTo(304);
+            assertThat(notModified.getHeader("ETag")).isEqualTo(gzipETag.get());
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages").putHeader("Accept-Encoding", "gzip").send(promise);
+            return promise.future();
+        }).compose(small -> {
+            assertThat(small.getHeader("Content-Encoding")).isNotEqualTo("gzip");
+            assertThat(small.bodyAsJsonObject().getJsonArray("pages").size()).isEqualTo(1);
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/export").putHeader("Accept-Encoding", "gzip").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(new JsonObject(gunzip(resp.body()).trim()).getString("markdown")).isEqualTo(markdown.toString());
+            assertThat(WikiMetrics.get(vertx).counter("http.render_cache.compressed_hits").sum()).isEqualTo(1);
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void production_static_assets(VertxTestContext context) {
+        Promise<HttpResponse<Buffer>> index = Promise.promise();
+        webClient.get("/app/index.html").putHeader("Accept-Encoding", "gzip").send(index);
+
+        index.future().compose(resp -> {
+            assertThat(resp.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(resp.getHeader("Cache-Control")).isEqualTo("no-cache");
+            assertThat(resp.getHeader("Content-Type")).startsWith("text/html");
+            Matcher script = Pattern.compile("/app/wiki\\.[0-9a-f]{10}\\.js").matcher(gunzip(resp.body()));
+            assertThat(script.find()).isTrue();
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get(script.group()).send(promise);
+            return promise.future();
+        }).compose(script -> {
+            assertThat(script.statusCode()).isEqualTo(200);
+            assertThat(script.getHeader("Cache-Control")).isEqualTo("public, max-age=31536000, immutable");
+            assertThat(script.getHeader("Content-Encoding")).isNull();
+            assertThat(script.bodyAsString()).contains("angular.module");
+
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/app/wiki.js").putHeader("If-None-Match", script.getHeader("ETag")).send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(304);
+            assertThat(resp.getHeader("Cache-Control")).isEqualTo("no-cache");
+            context.completeNow();
+        })));
+    }
+
+    private static String gunzip(Buffer body) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.getBytes()))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int n; (n = in.read(chunk)) > 0; ) {
+                out.write(chunk, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    public void prometheus_metrics(VertxTestContext context) {
+        Promise<HttpResponse<Buffer>> listed = Promise.promise();
+        webClient.get("/api/pages").send(listed);
+
+        listed.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/metrics").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            assertThat(resp.getHeader("Content-Type")).startsWith("text/plain");
+            assertThat(resp.bodyAsString())
+                .contains("# TYPE wiki_http_requests_seconds histogram")
+                .contains("wiki_http_requests_seconds_count{route=\"/api/pages\"} 1")
+                .contains("wiki_http_requests_in_flight{route=\"/api/pages\"} 0")
+                .contains("wiki_wikidb_pool_wait_seconds_count{operation=\"fetchPagesSummary\"} 1")
+                .contains("wiki_wikidb_proxy_round_trip_seconds_count{operation=\"fetchPagesSummary\"} 1");
+            context.completeNow();
+        })));
+    }
+
+    JsonObject databaseConfig() {
+        return new JsonObject()
             .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:testdb;shutdown=true")
             .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4);
+    }
 
-        vertx.deployVerticle(new WikiDatabaseVerticle(),
-            new DeploymentOptions().setConfig(dbConf), context.completing());
+    @BeforeEach
+    void prepare(Vertx vertx, VertxTestContext context) {
+        JsonObject dbConf = databaseConfig();
 
-        vertx.deployVerticle(new HttpServerVerticle(), context.completing());
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(dbConf), context.succeeding(
+            dbId -> vertx.deployVerticle(new RenderVerticle(), context.succeeding(
+                renderId -> vertx.deployVerticle(new HttpServerVerticle(), context.completing())))));
 
         webClient = WebClient.create(vertx, new WebClientOptions()
             .setDefaultHost("localhost")
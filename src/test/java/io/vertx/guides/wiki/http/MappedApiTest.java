@@ -0,0 +1,50 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.guides.wiki.database.WikiDatabaseVerticle;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the API tests against the memory-mapped page store instead of HSQLDB.
+ */
+class MappedApiTest extends ApiTest {
+
+    @TempDir
+    Path storeDir;
+
+    @Override
+    JsonObject databaseConfig() {
+        return new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_BACKEND, "mapped")
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_DIRECTORY, storeDir.toString())
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_MAPPED_SEGMENT_BYTES, 1024 * 1024);
+    }
+
+    @Test
+    @Override
+    public void prometheus_metrics(VertxTestContext context) {
+        Promise<HttpResponse<Buffer>> listed = Promise.promise();
+        webClient.get("/api/pages").send(listed);
+
+        listed.future().compose(resp -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/metrics").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.bodyAsString())
+                .contains("wiki_wikidb_query_time_seconds_count{operation=\"fetchPagesSummary\"} 1")
+                .contains("wiki_wikidb_store_pages 0")
+                .contains("wiki_wikidb_proxy_round_trip_seconds_count{operation=\"fetchPagesSummary\"} 1");
+            context.completeNow();
+        })));
+    }
+}
@@ -0,0 +1,47 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageChangesTest {
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @AfterEach
+    void close() {
+        vertx.close();
+    }
+
+    @Test
+    public void numbers_and_publishes_changes() {
+        PageChanges changes = new PageChanges(8);
+
+        JsonObject created = changes.publish(vertx.eventBus(), PageChanges.CREATED, 1, "A");
+        changes.publish(vertx.eventBus(), PageChanges.DELETED, 1, null);
+
+        assertThat(created.getLong("seq")).isEqualTo(1);
+        assertThat(changes.seq()).isEqualTo(2);
+        assertThat(changes.since(0).stream().map(change -> change.getString("type")).collect(Collectors.toList()))
+            .containsExactly("created", "deleted");
+        assertThat(changes.since(1).get(0).containsKey("name")).isFalse();
+        assertThat(changes.since(2)).isEmpty();
+        assertThat(changes.since(3)).isNull();
+    }
+
+    @Test
+    public void forgets_changes_beyond_capacity() {
+        PageChanges changes = new PageChanges(2);
+        for (int id = 1; id <= 3; id++) {
+            changes.publish(vertx.eventBus(), PageChanges.CREATED, id, "Page " + id);
+        }
+
+        assertThat(changes.since(0)).isNull();
+        assertThat(changes.since(1)).extracting(change -> change.getInteger("id")).containsExactly(2, 3);
+    }
+}
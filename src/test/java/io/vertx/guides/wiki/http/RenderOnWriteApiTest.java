@@ -0,0 +1,144 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.UpdateResult;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.codec.BodyCodec;
+import io.vertx.guides.wiki.database.WikiDatabaseVerticle;
+import io.vertx.guides.wiki.render.Markdown;
+import io.vertx.guides.wiki.render.RenderVerticle;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * API tests with {@code wikidb.render_on_write}, changing stored HTML behind the service's back to tell it apart from
+ * HTML rendered on read.
+ */
+@ExtendWith(VertxExtension.class)
+class RenderOnWriteApiTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:renderonwrite;shutdown=true";
+
+    private WebClient webClient;
+    private JDBCClient jdbc;
+
+    @BeforeEach
+    void prepare(Vertx vertx, VertxTestContext context) {
+        JsonObject dbConf = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, JDBC_URL)
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4)
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_RENDER_ON_WRITE, true)
+            // Rows changed by the test must be read back from the database
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_CACHE_MAX_ENTRIES, 0);
+
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(dbConf), context.succeeding(
+            dbId -> vertx.deployVerticle(new RenderVerticle(), context.succeeding(
+                renderId -> vertx.deployVerticle(new HttpServerVerticle(), context.completing())))));
+
+        webClient = WebClient.create(vertx, new WebClientOptions()
+            .setDefaultHost("localhost")
+            .setDefaultPort(8080));
+        jdbc = JDBCClient.createNonShared(vertx, new JsonObject()
+            .put("url", JDBC_URL)
+            .put("driver_class", "org.hsqldb.jdbcDriver")
+            .put("max_pool_size", 1));
+    }
+
+    @AfterEach
+    void finish(Vertx vertx, VertxTestContext context) {
+        vertx.close(context.completing());
+    }
+
+    private Future<Integer> createPage(String name, String markdown) {
+        Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+        webClient.post("/api/pages")
+            .as(BodyCodec.jsonObject())
+            .sendJsonObject(new JsonObject().put("name", name).put("markdown", markdown), promise);
+        return promise.future().map(resp -> resp.body().getInteger("id"));
+    }
+
+    private Future<String> fetchHtml(int id) {
+        Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+        webClient.get("/api/pages/" + id)
+            .as(BodyCodec.jsonObject())
+            .send(promise);
+        return promise.future().map(resp -> resp.body().getJsonObject("page").getString("html"));
+    }
+
+    private Future<JsonArray> storedHtml(int id) {
+        Promise<ResultSet> promise = Promise.promise();
+        jdbc.queryWithParams("select Html, HtmlVersion from Pages where Id = ?", new JsonArray().add(id), promise);
+        return promise.future().map(result -> result.getResults().get(0));
+    }
+
+    private Future<UpdateResult> storeHtml(int id, String html, int version) {
+        Promise<UpdateResult> promise = Promise.promise();
+        jdbc.updateWithParams("update Pages set Html = ?, HtmlVersion = ? where Id = ?",
+            new JsonArray().add(html).add(version).add(id), promise);
+        return promise.future();
+    }
+
+    @Test
+    public void serves_stored_html(VertxTestContext context) {
+        createPage("Stored", "# Stored").compose(id -> storedHtml(id).compose(row -> {
+            assertThat(row.getString(0)).isEqualTo(Markdown.render("# Stored"));
+            assertThat(row.getInteger(1)).isEqualTo(Markdown.VERSION);
+            return storeHtml(id, "<p>From the database</p>", Markdown.VERSION);
+        }).compose(updated -> fetchHtml(id)))
+            .onComplete(context.succeeding(html -> context.verify(() -> {
+                assertThat(html).isEqualTo("<p>From the database</p>");
+                context.completeNow();
+            })));
+    }
+
+    @Test
+    public void saving_refreshes_stored_html(VertxTestContext context) {
+        createPage("Saved", "# Before").compose(id -> {
+            Promise<HttpResponse<JsonObject>> promise = Promise.promise();
+            webClient.put("/api/pages/" + id)
+                .as(BodyCodec.jsonObject())
+                .sendJsonObject(new JsonObject().put("id", id).put("markdown", "# After"), promise);
+            return promise.future().compose(resp -> {
+                assertThat(resp.statusCode()).isEqualTo(200);
+                return storedHtml(id);
+            }).compose(row -> {
+                assertThat(row.getString(0)).isEqualTo(Markdown.render("# After"));
+                assertThat(row.getInteger(1)).isEqualTo(Markdown.VERSION);
+                return fetchHtml(id);
+            });
+        }).onComplete(context.succeeding(html -> context.verify(() -> {
+            assertThat(html).isEqualTo(Markdown.render("# After"));
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void rerenders_html_of_older_renderer_versions(VertxTestContext context) {
+        createPage("Stale", "# Stale").compose(id -> storeHtml(id, "<p>Old renderer</p>", Markdown.VERSION - 1)
+            .compose(updated -> fetchHtml(id))
+            .compose(html -> {
+                assertThat(html).isEqualTo(Markdown.render("# Stale"));
+                return storedHtml(id);
+            }))
+            .onComplete(context.succeeding(row -> context.verify(() -> {
+                assertThat(row.getString(0)).isEqualTo(Markdown.render("# Stale"));
+                assertThat(row.getInteger(1)).isEqualTo(Markdown.VERSION);
+                context.completeNow();
+            })));
+    }
+}
@@ -0,0 +1,192 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.guides.wiki.database.WikiDatabaseVerticle;
+import io.vertx.guides.wiki.metrics.Timer;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.guides.wiki.render.RenderVerticle;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Renders on a render worker pool of one thread with a queue of one, kept busy by a task of the test sharing it until
+ * the test releases it.
+ */
+@ExtendWith(VertxExtension.class)
+class RenderQueueTest {
+
+    private final CountDownLatch poolBusy = new CountDownLatch(1);
+
+    private WebClient webClient;
+
+    @BeforeEach
+    void prepare(Vertx vertx, VertxTestContext context) {
+        JsonObject dbConf = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:renderqueue;shutdown=true")
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4);
+        JsonObject renderConf = new JsonObject()
+            .put(RenderVerticle.CONFIG_RENDER_POOL_SIZE, 1)
+            .put(RenderVerticle.CONFIG_RENDER_QUEUE_SIZE, 1);
+
+        vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(dbConf), context.succeeding(
+            dbId -> vertx.deployVerticle(new RenderVerticle(), new DeploymentOptions().setConfig(renderConf),
+                context.succeeding(renderId -> {
+                    WorkerExecutor renderPool = vertx.createSharedWorkerExecutor("wiki-render", 1);
+                    renderPool.executeBlocking(promise -> {
+                        try {
+                            poolBusy.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        promise.complete();
+                    }, false, null);
+                    vertx.deployVerticle(new HttpServerVerticle(), context.completing());
+                }))));
+
+        webClient = WebClient.create(vertx, new WebClientOptions()
+            .setDefaultHost("localhost")
+            .setDefaultPort(8080));
+    }
+
+    @AfterEach
+    void finish(Vertx vertx, VertxTestContext context) {
+        poolBusy.countDown();
+        vertx.close(context.completing());
+    }
+
+    /**
+     * Large enough to be rendered on the worker pool.
+     */
+    private static String largeMarkdown() {
+        StringBuilder markdown = new StringBuilder();
+        while (markdown.length() < 64 * 1024) {
+            markdown.append("Some *text* here.\n\n");
+        }
+        return markdown.toString();
+    }
+
+    /**
+     * Imports do not render, so the first read of the page renders it.
+     */
+    private Future<Void> importLargePage() {
+        Promise<HttpResponse<Buffer>> promise = Promise.promise();
+        webClient.post("/api/import").sendBuffer(Buffer.buffer(new JsonObject()
+            .put("name", "Large")
+            .put("markdown", largeMarkdown())
+            .encode()), promise);
+        return promise.future().mapEmpty();
+    }
+
+    private Future<List<HttpResponse<Buffer>>> fetchConcurrently(int requests) {
+        List<Future> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").send(promise);
+            responses.add(promise.future());
+        }
+        return CompositeFuture.all(responses).map(CompositeFuture::list);
+    }
+
+    @Test
+    public void rejects_renders_beyond_the_queue(VertxTestContext context) {
+        String markdown = largeMarkdown();
+
+        // Two renders fill the worker and its queue of one, the third is rejected
+        int requests = 3;
+        List<HttpResponse<Buffer>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            webClient.post("/app/markdown").sendBuffer(Buffer.buffer(markdown), context.succeeding(resp -> {
+                responses.add(resp);
+                if (resp.statusCode() == 503) {
+                    poolBusy.countDown();
+                }
+                if (responses.size() == requests) {
+                    context.verify(() -> {
+                        assertThat(responses).filteredOn(r -> r.statusCode() == 200).hasSize(2);
+                        HttpResponse<Buffer> rejected = responses.stream()
+                            .filter(r -> r.statusCode() == 503)
+                            .findFirst()
+                            .get();
+                        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+                        context.completeNow();
+                    });
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void concurrent_reads_share_one_load_and_render(Vertx vertx, VertxTestContext context) {
+        int requests = 5;
+        WikiMetrics metrics = WikiMetrics.get(vertx);
+        LongAdder coalesced = metrics.counter("http.page_loads.coalesced");
+        Timer queries = metrics.timer("wikidb.query.time", "operation", "fetchPageById");
+        Timer renders = metrics.timer("render.pool.time");
+
+        importLargePage().compose(v -> {
+            Future<List<HttpResponse<Buffer>>> responses = fetchConcurrently(requests);
+            // The render of the first request waits for the pool, until every other request joined its load
+            vertx.setPeriodic(10, timer -> {
+                if (coalesced.sum() == requests - 1) {
+                    vertx.cancelTimer(timer);
+                    poolBusy.countDown();
+                }
+            });
+            return responses;
+        }).onComplete(context.succeeding(responses -> context.verify(() -> {
+            assertThat(responses).allMatch(resp -> resp.statusCode() == 200);
+            assertThat(queries.count()).isEqualTo(1);
+            assertThat(renders.count()).isEqualTo(1);
+            context.completeNow();
+        })));
+    }
+
+    @Test
+    public void failed_loads_reach_every_request_and_are_not_kept(Vertx vertx, VertxTestContext context) {
+        List<Future> fills = new ArrayList<>();
+
+        importLargePage().compose(v -> {
+            // Renders sent straight to the render verticle fill the worker and its queue
+            for (int i = 0; i < 2; i++) {
+                Promise<Message<Object>> promise = Promise.promise();
+                vertx.eventBus().request(RenderVerticle.CONFIG_RENDER_QUEUE, largeMarkdown(), promise);
+                fills.add(promise.future());
+            }
+            return fetchConcurrently(3);
+        }).compose(responses -> {
+            assertThat(responses).allMatch(resp -> resp.statusCode() == 503);
+            assertThat(responses).allMatch(resp -> "1".equals(resp.getHeader("Retry-After")));
+            poolBusy.countDown();
+            return CompositeFuture.all(fills);
+        }).compose(rendered -> {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            webClient.get("/api/pages/0").send(promise);
+            return promise.future();
+        }).onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertThat(resp.statusCode()).isEqualTo(200);
+            context.completeNow();
+        })));
+    }
+}
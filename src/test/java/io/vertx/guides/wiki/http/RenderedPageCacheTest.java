@@ -0,0 +1,61 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderedPageCacheTest {
+
+    @Test
+    public void serves_html_only_for_unchanged_markdown() {
+        WikiMetrics metrics = new WikiMetrics();
+        RenderedPageCache cache = new RenderedPageCache(1024, metrics);
+
+        cache.put(1, "# A", "<h1>A</h1>");
+
+        assertThat(cache.get(1, "# A")).isEqualTo("<h1>A</h1>");
+        assertThat(cache.get(1, "# B")).isNull();
+        assertThat(metrics.counter("http.render_cache.hits").sum()).isEqualTo(1);
+        assertThat(metrics.counter("http.render_cache.misses").sum()).isEqualTo(1);
+
+        cache.invalidate(1);
+        assertThat(cache.get(1, "# A")).isNull();
+        assertThat(cache.sizeInBytes()).isZero();
+    }
+
+    @Test
+    public void evicts_least_recently_used_entries_over_budget() {
+        WikiMetrics metrics = new WikiMetrics();
+        RenderedPageCache cache = new RenderedPageCache(300, metrics);
+
+        cache.put(1, "one", "<p>one</p>");
+        cache.put(2, "two", "<p>two</p>");
+        cache.get(1, "one");
+        cache.put(3, "three", "<p>three</p>");
+
+        assertThat(cache.get(2, "two")).isNull();
+        assertThat(cache.get(1, "one")).isEqualTo("<p>one</p>");
+        assertThat(cache.get(3, "three")).isEqualTo("<p>three</p>");
+        assertThat(cache.sizeInBytes()).isLessThanOrEqualTo(300);
+        assertThat(metrics.counter("http.render_cache.evictions").sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void serves_compressed_page_only_for_unchanged_markdown_and_name() {
+        WikiMetrics metrics = new WikiMetrics();
+        RenderedPageCache cache = new RenderedPageCache(1024, metrics);
+        byte[] gzipped = {31, -117, 8};
+
+        cache.putCompressed(1, "# A", "<h1>A</h1>", "A", gzipped);
+
+        assertThat(cache.getCompressed(1, "# A", "A")).isSameAs(gzipped);
+        assertThat(cache.getCompressed(1, "# A", "Renamed")).isNull();
+        assertThat(cache.getCompressed(1, "# B", "A")).isNull();
+        assertThat(cache.get(1, "# A")).isEqualTo("<h1>A</h1>");
+        assertThat(metrics.counter("http.render_cache.compressed_hits").sum()).isEqualTo(1);
+
+        cache.put(1, "# A", "<h1>A</h1>");
+        assertThat(cache.getCompressed(1, "# A", "A")).isNull();
+    }
+}
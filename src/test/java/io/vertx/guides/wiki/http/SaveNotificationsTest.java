@@ -0,0 +1,61 @@
+package io.vertx.guides.wiki.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.guides.wiki.metrics.WikiMetrics;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class SaveNotificationsTest {
+
+    private static JsonObject saved(int id, long version) {
+        return new JsonObject().put("id", id).put("version", version).put("client", "c");
+    }
+
+    @Test
+    public void notifies_subscribers_of_the_page_once_per_version(Vertx vertx) {
+        WikiMetrics metrics = new WikiMetrics();
+        SaveNotifications notifications = new SaveNotifications(vertx, 0, metrics);
+        notifications.subscribed("socket-1", "page.saved.1");
+        notifications.subscribed("socket-2", "page.saved.1");
+        notifications.subscribed("socket-2", "page.markdown");
+
+        notifications.saved(saved(1, 3));
+        notifications.saved(saved(1, 3));
+        notifications.saved(saved(2, 1));
+
+        assertThat(metrics.counter("http.page_saved.publications").sum()).isEqualTo(1);
+        assertThat(metrics.counter("http.page_saved.deliveries").sum()).isEqualTo(2);
+        assertThat(metrics.toJson().getLong("http.page_saved.max_fan_out")).isEqualTo(2);
+
+        notifications.closed("socket-1");
+        notifications.unsubscribed("socket-2", "page.saved.1");
+        notifications.saved(saved(1, 4));
+        assertThat(metrics.toJson().getLong("http.page_saved.watched_pages")).isZero();
+        assertThat(metrics.counter("http.page_saved.publications").sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void batches_saves_of_a_page_within_the_window(Vertx vertx, VertxTestContext context) {
+        List<Long> versions = new ArrayList<>();
+        vertx.eventBus().<JsonObject>consumer("page.saved.1", msg -> versions.add(msg.body().getLong("version")));
+        SaveNotifications notifications = new SaveNotifications(vertx, 50, new WikiMetrics());
+        notifications.subscribed("socket-1", "page.saved.1");
+
+        notifications.saved(saved(1, 1));
+        notifications.saved(saved(1, 2));
+
+        vertx.setTimer(200, timer -> context.verify(() -> {
+            assertThat(versions).containsExactly(2L);
+            context.completeNow();
+        }));
+    }
+}
@@ -0,0 +1,169 @@
+package io.vertx.guides.wiki.load;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-loop load generator: requests are started on a fixed schedule derived from the target rate, whether or not
+ * earlier ones have completed, and latency is measured from the scheduled start. A slow server therefore shows up as
+ * queueing delay in the percentiles instead of silently lowering the offered load (coordinated omission).
+ */
+class LoadGenerator {
+
+    static final String MARKDOWN = "# Load test page\n\n"
+        + "Some *emphasis*, some **strong text**, a [link](https://vertx.io) and `inline code`.\n\n"
+        + "* first item\n* second item\n    * nested item\n\n"
+        + "    vertx.deployVerticle(new MainVerticle());\n\n"
+        + "> A quote to render, followed by a closing paragraph long enough to look like real content in a wiki "
+        + "page that people actually edit.\n";
+
+    private final Vertx vertx;
+    private final WebClient client;
+    private final int rate;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final List<Integer> stableIds;
+    private final Deque<Integer> deletableIds;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int created;
+
+    LoadGenerator(Vertx vertx, WebClient client, LoadProfile profile, List<Integer> stableIds, List<Integer> deletableIds) {
+        this.vertx = vertx;
+        this.client = client;
+        this.rate = profile.rate;
+        this.operations = profile.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : profile.mix.entrySet()) {
+            sum += entry.getValue();
+            cumulativeWeights[i++] = sum;
+        }
+        this.stableIds = stableIds;
+        this.deletableIds = new ArrayDeque<>(deletableIds);
+    }
+
+    /**
+     * Offers load for {@code durationNanos}, then completes once every started request has completed.
+     */
+    CompletableFuture<LoadReport> run(long durationNanos) {
+        CompletableFuture<LoadReport> done = new CompletableFuture<>();
+        vertx.runOnContext(v -> new Run(durationNanos, done).start());
+        return done;
+    }
+
+    private Operation pick() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (draw >= cumulativeWeights[i]) {
+            i++;
+        }
+        return operations[i];
+    }
+
+    private void request(Operation operation, Handler<AsyncResult<HttpResponse<Buffer>>> handler) {
+        switch (operation) {
+            case LIST:
+                client.get("/api/pages").send(handler);
+                break;
+            case GET:
+                client.get("/api/pages/" + stableId()).send(handler);
+                break;
+            case CREATE:
+                client.post("/api/pages").sendJsonObject(new JsonObject()
+                    .put("name", "Load page " + created++)
+                    .put("markdown", MARKDOWN), handler);
+                break;
+            case SAVE:
+                client.put("/api/pages/" + stableId()).sendJsonObject(new JsonObject()
+                    .put("markdown", MARKDOWN)
+                    .put("client", "load"), handler);
+                break;
+            case DELETE:
+                Integer id = deletableIds.poll();
+                if (id == null) {
+                    handler.handle(Future.failedFuture("No seeded page left to delete"));
+                } else {
+                    client.delete("/api/pages/" + id).send(handler);
+                }
+                break;
+            case PREVIEW:
+                client.post("/app/markdown").sendBuffer(Buffer.buffer(MARKDOWN), handler);
+                break;
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    private int stableId() {
+        return stableIds.get(random.nextInt(stableIds.size()));
+    }
+
+    /**
+     * One scheduling run. Only touched from the event loop the run was started on.
+     */
+    private final class Run {
+
+        private final LoadReport report = new LoadReport();
+        private final CompletableFuture<LoadReport> done;
+        private final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        private final long start = System.nanoTime();
+        private final long end;
+        private long next = start;
+        private int outstanding;
+        private boolean scheduling = true;
+
+        private Run(long durationNanos, CompletableFuture<LoadReport> done) {
+            this.end = start + durationNanos;
+            this.done = done;
+        }
+
+        private void start() {
+            vertx.setPeriodic(1, this::tick);
+        }
+
+        private void tick(long timerId) {
+            long now = System.nanoTime();
+            while (next <= now && next < end) {
+                send(pick(), next);
+                next += intervalNanos;
+            }
+            if (next >= end) {
+                vertx.cancelTimer(timerId);
+                scheduling = false;
+                completeIfDone();
+            }
+        }
+
+        private void send(Operation operation, long intendedStart) {
+            outstanding++;
+            request(operation, ar -> {
+                boolean failed = ar.failed() || ar.result().statusCode() >= 400;
+                report.record(operation, System.nanoTime() - intendedStart, failed);
+                outstanding--;
+                completeIfDone();
+            });
+        }
+
+        private void completeIfDone() {
+            if (!scheduling && outstanding == 0) {
+                report.finish(System.nanoTime() - start);
+                done.complete(report);
+            }
+        }
+    }
+}
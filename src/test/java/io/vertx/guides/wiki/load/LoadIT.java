@@ -0,0 +1,103 @@
+package io.vertx.guides.wiki.load;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.guides.wiki.MainVerticle;
+import io.vertx.guides.wiki.database.WikiDatabaseVerticle;
+import io.vertx.guides.wiki.http.HttpServerVerticle;
+import io.vertx.junit5.VertxExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the whole application, deployed by {@link MainVerticle} on a temporary HSQLDB file, with the request mix and
+ * rate of a {@link LoadProfile}, then fails if the latency or error SLO is not met.
+ * <p>
+ * Run with {@code mvn -Pload verify}; reports go to {@code target/load}.
+ */
+@ExtendWith(VertxExtension.class)
+class LoadIT {
+
+    private static final int STABLE_PAGES = 500;
+
+    @Test
+    void meets_latency_slo_under_load(Vertx vertx, @TempDir Path dbDir) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        JsonObject config = new JsonObject()
+            .put(WikiDatabaseVerticle.CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:file:" + dbDir.resolve("wiki") + ";shutdown=true")
+            .put(HttpServerVerticle.CONFIG_HTTP_SERVER_PORT, 8080);
+        LoadIT.<String>await(promise -> vertx.deployVerticle(new MainVerticle(), new DeploymentOptions().setConfig(config), promise));
+
+        WebClient client = WebClient.create(vertx, new WebClientOptions()
+            .setDefaultHost("localhost")
+            .setDefaultPort(8080)
+            .setMaxPoolSize(64)
+            .setMaxWaitQueueSize(-1));
+
+        int deletable = profile.deletablePages();
+        seed(client, deletable);
+        List<Integer> stableIds = new ArrayList<>();
+        List<Integer> deletableIds = new ArrayList<>();
+        HttpResponse<Buffer> listing = LoadIT.<HttpResponse<Buffer>>await(promise -> client.get("/api/pages").send(promise));
+        listing.bodyAsJsonObject().getJsonArray("pages").forEach(page -> {
+            JsonObject summary = (JsonObject) page;
+            (summary.getString("name").startsWith("Stable") ? stableIds : deletableIds).add(summary.getInteger("id"));
+        });
+        assertThat(stableIds).hasSize(STABLE_PAGES);
+        assertThat(deletableIds).hasSize(deletable);
+
+        LoadGenerator generator = new LoadGenerator(vertx, client, profile, stableIds, deletableIds);
+        if (profile.warmupNanos > 0) {
+            generator.run(profile.warmupNanos).get(profile.warmupNanos + TimeUnit.MINUTES.toNanos(2), TimeUnit.NANOSECONDS);
+        }
+        LoadReport report = generator.run(profile.durationNanos)
+            .get(profile.durationNanos + TimeUnit.MINUTES.toNanos(2), TimeUnit.NANOSECONDS);
+
+        System.out.printf("Load test at %d req/s for %d s:%n%s", profile.rate,
+            TimeUnit.NANOSECONDS.toSeconds(profile.durationNanos), report.summary());
+        report.writeTo(Paths.get(profile.reportDir));
+
+        assertThat(report.requests()).isPositive();
+        assertThat(report.sloViolations(profile)).as("SLO violations").isEmpty();
+    }
+
+    private static void seed(WebClient client, int deletable) throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < STABLE_PAGES + deletable; i++) {
+            String name = (i < STABLE_PAGES ? "Stable page " : "Disposable page ") + i;
+            ndjson.append(new JsonObject().put("name", name).put("markdown", LoadGenerator.MARKDOWN).encode()).append('\n');
+        }
+        HttpResponse<Buffer> response = LoadIT.<HttpResponse<Buffer>>await(
+            promise -> client.post("/api/import").sendBuffer(Buffer.buffer(ndjson.toString()), promise));
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    private static <T> T await(Handler<Handler<AsyncResult<T>>> operation) throws Exception {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        operation.handle(ar -> {
+            if (ar.succeeded()) {
+                future.complete(ar.result());
+            } else {
+                future.completeExceptionally(ar.cause());
+            }
+        });
+        return future.get(1, TimeUnit.MINUTES);
+    }
+}
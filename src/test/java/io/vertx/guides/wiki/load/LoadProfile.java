@@ -0,0 +1,74 @@
+package io.vertx.guides.wiki.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test settings, read from {@code load.*} system properties (see the {@code load} profile of the pom).
+ */
+class LoadProfile {
+
+    final int rate;
+    final long warmupNanos;
+    final long durationNanos;
+    final Map<Operation, Integer> mix;
+    final double sloP99Millis;
+    final double sloP999Millis;
+    final double sloErrorRate;
+    final String reportDir;
+
+    private LoadProfile(int rate, long warmupSeconds, long durationSeconds, Map<Operation, Integer> mix,
+                        double sloP99Millis, double sloP999Millis, double sloErrorRate, String reportDir) {
+        this.rate = rate;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.mix = mix;
+        this.sloP99Millis = sloP99Millis;
+        this.sloP999Millis = sloP999Millis;
+        this.sloErrorRate = sloErrorRate;
+        this.reportDir = reportDir;
+    }
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+            Integer.getInteger("load.rate", 200),
+            Long.getLong("load.warmup.seconds", 5L),
+            Long.getLong("load.duration.seconds", 20L),
+            parseMix(System.getProperty("load.mix", "list=20,get=45,create=5,save=15,delete=5,preview=10")),
+            Double.parseDouble(System.getProperty("load.slo.p99.ms", "250")),
+            Double.parseDouble(System.getProperty("load.slo.p999.ms", "1000")),
+            Double.parseDouble(System.getProperty("load.slo.error.rate", "0.001")),
+            System.getProperty("load.report.dir", "target/load"));
+    }
+
+    /**
+     * Parses {@code operation=weight} pairs separated by commas; operations left out are not run.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty load.mix: " + mix);
+        }
+        return weights;
+    }
+
+    /**
+     * Number of pages to seed for deletion, with headroom over the deletes expected from the rate and mix.
+     */
+    int deletablePages() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double seconds = (warmupNanos + durationNanos) / 1e9;
+        return (int) (rate * seconds * mix.getOrDefault(Operation.DELETE, 0) / total * 1.5) + 10;
+    }
+}
@@ -0,0 +1,122 @@
+package io.vertx.guides.wiki.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms, in microseconds from the intended start of each request, and error counts per operation.
+ */
+class LoadReport {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Histogram total = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+    private final LongAdder totalErrors = new LongAdder();
+    private long elapsedNanos;
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean failed) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY_MICROS);
+        latencies.get(operation).recordValue(micros);
+        total.recordValue(micros);
+        if (failed) {
+            errors.get(operation).increment();
+            totalErrors.increment();
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    long requests() {
+        return total.getTotalCount();
+    }
+
+    double errorRate() {
+        return total.getTotalCount() == 0 ? 0 : (double) totalErrors.sum() / total.getTotalCount();
+    }
+
+    double percentileMillis(double percentile) {
+        return total.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    String summary() {
+        StringBuilder out = new StringBuilder(String.format("%-8s %8s %7s %9s %9s %9s %9s %9s%n",
+            "", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        latencies.forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                line(out, operation.name().toLowerCase(), histogram, errors.get(operation).sum());
+            }
+        });
+        line(out, "all", total, totalErrors.sum());
+        return out.toString();
+    }
+
+    private void line(StringBuilder out, String name, Histogram histogram, long errorCount) {
+        out.append(String.format("%-8s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+            name,
+            histogram.getTotalCount(),
+            errorCount,
+            histogram.getTotalCount() / (elapsedNanos / 1e9),
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0));
+    }
+
+    /**
+     * Writes the summary and, for each operation, the HdrHistogram percentile distribution in milliseconds
+     * ({@code .hgrm}, the format plotted by the HdrHistogram tools).
+     */
+    void writeTo(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("summary.txt"), summary().getBytes(StandardCharsets.UTF_8));
+        writeDistribution(dir.resolve("all.hgrm"), total);
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            if (entry.getValue().getTotalCount() > 0) {
+                writeDistribution(dir.resolve(entry.getKey().name().toLowerCase() + ".hgrm"), entry.getValue());
+            }
+        }
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    List<String> sloViolations(LoadProfile profile) {
+        List<String> violations = new ArrayList<>();
+        if (percentileMillis(99) > profile.sloP99Millis) {
+            violations.add(String.format("p99 %.2f ms > %.2f ms", percentileMillis(99), profile.sloP99Millis));
+        }
+        if (percentileMillis(99.9) > profile.sloP999Millis) {
+            violations.add(String.format("p99.9 %.2f ms > %.2f ms", percentileMillis(99.9), profile.sloP999Millis));
+        }
+        if (errorRate() > profile.sloErrorRate) {
+            violations.add(String.format("error rate %.4f > %.4f", errorRate(), profile.sloErrorRate));
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,13 @@
+package io.vertx.guides.wiki.load;
+
+/**
+ * Kinds of requests a load test mixes, each reported separately.
+ */
+enum Operation {
+    LIST,
+    GET,
+    CREATE,
+    SAVE,
+    DELETE,
+    PREVIEW
+}
@@ -0,0 +1,47 @@
+package io.vertx.guides.wiki.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WikiMetricsTest {
+
+    @Test
+    public void renders_prometheus_text_format() {
+        WikiMetrics metrics = new WikiMetrics();
+        metrics.counter("wikidb.cache.hits").add(3);
+        metrics.gauge("http.requests.in_flight", "route", "/api/pages").increment();
+        metrics.gauge("wikidb.pool.max_size", () -> 4);
+        Timer timer = metrics.timers("wikidb.query.time", "operation").get("fetchPage");
+        timer.record(TimeUnit.MICROSECONDS.toNanos(50));
+        timer.record(TimeUnit.MILLISECONDS.toNanos(3));
+        timer.record(TimeUnit.SECONDS.toNanos(20));
+
+        String text = metrics.toPrometheus();
+
+        assertThat(text)
+            .contains("# TYPE wiki_wikidb_cache_hits_total counter\nwiki_wikidb_cache_hits_total 3\n")
+            .contains("# TYPE wiki_http_requests_in_flight gauge\nwiki_http_requests_in_flight{route=\"/api/pages\"} 1\n")
+            .contains("wiki_wikidb_pool_max_size 4\n")
+            .contains("# TYPE wiki_wikidb_query_time_seconds histogram\n")
+            .contains("wiki_wikidb_query_time_seconds_bucket{operation=\"fetchPage\",le=\"0.0001\"} 1\n")
+            .contains("wiki_wikidb_query_time_seconds_bucket{operation=\"fetchPage\",le=\"0.0025\"} 1\n")
+            .contains("wiki_wikidb_query_time_seconds_bucket{operation=\"fetchPage\",le=\"0.005\"} 2\n")
+            .contains("wiki_wikidb_query_time_seconds_bucket{operation=\"fetchPage\",le=\"10\"} 2\n")
+            .contains("wiki_wikidb_query_time_seconds_bucket{operation=\"fetchPage\",le=\"+Inf\"} 3\n")
+            .contains("wiki_wikidb_query_time_seconds_sum{operation=\"fetchPage\"} 20.00305\n")
+            .contains("wiki_wikidb_query_time_seconds_count{operation=\"fetchPage\"} 3\n");
+        assertThat(metrics.toJson().getJsonObject("wikidb.query.time{operation=fetchPage}").getLong("count"))
+            .isEqualTo(3);
+    }
+
+    @Test
+    public void escapes_label_values() {
+        WikiMetrics metrics = new WikiMetrics();
+        metrics.counter("errors", "message", "say \"hi\"\\\n").increment();
+
+        assertThat(metrics.toPrometheus()).contains("wiki_errors_total{message=\"say \\\"hi\\\"\\\\\\n\"} 1\n");
+    }
+}
@@ -0,0 +1,78 @@
+package io.vertx.guides.wiki.search;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private static List<Integer> ids(List<JsonObject> hits) {
+        return hits.stream().map(hit -> hit.getInteger("id")).collect(Collectors.toList());
+    }
+
+    private static SearchIndex sampleIndex() {
+        SearchIndex index = new SearchIndex();
+        index.put(IndexedPage.of(1, "Event loop", "0@a", "The *event loop* must never be blocked."));
+        index.put(IndexedPage.of(2, "Workers", "0@a", "Worker verticles may block, unlike the event loop."));
+        index.put(IndexedPage.of(3, "Codecs", "0@a", "Message codecs for the event bus."));
+        return index;
+    }
+
+    @Test
+    public void ranks_pages_with_bm25() {
+        SearchIndex index = sampleIndex();
+
+        assertThat(ids(index.search("event loop", 10))).containsExactly(1, 2, 3);
+        assertThat(ids(index.search("BLOCK", 10))).containsExactly(2);
+        assertThat(ids(index.search("event loop", 2))).containsExactly(1, 2);
+        assertThat(index.search("missing", 10)).isEmpty();
+        assertThat(index.search("**", 10)).isEmpty();
+    }
+
+    @Test
+    public void replaces_and_removes_pages() {
+        SearchIndex index = sampleIndex();
+
+        index.put(IndexedPage.of(2, "Workers", "1@b", "Blocking code goes to the worker pool."));
+        assertThat(index.stamp(2)).isEqualTo("1@b");
+        assertThat(ids(index.search("verticles", 10))).isEmpty();
+        assertThat(ids(index.search("pool", 10))).containsExactly(2);
+
+        assertThat(index.remove(1)).isTrue();
+        assertThat(index.remove(1)).isFalse();
+        assertThat(index.documents()).isEqualTo(2);
+        assertThat(ids(index.search("event", 10))).containsExactly(3);
+
+        // Churn enough for postings to be compacted and slots to be reused
+        for (int i = 0; i < 100; i++) {
+            index.put(IndexedPage.of(10 + i % 3, "Churn " + i, "0@a", "event"));
+        }
+        assertThat(index.documents()).isEqualTo(5);
+        assertThat(ids(index.search("churn", 10))).containsExactlyInAnyOrder(10, 11, 12);
+    }
+
+    @Test
+    public void round_trips_through_snapshot_file(@TempDir Path dir) throws Exception {
+        SearchIndex index = sampleIndex();
+        index.remove(3);
+        Path file = dir.resolve("wiki.search");
+
+        index.snapshot().writeTo(file);
+        SearchIndex loaded = SearchIndex.readFrom(file);
+
+        assertThat(loaded.documents()).isEqualTo(2);
+        assertThat(loaded.stamp(1)).isEqualTo("0@a");
+        assertThat(loaded.stamp(3)).isNull();
+        assertThat(loaded.search("event loop", 10)).isEqualTo(index.search("event loop", 10));
+
+        loaded.remove(1);
+        loaded.put(IndexedPage.of(4, "Bus", "0@a", "Event bus addresses."));
+        assertThat(ids(loaded.search("event", 10))).containsExactlyInAnyOrder(2, 4);
+    }
+}